@@ -0,0 +1,111 @@
+package com.hallowedsep;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cost of classifying one chat line, cycling through the recorded corpus so the mix of
+ * Sepulchre messages and unrelated spam matches a real run. Run with the gc profiler
+ * (the default in build.gradle) to get B/op alongside ns/op.
+ */
+@State(Scope.Thread)
+public class ChatParseBenchmark
+{
+	private String[] corpus;
+	private int index;
+	
+	private final SepulchreChatParser parser = new SepulchreChatParser();
+	private final LegacyChatClassifier legacy = new LegacyChatClassifier();
+	
+	@Setup
+	public void setUp() throws IOException
+	{
+		corpus = loadCorpus();
+		
+		// Both paths must agree on every line and every value read from it, otherwise the numbers are not comparable
+		for (String line : corpus)
+		{
+			SepulchreChatParser.Type expected = legacy.classify(line);
+			SepulchreChatParser.Type actual = parser.parse(line);
+			// The legacy regex drops hundredths and reads no best written with them, which is why it was replaced
+			long floorTimeMs = parser.getFloorTimeMs() / 1000 * 1000;
+			long personalBestMs = legacy.personalBestMs != 0 ? parser.getPersonalBestMs() : 0;
+			if (expected != actual || legacy.floor != parser.getFloor() || legacy.completions != parser.getCompletions()
+				|| legacy.floorTimeMs != floorTimeMs || legacy.personalBestMs != personalBestMs)
+			{
+				throw new IllegalStateException("Parser returned " + actual + describe(parser.getFloor(), parser.getCompletions(),
+					parser.getFloorTimeMs(), parser.getPersonalBestMs()) + " but legacy returned " + expected
+					+ describe(legacy.floor, legacy.completions, legacy.floorTimeMs, legacy.personalBestMs) + " for: " + line);
+			}
+		}
+	}
+	
+	private static String describe(int floor, int completions, long floorTimeMs, long personalBestMs)
+	{
+		return " (floor " + floor + ", completions " + completions + ", time " + floorTimeMs + ", best " + personalBestMs + ")";
+	}
+	
+	@Benchmark
+	public void legacy(Blackhole bh)
+	{
+		bh.consume(legacy.classify(next()));
+		bh.consume(legacy.floor);
+		bh.consume(legacy.completions);
+		bh.consume(legacy.floorTimeMs);
+		bh.consume(legacy.personalBestMs);
+	}
+	
+	@Benchmark
+	public void parser(Blackhole bh)
+	{
+		bh.consume(parser.parse(next()));
+		bh.consume(parser.getFloor());
+		bh.consume(parser.getCompletions());
+		bh.consume(parser.getFloorTimeMs());
+		bh.consume(parser.getPersonalBestMs());
+	}
+	
+	private String next()
+	{
+		String line = corpus[index];
+		if (++index == corpus.length)
+		{
+			index = 0;
+		}
+		return line;
+	}
+	
+	static String[] loadCorpus() throws IOException
+	{
+		List<String> lines = new ArrayList<>();
+		try (InputStream in = ChatParseBenchmark.class.getResourceAsStream("chat-corpus.txt"))
+		{
+			if (in == null)
+			{
+				throw new IOException("chat-corpus.txt not found");
+			}
+			
+			BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				if (!line.isEmpty() && !line.startsWith("#"))
+				{
+					lines.add(line);
+				}
+			}
+		}
+		return lines.toArray(new String[0]);
+	}
+}
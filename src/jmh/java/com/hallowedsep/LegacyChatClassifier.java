@@ -0,0 +1,132 @@
+package com.hallowedsep;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The contains()/regex chain onChatMessage used before SepulchreChatParser, with the plugin
+ * side effects replaced by writes to public fields. Kept as the baseline for ChatParseBenchmark.
+ */
+final class LegacyChatClassifier
+{
+	private static final Pattern FLOOR_TIME_PATTERN = Pattern.compile("Floor\\s+(\\d+)\\s+time:\\s*([0-9]+:[0-9]{1,2})");
+	
+	int floor;
+	int completions;
+	long floorTimeMs;
+	long personalBestMs;
+	
+	SepulchreChatParser.Type classify(String message)
+	{
+		floor = 0;
+		completions = -1;
+		floorTimeMs = 0;
+		personalBestMs = 0;
+		
+		if (message.contains("You venture down into the Hallowed Sepulchre") && !message.contains("further"))
+		{
+			return SepulchreChatParser.Type.ENTER_FIRST_FLOOR;
+		}
+		else if (message.contains("You venture further down into the Hallowed Sepulchre"))
+		{
+			return SepulchreChatParser.Type.ENTER_NEXT_FLOOR;
+		}
+		else if (message.contains("You jump across the platform.") || message.contains("You squeeze through the gate"))
+		{
+			return SepulchreChatParser.Type.BETWEEN_FLOORS;
+		}
+		else if (message.contains("You have completed Floor") && message.contains("Total completions:"))
+		{
+			for (int f = 1; f <= 5; f++)
+			{
+				if (message.contains("Floor " + f))
+				{
+					floor = f;
+					try
+					{
+						String totalStr = message.substring(message.indexOf("Total completions:") + 18);
+						totalStr = totalStr.replaceAll("[^0-9]", "").trim();
+						if (!totalStr.isEmpty())
+						{
+							completions = Integer.parseInt(totalStr);
+						}
+					}
+					catch (Exception e)
+					{
+						// ignored, as before
+					}
+					return SepulchreChatParser.Type.FLOOR_COMPLETED;
+				}
+			}
+			return SepulchreChatParser.Type.NONE;
+		}
+		else if (message.contains("Floor") && message.contains("time:"))
+		{
+			try
+			{
+				String cleanMessage = message.replaceAll("<[^>]+>", "");
+				Matcher matcher = FLOOR_TIME_PATTERN.matcher(cleanMessage);
+				if (matcher.find())
+				{
+					floor = Integer.parseInt(matcher.group(1));
+					floorTimeMs = parseTimeMs(matcher.group(2));
+				}
+				else
+				{
+					for (int f = 1; f <= 5; f++)
+					{
+						if (message.contains("Floor " + f + " time:"))
+						{
+							floor = f;
+							break;
+						}
+					}
+				}
+				
+				if (floor > 0 && message.contains("Personal best:"))
+				{
+					String pbStr = message.substring(message.indexOf("Personal best:") + 14).trim();
+					pbStr = pbStr.replaceAll("[^0-9:]", "");
+					String[] pbParts = pbStr.split(":");
+					if (pbParts.length == 2)
+					{
+						personalBestMs = (Long.parseLong(pbParts[0]) * 60 + Long.parseLong(pbParts[1])) * 1000;
+					}
+				}
+			}
+			catch (Exception e)
+			{
+				// ignored, as before
+			}
+			return SepulchreChatParser.Type.FLOOR_TIME;
+		}
+		else if (message.contains("teleports you back to the lobby") || message.contains("make your way back to the lobby"))
+		{
+			return SepulchreChatParser.Type.RETURNED_TO_LOBBY;
+		}
+		return SepulchreChatParser.Type.NONE;
+	}
+	
+	private static long parseTimeMs(String timeStr)
+	{
+		if (timeStr == null)
+		{
+			return 0;
+		}
+		String[] parts = timeStr.trim().split(":");
+		if (parts.length != 2)
+		{
+			return 0;
+		}
+		try
+		{
+			long minutes = Long.parseLong(parts[0]);
+			long seconds = Long.parseLong(parts[1]);
+			return (minutes * 60 + seconds) * 1000;
+		}
+		catch (NumberFormatException e)
+		{
+			return 0;
+		}
+	}
+}
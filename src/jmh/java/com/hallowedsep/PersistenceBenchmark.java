@@ -0,0 +1,139 @@
+package com.hallowedsep;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Serializing and loading PersistentStats with reflective Gson versus the streaming type adapters,
+ * for a history of {@code days} days of play.
+ */
+@State(Scope.Benchmark)
+public class PersistenceBenchmark
+{
+	private static final int RUNS_PER_DAY = 25;
+	
+	@Param({"365", "1095"})
+	private int days;
+	
+	private Gson reflective;
+	private Gson streaming;
+	
+	private PersistentStats stats;
+	private String reflectiveJson;
+	private String streamingJson;
+	
+	@Setup
+	public void setUp()
+	{
+		reflective = new GsonBuilder()
+			.registerTypeAdapter(Instant.class, new InstantTypeAdapter())
+			.registerTypeAdapter(Duration.class, new DurationTypeAdapter())
+			.create();
+		streaming = reflective.newBuilder()
+			.registerTypeAdapter(PersistentStats.class, new PersistentStatsTypeAdapter())
+			.registerTypeAdapter(DailyStats.class, new DailyStatsTypeAdapter())
+			.registerTypeAdapter(HallowedSepulchreSession.class, new HallowedSepulchreSessionTypeAdapter())
+			.registerTypeAdapter(SepulchreRun.class, new SepulchreRunTypeAdapter())
+			.create();
+		
+		stats = history(days);
+		reflectiveJson = reflective.toJson(stats);
+		streamingJson = streaming.toJson(stats);
+		checkReadsBack("reflective", reflective, reflectiveJson);
+		checkReadsBack("streaming", streaming, streamingJson);
+	}
+	
+	/**
+	 * Fail the run if {@code json} does not load back to the fixture, so both read benchmarks
+	 * measure a complete load.
+	 */
+	private void checkReadsBack(String name, Gson gson, String json)
+	{
+		PersistentStats loaded = gson.fromJson(json, PersistentStats.class);
+		loaded.initializeAfterLoad();
+		if (loaded.getAllTimeRuns() != days * RUNS_PER_DAY || loaded.getDailyHistory().size() != days
+			|| !streaming.toJson(loaded).equals(streamingJson))
+		{
+			throw new IllegalStateException("Stats written by the " + name + " Gson did not read back");
+		}
+	}
+	
+	@Benchmark
+	public String writeReflective()
+	{
+		return reflective.toJson(stats);
+	}
+	
+	@Benchmark
+	public String writeStreaming()
+	{
+		return streaming.toJson(stats);
+	}
+	
+	@Benchmark
+	public PersistentStats readReflective()
+	{
+		PersistentStats loaded = reflective.fromJson(reflectiveJson, PersistentStats.class);
+		loaded.initializeAfterLoad();
+		return loaded;
+	}
+	
+	@Benchmark
+	public PersistentStats readStreaming()
+	{
+		PersistentStats loaded = streaming.fromJson(streamingJson, PersistentStats.class);
+		loaded.initializeAfterLoad();
+		return loaded;
+	}
+	
+	/**
+	 * Stats with 25 five-floor runs on each of the given number of consecutive days. The rows are
+	 * filled in directly rather than through recordRun, so the fixture does not depend on the code
+	 * that is being checked.
+	 */
+	static PersistentStats history(int days)
+	{
+		PersistentStats stats = new PersistentStats();
+		LocalDate date = LocalDate.of(2024, 1, 1);
+		stats.setStartDate(date.toString());
+		FloorCounts floorCompletions = new FloorCounts();
+		for (int day = 0; day < days; day++)
+		{
+			DailyStats row = new DailyStats(date.plusDays(day).toString());
+			for (int i = 0; i < RUNS_PER_DAY; i++)
+			{
+				row.addRun(11_000 + i * 7, (330 + i % 40) * 1000L);
+				row.setChestsLooted(row.getChestsLooted() + 5);
+				for (int floor = 1; floor <= 5; floor++)
+				{
+					row.incrementFloor(floor);
+				}
+			}
+			stats.getDailyHistory().put(row);
+			
+			stats.setAllTimeRuns(stats.getAllTimeRuns() + row.getRuns());
+			stats.setAllTimeXp(stats.getAllTimeXp() + row.getTotalXp());
+			stats.setAllTimeMs(stats.getAllTimeMs() + row.getTotalTimeMs());
+			floorCompletions.add(row.getFloorCompletionCounts());
+			stats.setAllTimeChestsLooted(stats.getAllTimeChestsLooted() + row.getChestsLooted());
+		}
+		
+		stats.setAllTimeFloorCompletions(floorCompletions);
+		stats.setBestRunTimeMs(330_000);
+		for (int floor = 1; floor <= 5; floor++)
+		{
+			stats.getBestFloorTimes().set(floor, 30_000L * floor);
+			stats.getBestRunTimesByFloors().set(floor, 66_000L * floor);
+		}
+		return stats;
+	}
+}
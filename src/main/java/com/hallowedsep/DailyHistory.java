@@ -0,0 +1,220 @@
+package com.hallowedsep;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Per-day stats keyed by epoch day, oldest first. Looking up a day, the newest N days or a date
+ * range is O(log n) plus the days returned, without building date strings. Totals over a range
+ * come from a {@link DayTotalsIndex}, built on first use and kept up to date by every change
+ * made through this class; rows must not be modified directly once added.
+ */
+public final class DailyHistory
+{
+	// Also accepts dates without zero padding, which are normalized to ISO on insert
+	private static final DateTimeFormatter LENIENT_DATE = DateTimeFormatter.ofPattern("uuuu-M-d");
+	
+	static final int NO_DAY = Integer.MIN_VALUE;
+	
+	private final NavigableMap<Integer, DailyStats> days = new TreeMap<>();
+	
+	// Null until the first range total and after a change it could not absorb
+	private DayTotalsIndex index;
+	
+	/**
+	 * @return the epoch day of a YYYY-MM-DD date, or {@link #NO_DAY} if it is not a date
+	 */
+	static int epochDayOf(String date)
+	{
+		if (date == null)
+		{
+			return NO_DAY;
+		}
+		try
+		{
+			return (int) LocalDate.parse(date, LENIENT_DATE).toEpochDay();
+		}
+		catch (DateTimeParseException e)
+		{
+			return NO_DAY;
+		}
+	}
+	
+	public DailyHistory copy()
+	{
+		DailyHistory copy = new DailyHistory();
+		for (Map.Entry<Integer, DailyStats> entry : days.entrySet())
+		{
+			copy.days.put(entry.getKey(), entry.getValue().copy());
+		}
+		return copy;
+	}
+	
+	/**
+	 * @return the day's row, or null if there is none
+	 */
+	public DailyStats get(long epochDay)
+	{
+		return days.get((int) epochDay);
+	}
+	
+	public boolean contains(long epochDay)
+	{
+		return days.containsKey((int) epochDay);
+	}
+	
+	/**
+	 * Add a row, replacing any row for the same day. Rows whose date is not a date are dropped.
+	 *
+	 * @return whether the row was added
+	 */
+	public boolean put(DailyStats day)
+	{
+		int epochDay = epochDayOf(day.getDate());
+		if (epochDay == NO_DAY)
+		{
+			return false;
+		}
+		
+		day.setDate(LocalDate.ofEpochDay(epochDay).toString());
+		DailyStats replaced = days.put(epochDay, day);
+		if (replaced != null)
+		{
+			index(epochDay, replaced, -1);
+		}
+		index(epochDay, day, 1);
+		return true;
+	}
+	
+	/**
+	 * Add a row for a day known to have none.
+	 */
+	DailyStats create(long epochDay)
+	{
+		DailyStats day = new DailyStats(LocalDate.ofEpochDay(epochDay).toString());
+		days.put((int) epochDay, day);
+		return day;
+	}
+	
+	/**
+	 * Add a run's counters to the row for {@code epochDay}, which must exist.
+	 */
+	void record(long epochDay, DailyStats delta)
+	{
+		days.get((int) epochDay).add(delta);
+		index(epochDay, delta, 1);
+	}
+	
+	/**
+	 * Summed counters of the rows from {@code fromEpochDay} to {@code toEpochDay} inclusive.
+	 */
+	public DailyStats totals(long fromEpochDay, long toEpochDay)
+	{
+		if (index == null && !days.isEmpty())
+		{
+			index = DayTotalsIndex.build(days.values(), days.firstKey(), days.lastKey());
+		}
+		if (index == null || fromEpochDay > toEpochDay)
+		{
+			return new DailyStats(LocalDate.ofEpochDay(fromEpochDay).toString());
+		}
+		return index.sum(fromEpochDay, toEpochDay);
+	}
+	
+	private void index(long epochDay, DailyStats delta, int sign)
+	{
+		if (index != null && !index.add(epochDay, delta, sign))
+		{
+			index = null;
+		}
+	}
+	
+	public int size()
+	{
+		return days.size();
+	}
+	
+	public boolean isEmpty()
+	{
+		return days.isEmpty();
+	}
+	
+	/**
+	 * @return the oldest epoch day, or {@link #NO_DAY} if empty
+	 */
+	public int firstEpochDay()
+	{
+		return days.isEmpty() ? NO_DAY : days.firstKey();
+	}
+	
+	/**
+	 * Remove and return the oldest row, or null if empty.
+	 */
+	DailyStats removeFirst()
+	{
+		Map.Entry<Integer, DailyStats> first = days.pollFirstEntry();
+		if (first == null)
+		{
+			return null;
+		}
+		index(first.getKey(), first.getValue(), -1);
+		return first.getValue();
+	}
+	
+	/**
+	 * @return every row, oldest first
+	 */
+	public Collection<DailyStats> values()
+	{
+		return Collections.unmodifiableCollection(days.values());
+	}
+	
+	/**
+	 * Remove every row matching {@code filter}.
+	 */
+	void removeIf(Predicate<DailyStats> filter)
+	{
+		if (days.values().removeIf(filter))
+		{
+			index = null;
+		}
+	}
+	
+	/**
+	 * @return the rows from {@code fromEpochDay} to {@code toEpochDay} inclusive, oldest first
+	 */
+	public Collection<DailyStats> range(long fromEpochDay, long toEpochDay)
+	{
+		if (fromEpochDay > toEpochDay)
+		{
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableCollection(days.subMap((int) fromEpochDay, true, (int) toEpochDay, true).values());
+	}
+	
+	/**
+	 * @return up to {@code count} of the newest rows, newest first
+	 */
+	public List<DailyStats> latest(int count)
+	{
+		List<DailyStats> latest = new ArrayList<>(Math.max(0, Math.min(count, days.size())));
+		for (DailyStats day : days.descendingMap().values())
+		{
+			if (latest.size() >= count)
+			{
+				break;
+			}
+			latest.add(day);
+		}
+		return latest;
+	}
+}
@@ -0,0 +1,211 @@
+package com.hallowedsep;
+
+import java.io.ByteArrayOutputStream;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Columnar binary form of the daily history, stored as base64.
+ * Days are written column by column: the epoch day as a zigzag varint delta from the previous
+ * day, then each counter as a varint. Decoding gives back exactly what the JSON form holds.
+ */
+final class DailyHistoryCodec
+{
+	private static final int VERSION = 1;
+	
+	private DailyHistoryCodec()
+	{
+	}
+	
+	/**
+	 * @return the encoded history, or null if a date is not an ISO date and the JSON form must be used
+	 */
+	static String encode(Collection<DailyStats> days)
+	{
+		List<DailyStats> list = new ArrayList<>(days);
+		long[] epochDays = new long[list.size()];
+		for (int i = 0; i < epochDays.length; i++)
+		{
+			String date = list.get(i).getDate();
+			try
+			{
+				LocalDate parsed = LocalDate.parse(date);
+				if (!parsed.toString().equals(date))
+				{
+					return null;
+				}
+				epochDays[i] = parsed.toEpochDay();
+			}
+			catch (DateTimeParseException | NullPointerException e)
+			{
+				return null;
+			}
+		}
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream(16 + list.size() * 16);
+		out.write(VERSION);
+		writeVarLong(out, list.size());
+		
+		long previous = 0;
+		for (long epochDay : epochDays)
+		{
+			writeVarLong(out, zigzag(epochDay - previous));
+			previous = epochDay;
+		}
+		for (DailyStats day : list)
+		{
+			writeVarLong(out, day.getRuns());
+		}
+		for (DailyStats day : list)
+		{
+			writeVarLong(out, day.getTotalXp());
+		}
+		for (DailyStats day : list)
+		{
+			writeVarLong(out, day.getTotalTimeMs());
+		}
+		for (int floor = 1; floor <= PersistenceJson.FLOORS; floor++)
+		{
+			for (DailyStats day : list)
+			{
+				writeVarLong(out, day.getFloorCompletions(floor));
+			}
+		}
+		for (DailyStats day : list)
+		{
+			writeVarLong(out, day.getChestsLooted());
+		}
+		for (DailyStats day : list)
+		{
+			writeVarLong(out, day.getGrandCoffinsLooted());
+		}
+		
+		return Base64.getEncoder().encodeToString(out.toByteArray());
+	}
+	
+	static List<DailyStats> decode(String encoded)
+	{
+		Reader in = new Reader(Base64.getDecoder().decode(encoded));
+		int version = in.readByte();
+		if (version != VERSION)
+		{
+			throw new IllegalArgumentException("Unknown daily history version " + version);
+		}
+		
+		// Each day takes at least ten bytes, so a count the data cannot hold is corrupt
+		long count = in.readVarLong();
+		if (count < 0 || count > in.remaining() / 10)
+		{
+			throw new IllegalArgumentException("Daily history count " + count + " exceeds its data");
+		}
+		
+		List<DailyStats> days = new ArrayList<>((int) count);
+		long epochDay = 0;
+		for (int i = 0; i < count; i++)
+		{
+			epochDay += unzigzag(in.readVarLong());
+			try
+			{
+				days.add(new DailyStats(LocalDate.ofEpochDay(epochDay).toString()));
+			}
+			catch (DateTimeException e)
+			{
+				throw new IllegalArgumentException("Corrupt day in compact data", e);
+			}
+		}
+		for (DailyStats day : days)
+		{
+			day.setRuns((int) in.readVarLong());
+		}
+		for (DailyStats day : days)
+		{
+			day.setTotalXp((int) in.readVarLong());
+		}
+		for (DailyStats day : days)
+		{
+			day.setTotalTimeMs(in.readVarLong());
+		}
+		for (int floor = 1; floor <= PersistenceJson.FLOORS; floor++)
+		{
+			for (DailyStats day : days)
+			{
+				day.getFloorCompletionCounts().set(floor, (int) in.readVarLong());
+			}
+		}
+		for (DailyStats day : days)
+		{
+			day.setChestsLooted((int) in.readVarLong());
+		}
+		for (DailyStats day : days)
+		{
+			day.setGrandCoffinsLooted((int) in.readVarLong());
+		}
+		return days;
+	}
+	
+	// Negative values are never expected but still round-trip, as ten byte varints
+	static void writeVarLong(ByteArrayOutputStream out, long value)
+	{
+		while ((value & ~0x7FL) != 0)
+		{
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+	
+	static long zigzag(long value)
+	{
+		return (value << 1) ^ (value >> 63);
+	}
+	
+	static long unzigzag(long value)
+	{
+		return (value >>> 1) ^ -(value & 1);
+	}
+	
+	static class Reader
+	{
+		private final byte[] data;
+		private int pos;
+		
+		Reader(byte[] data)
+		{
+			this.data = data;
+		}
+		
+		int remaining()
+		{
+			return data.length - pos;
+		}
+		
+		int readByte()
+		{
+			if (pos >= data.length)
+			{
+				throw new IllegalArgumentException("Truncated compact data");
+			}
+			return data[pos++] & 0xFF;
+		}
+		
+		long readVarLong()
+		{
+			long value = 0;
+			for (int shift = 0; shift < 64; shift += 7)
+			{
+				int b = readByte();
+				value |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0)
+				{
+					return value;
+				}
+			}
+			throw new IllegalArgumentException("Malformed varint in compact data");
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package com.hallowedsep;
+
+import javax.swing.AbstractListModel;
+
+/**
+ * List model over the days with runs, newest first.
+ * Rows are read only from the published {@link LiveStatsSnapshot}, whose history rows are copies
+ * that the client thread never modifies, so the EDT can read them at any time.
+ */
+class DailyHistoryListModel extends AbstractListModel<DailyStats>
+{
+	private LiveStatsSnapshot snapshot;
+	
+	/**
+	 * Switch to the rows of a newer snapshot and fire the minimal change events.
+	 */
+	void refresh(LiveStatsSnapshot snapshot)
+	{
+		LiveStatsSnapshot previous = this.snapshot;
+		this.snapshot = snapshot;
+		if (snapshot.hasSameHistory(previous))
+		{
+			return;
+		}
+		
+		int oldSize = previous != null ? previous.getHistoryDayCount() : 0;
+		int newSize = snapshot.getHistoryDayCount();
+		
+		// Days that kept their place at the top (newest) and bottom (oldest) of the list
+		int top = 0;
+		while (top < oldSize && top < newSize && sameDay(previous, top, top))
+		{
+			top++;
+		}
+		int bottom = 0;
+		while (bottom < oldSize - top && bottom < newSize - top
+			&& sameDay(previous, oldSize - 1 - bottom, newSize - 1 - bottom))
+		{
+			bottom++;
+		}
+		
+		// Days in between were added (today, a late run) or removed (rolled up, reset)
+		int oldMiddle = oldSize - top - bottom;
+		int newMiddle = newSize - top - bottom;
+		int replaced = Math.min(oldMiddle, newMiddle);
+		if (newMiddle > oldMiddle)
+		{
+			fireIntervalAdded(this, top + replaced, top + newMiddle - 1);
+		}
+		else if (oldMiddle > newMiddle)
+		{
+			fireIntervalRemoved(this, top + replaced, top + oldMiddle - 1);
+		}
+		
+		// Rows still in place whose counters changed, usually just today's
+		int first = replaced > 0 ? top : -1;
+		int last = replaced > 0 ? top + replaced - 1 : -1;
+		for (int index = 0; index < top; index++)
+		{
+			if (previous.getHistoryDayFromNewest(index) != snapshot.getHistoryDayFromNewest(index))
+			{
+				first = first < 0 ? index : Math.min(first, index);
+				last = Math.max(last, index);
+			}
+		}
+		for (int index = newSize - bottom; index < newSize; index++)
+		{
+			if (previous.getHistoryDayFromNewest(index - newSize + oldSize) != snapshot.getHistoryDayFromNewest(index))
+			{
+				first = first < 0 ? index : Math.min(first, index);
+				last = Math.max(last, index);
+			}
+		}
+		if (first >= 0)
+		{
+			fireContentsChanged(this, first, last);
+		}
+	}
+	
+	private boolean sameDay(LiveStatsSnapshot previous, int oldIndex, int newIndex)
+	{
+		return previous.getHistoryDayFromNewest(oldIndex).getDate()
+			.equals(snapshot.getHistoryDayFromNewest(newIndex).getDate());
+	}
+	
+	@Override
+	public int getSize()
+	{
+		return snapshot != null ? snapshot.getHistoryDayCount() : 0;
+	}
+	
+	@Override
+	public DailyStats getElementAt(int index)
+	{
+		return snapshot.getHistoryDayFromNewest(index);
+	}
+}
@@ -3,8 +3,6 @@ package com.hallowedsep;
 import lombok.Data;
 
 import java.time.LocalDate;
-import java.util.HashMap;
-import java.util.Map;
 
 @Data
 public class DailyStats
@@ -13,26 +11,33 @@ public class DailyStats
 	private int runs;
 	private int totalXp;
 	private long totalTimeMs;
-	private Map<Integer, Integer> floorCompletions = new HashMap<>();
+	private FloorCounts floorCompletions = new FloorCounts();
 	private int chestsLooted;
 	private int grandCoffinsLooted;
 	
 	public DailyStats()
 	{
 		this.date = LocalDate.now().toString();
-		for (int i = 1; i <= 5; i++)
-		{
-			floorCompletions.put(i, 0);
-		}
 	}
 	
 	public DailyStats(String date)
 	{
 		this.date = date;
-		for (int i = 1; i <= 5; i++)
-		{
-			floorCompletions.put(i, 0);
-		}
+	}
+	
+	/**
+	 * Detached copy for background serialization
+	 */
+	public DailyStats copy()
+	{
+		DailyStats copy = new DailyStats(date);
+		copy.runs = runs;
+		copy.totalXp = totalXp;
+		copy.totalTimeMs = totalTimeMs;
+		copy.floorCompletions = floorCompletions.copy();
+		copy.chestsLooted = chestsLooted;
+		copy.grandCoffinsLooted = grandCoffinsLooted;
+		return copy;
 	}
 	
 	public void addRun(int xp, long timeMs)
@@ -42,14 +47,32 @@ public class DailyStats
 		this.totalTimeMs += timeMs;
 	}
 	
+	/**
+	 * Add another day's counters to this one
+	 */
+	public void add(DailyStats other)
+	{
+		runs += other.runs;
+		totalXp += other.totalXp;
+		totalTimeMs += other.totalTimeMs;
+		floorCompletions.add(other.floorCompletions);
+		chestsLooted += other.chestsLooted;
+		grandCoffinsLooted += other.grandCoffinsLooted;
+	}
+	
 	public void incrementFloor(int floor)
 	{
-		floorCompletions.merge(floor, 1, Integer::sum);
+		floorCompletions.increment(floor);
+	}
+	
+	public FloorCounts getFloorCompletionCounts()
+	{
+		return floorCompletions;
 	}
 	
 	public int getFloorCompletions(int floor)
 	{
-		return floorCompletions.getOrDefault(floor, 0);
+		return floorCompletions.get(floor);
 	}
 	
 	public double getHoursPlayed()
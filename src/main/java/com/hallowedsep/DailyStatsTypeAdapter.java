@@ -0,0 +1,76 @@
+package com.hallowedsep;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+public class DailyStatsTypeAdapter extends TypeAdapter<DailyStats>
+{
+	@Override
+	public void write(JsonWriter out, DailyStats day) throws IOException
+	{
+		if (day == null)
+		{
+			out.nullValue();
+			return;
+		}
+		
+		out.beginObject();
+		out.name("date").value(day.getDate());
+		out.name("runs").value(day.getRuns());
+		out.name("totalXp").value(day.getTotalXp());
+		out.name("totalTimeMs").value(day.getTotalTimeMs());
+		PersistenceJson.writeFloorInts(out, "floorCompletions", day::getFloorCompletions);
+		out.name("chestsLooted").value(day.getChestsLooted());
+		out.name("grandCoffinsLooted").value(day.getGrandCoffinsLooted());
+		out.endObject();
+	}
+	
+	@Override
+	public DailyStats read(JsonReader in) throws IOException
+	{
+		if (in.peek() == JsonToken.NULL)
+		{
+			in.nextNull();
+			return null;
+		}
+		
+		DailyStats day = new DailyStats(null);
+		in.beginObject();
+		while (in.hasNext())
+		{
+			switch (in.nextName())
+			{
+				case "date":
+					day.setDate(PersistenceJson.readString(in));
+					break;
+				case "runs":
+					day.setRuns(in.nextInt());
+					break;
+				case "totalXp":
+					day.setTotalXp(in.nextInt());
+					break;
+				case "totalTimeMs":
+					day.setTotalTimeMs(in.nextLong());
+					break;
+				case "floorCompletions":
+					day.setFloorCompletions(PersistenceJson.readFloorInts(in));
+					break;
+				case "chestsLooted":
+					day.setChestsLooted(in.nextInt());
+					break;
+				case "grandCoffinsLooted":
+					day.setGrandCoffinsLooted(in.nextInt());
+					break;
+				default:
+					in.skipValue();
+					break;
+			}
+		}
+		in.endObject();
+		return day;
+	}
+}
@@ -0,0 +1,133 @@
+package com.hallowedsep;
+
+import java.time.LocalDate;
+
+/**
+ * Fenwick tree over the counters of {@link DailyHistory}, so the totals of any day range are
+ * O(log n) and recording a run is an O(log n) update. Days are positions from a base epoch day,
+ * with room to grow; a day outside that span means the index has to be rebuilt.
+ */
+final class DayTotalsIndex
+{
+	// runs, xp, time, chests, grand coffins, then completions of floors 1-5
+	private static final int FIELDS = 5 + FloorCounts.FLOORS;
+	
+	// Room left after the newest day when building, so new days rarely force a rebuild
+	private static final int GROWTH_DAYS = 366;
+	
+	private final int baseDay;
+	private final int capacity;
+	// 1-based, FIELDS counters per node
+	private final long[] tree;
+	private final long[] values = new long[FIELDS];
+	
+	private DayTotalsIndex(int baseDay, int capacity)
+	{
+		this.baseDay = baseDay;
+		this.capacity = capacity;
+		this.tree = new long[(capacity + 1) * FIELDS];
+	}
+	
+	/**
+	 * Build the index over every row in O(n).
+	 */
+	static DayTotalsIndex build(Iterable<DailyStats> days, int firstDay, int lastDay)
+	{
+		int capacity = Math.max(64, Integer.highestOneBit(lastDay - firstDay + GROWTH_DAYS) << 1);
+		DayTotalsIndex index = new DayTotalsIndex(firstDay, capacity);
+		long[] tree = index.tree;
+		for (DailyStats day : days)
+		{
+			int node = DailyHistory.epochDayOf(day.getDate()) - firstDay + 1;
+			index.load(day, 1);
+			for (int f = 0; f < FIELDS; f++)
+			{
+				tree[node * FIELDS + f] += index.values[f];
+			}
+		}
+		for (int node = 1; node <= capacity; node++)
+		{
+			int parent = node + (node & -node);
+			if (parent <= capacity)
+			{
+				for (int f = 0; f < FIELDS; f++)
+				{
+					tree[parent * FIELDS + f] += tree[node * FIELDS + f];
+				}
+			}
+		}
+		return index;
+	}
+	
+	/**
+	 * Add ({@code sign} 1) or subtract ({@code sign} -1) a day's counters.
+	 *
+	 * @return false if the day is outside the index and it must be rebuilt
+	 */
+	boolean add(long epochDay, DailyStats delta, int sign)
+	{
+		long position = epochDay - baseDay;
+		if (position < 0 || position >= capacity)
+		{
+			return false;
+		}
+		
+		load(delta, sign);
+		for (int node = (int) position + 1; node <= capacity; node += node & -node)
+		{
+			for (int f = 0; f < FIELDS; f++)
+			{
+				tree[node * FIELDS + f] += values[f];
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * @return the summed counters from {@code fromDay} to {@code toDay} inclusive, dated {@code fromDay}
+	 */
+	DailyStats sum(long fromDay, long toDay)
+	{
+		long[] totals = new long[FIELDS];
+		prefix(toDay, totals, 1);
+		prefix(fromDay - 1, totals, -1);
+		
+		DailyStats sum = new DailyStats(LocalDate.ofEpochDay(fromDay).toString());
+		sum.setRuns((int) totals[0]);
+		sum.setTotalXp((int) totals[1]);
+		sum.setTotalTimeMs(totals[2]);
+		sum.setChestsLooted((int) totals[3]);
+		sum.setGrandCoffinsLooted((int) totals[4]);
+		for (int floor = 1; floor <= FloorCounts.FLOORS; floor++)
+		{
+			sum.getFloorCompletionCounts().set(floor, (int) totals[4 + floor]);
+		}
+		return sum;
+	}
+	
+	// Days up to and including epochDay, clamped to the index
+	private void prefix(long epochDay, long[] totals, int sign)
+	{
+		long position = Math.min(epochDay - baseDay, capacity - 1);
+		for (int node = (int) Math.max(position + 1, 0); node > 0; node -= node & -node)
+		{
+			for (int f = 0; f < FIELDS; f++)
+			{
+				totals[f] += sign * tree[node * FIELDS + f];
+			}
+		}
+	}
+	
+	private void load(DailyStats day, int sign)
+	{
+		values[0] = sign * day.getRuns();
+		values[1] = sign * (long) day.getTotalXp();
+		values[2] = sign * day.getTotalTimeMs();
+		values[3] = sign * day.getChestsLooted();
+		values[4] = sign * day.getGrandCoffinsLooted();
+		for (int floor = 1; floor <= FloorCounts.FLOORS; floor++)
+		{
+			values[4 + floor] = sign * day.getFloorCompletions(floor);
+		}
+	}
+}
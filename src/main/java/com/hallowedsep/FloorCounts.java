@@ -0,0 +1,78 @@
+package com.hallowedsep;
+
+import java.util.Arrays;
+
+/**
+ * A count per Sepulchre floor, indexed directly by floor number. Floors outside 1-5 read as 0
+ * and are ignored on write, like the missing keys of the maps this replaces.
+ */
+public final class FloorCounts
+{
+	public static final int FLOORS = 5;
+	
+	private final int[] counts = new int[FLOORS + 1];
+	
+	public int get(int floor)
+	{
+		return floor >= 1 && floor <= FLOORS ? counts[floor] : 0;
+	}
+	
+	public void set(int floor, int count)
+	{
+		if (floor >= 1 && floor <= FLOORS)
+		{
+			counts[floor] = count;
+		}
+	}
+	
+	public void increment(int floor)
+	{
+		if (floor >= 1 && floor <= FLOORS)
+		{
+			counts[floor]++;
+		}
+	}
+	
+	public void add(FloorCounts other)
+	{
+		for (int floor = 1; floor <= FLOORS; floor++)
+		{
+			counts[floor] += other.counts[floor];
+		}
+	}
+	
+	public int total()
+	{
+		int total = 0;
+		for (int floor = 1; floor <= FLOORS; floor++)
+		{
+			total += counts[floor];
+		}
+		return total;
+	}
+	
+	public FloorCounts copy()
+	{
+		FloorCounts copy = new FloorCounts();
+		System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+		return copy;
+	}
+	
+	@Override
+	public boolean equals(Object o)
+	{
+		return o instanceof FloorCounts && Arrays.equals(counts, ((FloorCounts) o).counts);
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		return Arrays.hashCode(counts);
+	}
+	
+	@Override
+	public String toString()
+	{
+		return Arrays.toString(Arrays.copyOfRange(counts, 1, counts.length));
+	}
+}
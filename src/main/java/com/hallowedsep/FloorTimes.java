@@ -0,0 +1,72 @@
+package com.hallowedsep;
+
+import java.util.Arrays;
+
+/**
+ * A best time in milliseconds per Sepulchre floor (or per number of floors), indexed directly.
+ * 0 means no time yet, which replaces the Long.MAX_VALUE sentinel of the maps this replaces.
+ */
+public final class FloorTimes
+{
+	private final long[] times = new long[FloorCounts.FLOORS + 1];
+	
+	/**
+	 * @return the time, or 0 if there is none
+	 */
+	public long get(int floor)
+	{
+		return floor >= 1 && floor <= FloorCounts.FLOORS ? times[floor] : 0;
+	}
+	
+	public void set(int floor, long timeMs)
+	{
+		if (floor >= 1 && floor <= FloorCounts.FLOORS)
+		{
+			times[floor] = Math.max(0, timeMs);
+		}
+	}
+	
+	/**
+	 * Keep {@code timeMs} if there is no time yet or it is faster.
+	 *
+	 * @return whether it was kept
+	 */
+	public boolean offer(int floor, long timeMs)
+	{
+		if (floor < 1 || floor > FloorCounts.FLOORS || timeMs <= 0)
+		{
+			return false;
+		}
+		if (times[floor] == 0 || timeMs < times[floor])
+		{
+			times[floor] = timeMs;
+			return true;
+		}
+		return false;
+	}
+	
+	public FloorTimes copy()
+	{
+		FloorTimes copy = new FloorTimes();
+		System.arraycopy(times, 0, copy.times, 0, times.length);
+		return copy;
+	}
+	
+	@Override
+	public boolean equals(Object o)
+	{
+		return o instanceof FloorTimes && Arrays.equals(times, ((FloorTimes) o).times);
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		return Arrays.hashCode(times);
+	}
+	
+	@Override
+	public String toString()
+	{
+		return Arrays.toString(Arrays.copyOfRange(times, 1, times.length));
+	}
+}
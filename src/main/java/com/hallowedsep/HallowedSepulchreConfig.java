@@ -34,7 +34,14 @@ public interface HallowedSepulchreConfig extends Config
 		position = 3
 	)
 	String xpSection = "xp";
-
+	
+	@ConfigSection(
+		name = "Storage",
+		description = "How stats are saved",
+		position = 4
+	)
+	String storageSection = "storage";
+	
 	@ConfigItem(
 		keyName = "hidePluginTabOutsideSepulchre",
 		name = "Hide Plugin Tab Outside Sepulchre",
@@ -46,7 +53,7 @@ public interface HallowedSepulchreConfig extends Config
 	{
 		return true;
 	}
-
+	
 	// Display Section
 	@ConfigItem(
 		keyName = "showOverlay",
@@ -120,6 +127,18 @@ public interface HallowedSepulchreConfig extends Config
 		return true;
 	}
 	
+	@ConfigItem(
+		keyName = "xpRateWindow",
+		name = "XP/hr Window",
+		description = "Active time the live XP/hr is measured over",
+		section = displaySection,
+		position = 6
+	)
+	default XpRateWindow xpRateWindow()
+	{
+		return XpRateWindow.SESSION;
+	}
+	
 	// Tracking Section
 	@ConfigItem(
 		keyName = "trackChests",
@@ -157,6 +176,19 @@ public interface HallowedSepulchreConfig extends Config
 		return true;
 	}
 	
+	@ConfigItem(
+		keyName = "recentRunsWindow",
+		name = "Recent Runs Window",
+		description = "Number of recent runs used for rolling averages",
+		section = trackingSection,
+		position = 3
+	)
+	@Range(min = 5, max = 500)
+	default int recentRunsWindow()
+	{
+		return RecentRunWindow.DEFAULT_CAPACITY;
+	}
+	
 	// Goals Section
 	@ConfigItem(
 		keyName = "targetLevel",
@@ -294,4 +326,44 @@ public interface HallowedSepulchreConfig extends Config
 	{
 		return 580;
 	}
+	
+	// Storage Section
+	@ConfigItem(
+		keyName = "saveIntervalSeconds",
+		name = "Save Interval",
+		description = "Changes are written at most once per interval, and always on logout and shutdown",
+		section = storageSection,
+		position = 0
+	)
+	@Range(min = 5, max = 600)
+	@Units(Units.SECONDS)
+	default int saveIntervalSeconds()
+	{
+		return 30;
+	}
+	
+	@ConfigItem(
+		keyName = "compactHistory",
+		name = "Compact History",
+		description = "Store daily history in a compact binary form. Much smaller, but not human readable",
+		section = storageSection,
+		position = 1
+	)
+	default boolean compactHistory()
+	{
+		return false;
+	}
+	
+	@ConfigItem(
+		keyName = "historyRetentionDays",
+		name = "Daily History Days",
+		description = "Days kept day by day, at least 62. Older days are rolled up into weekly, then monthly totals. 0 keeps every day",
+		section = storageSection,
+		position = 2
+	)
+	@Range(min = 0, max = 3650)
+	default int historyRetentionDays()
+	{
+		return 365;
+	}
 }
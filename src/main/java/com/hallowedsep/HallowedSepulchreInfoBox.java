@@ -41,8 +41,8 @@ public class HallowedSepulchreInfoBox extends OverlayPanel
 			return null;
 		}
 		
-		PersistentStats stats = plugin.getPersistentStats();
-		HallowedSepulchreSession session = plugin.getSession();
+		LiveStatsSnapshot stats = plugin.getSnapshot();
+		long nowMs = System.currentTimeMillis();
 		
 		// Title
 		panelComponent.getChildren().add(TitleComponent.builder()
@@ -51,10 +51,10 @@ public class HallowedSepulchreInfoBox extends OverlayPanel
 			.build());
 		
 		// Status based on current run (more reliable than region detection)
-		SepulchreRun currentRun = plugin.getCurrentRun();
-		boolean runIdle = plugin.isRunIdle();
-		boolean hasActiveRun = currentRun != null && !runIdle;
-		int floor = plugin.getCurrentFloor();
+		boolean inRun = stats.isRunActive();
+		boolean runIdle = stats.isRunIdle();
+		boolean hasActiveRun = inRun && !runIdle;
+		int floor = stats.getCurrentFloor();
 		
 		String statusText;
 		if (hasActiveRun)
@@ -85,23 +85,21 @@ public class HallowedSepulchreInfoBox extends OverlayPanel
 			.build());
 		
 		// Get today's stats
-		DailyStats today = stats.getToday();
-		int todayRuns = today != null ? today.getRuns() : 0;
-		int todayXp = today != null ? today.getTotalXp() : 0;
-		double todayHours = today != null ? today.getHoursPlayed() : 0;
+		int todayRuns = stats.getTodayRuns();
+		int todayXp = stats.getTodayXp();
+		double todayHours = stats.getTodayHours();
 		
 		// Get session stats (live during run)
-		int sessionRuns = session != null ? session.getTotalRuns() : 0;
-		int sessionXp = session != null ? session.getTotalXp() : 0;
+		int sessionRuns = stats.getSessionRuns();
 		
 		// Add current run XP if in a run
-		int currentRunXp = currentRun != null ? currentRun.getTotalXp() : 0;
+		int currentRunXp = stats.getRunXp();
 		
 		// Total XP = today's completed + session's completed + current run
 		int totalXpDisplay = todayXp + currentRunXp;
 		
 		// Runs Today (+ current if in run)
-		String runsDisplay = currentRun != null ? 
+		String runsDisplay = inRun ? 
 			todayRuns + " (+1)" : String.valueOf(todayRuns);
 		panelComponent.getChildren().add(LineComponent.builder()
 			.left("Runs Today:")
@@ -110,7 +108,7 @@ public class HallowedSepulchreInfoBox extends OverlayPanel
 			.build());
 		
 		// Runs Session
-		String sessionDisplay = currentRun != null ?
+		String sessionDisplay = inRun ?
 			sessionRuns + " (+1)" : String.valueOf(sessionRuns);
 		panelComponent.getChildren().add(LineComponent.builder()
 			.left("Runs Session:")
@@ -119,11 +117,7 @@ public class HallowedSepulchreInfoBox extends OverlayPanel
 			.build());
 		
 		// Hours in Sep (today) - include current run time
-		double currentRunHours = 0;
-		if (currentRun != null)
-		{
-			currentRunHours = currentRun.getDuration().toMillis() / 3_600_000.0;
-		}
+		double currentRunHours = stats.getRunDurationMs(nowMs) / 3_600_000.0;
 		panelComponent.getChildren().add(LineComponent.builder()
 			.left("Time in Sep:")
 			.right(formatHoursMinutes(todayHours + currentRunHours))
@@ -138,7 +132,7 @@ public class HallowedSepulchreInfoBox extends OverlayPanel
 			.build());
 		
 		// XP/hr - live calculation including current run
-		double xpHrDisplay = plugin.getXpPerHour();
+		double xpHrDisplay = stats.getXpPerHour(nowMs);
 		panelComponent.getChildren().add(LineComponent.builder()
 			.left("XP/hr:")
 			.right(HallowedSepulchrePlugin.formatNumber((int) xpHrDisplay))
@@ -146,11 +140,11 @@ public class HallowedSepulchreInfoBox extends OverlayPanel
 			.build());
 		
 		// Runs to next level
-		int currentLevel = plugin.getCurrentAgilityLevel();
+		int currentLevel = stats.getAgilityLevel();
 		if (currentLevel < 99)
 		{
-			int nextLevel = plugin.getNextLevel();
-			int runsToNext = plugin.getRunsToNextLevel();
+			int nextLevel = stats.getNextLevel();
+			int runsToNext = stats.getRunsToNextLevel();
 			panelComponent.getChildren().add(LineComponent.builder()
 				.left("Runs to " + nextLevel + ":")
 				.right(String.valueOf(runsToNext))
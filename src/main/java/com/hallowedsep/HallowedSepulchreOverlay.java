@@ -3,19 +3,57 @@ package com.hallowedsep;
 import net.runelite.client.ui.overlay.OverlayPanel;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayPriority;
+import net.runelite.client.ui.overlay.components.LayoutableRenderableEntity;
 import net.runelite.client.ui.overlay.components.LineComponent;
 import net.runelite.client.ui.overlay.components.TitleComponent;
 
 import javax.inject.Inject;
 import java.awt.*;
-import java.time.Duration;
-import java.time.Instant;
+import java.util.List;
 
+/**
+ * Run overlay. Components are created once and their text is only rebuilt when the
+ * displayed value changes (at most once per displayed second for timers), so a
+ * steady-state frame does not allocate.
+ */
 public class HallowedSepulchreOverlay extends OverlayPanel
 {
+	private static final Color TITLE_COLOR = new Color(170, 130, 255);
+	private static final Color PB_COLOR = new Color(180, 180, 190);
+	private static final Color CHEST_COLOR = new Color(255, 215, 0);
+	private static final Color[] FLOOR_COLORS = {
+		Color.WHITE,
+		new Color(144, 238, 144), // Light green
+		new Color(135, 206, 235), // Sky blue
+		new Color(255, 255, 150), // Light yellow
+		new Color(255, 165, 0),   // Orange
+		new Color(255, 100, 100)  // Light red
+	};
+	private static final String[] FLOOR_PREFIXES = {"", "F1: ", "F2: ", "F3: ", "F4: ", "F5: "};
+	
+	// Bits of the visible-line mask; floor splits use bits 1-5
+	private static final int TOTAL_BIT = 1 << 6;
+	private static final int XP_BIT = 1 << 7;
+	private static final int CHEST_BIT = 1 << 8;
+	private static final int FLOOR_BIT = 1 << 9;
+	private static final int FLOORS_DONE_BIT = 1 << 10;
+	
 	private final HallowedSepulchrePlugin plugin;
 	private final HallowedSepulchreConfig config;
 	
+	private final TitleComponent title = TitleComponent.builder()
+		.text("Hallowed Sepulchre")
+		.color(TITLE_COLOR)
+		.build();
+	private final CachedLine[] splitLines = new CachedLine[6];
+	private final CachedLine totalLine = new CachedLine(Color.WHITE, PB_COLOR);
+	private final CachedLine xpLine = new CachedLine(Color.WHITE, Color.GREEN);
+	private final CachedLine chestLine = new CachedLine(Color.WHITE, CHEST_COLOR);
+	private final CachedLine floorLine = new CachedLine(Color.WHITE, Color.WHITE);
+	private final CachedLine floorsDoneLine = new CachedLine(Color.WHITE, Color.CYAN);
+	private final StringBuilder textBuilder = new StringBuilder(64);
+	private int visibleLines = -1;
+	
 	@Inject
 	public HallowedSepulchreOverlay(HallowedSepulchrePlugin plugin, HallowedSepulchreConfig config)
 	{
@@ -25,7 +63,17 @@ public class HallowedSepulchreOverlay extends OverlayPanel
 		
 		setPosition(OverlayPosition.TOP_LEFT);
 		setPriority(OverlayPriority.LOW);
+		setClearChildren(false);
 		panelComponent.setPreferredSize(new Dimension(180, 0));
+		
+		for (int floor = 1; floor <= 5; floor++)
+		{
+			splitLines[floor] = new CachedLine(Color.WHITE, PB_COLOR);
+		}
+		xpLine.component.setLeft("XP Gained:");
+		chestLine.component.setLeft("Chests:");
+		floorLine.component.setLeft("Floor:");
+		floorsDoneLine.component.setLeft("Floors Done:");
 	}
 	
 	@Override
@@ -37,25 +85,30 @@ public class HallowedSepulchreOverlay extends OverlayPanel
 			return null;
 		}
 		
-		SepulchreRun currentRun = plugin.getCurrentRun();
-		if (currentRun == null)
+		LiveStatsSnapshot stats = plugin.getSnapshot();
+		if (!stats.isRunActive())
 		{
 			return null;
 		}
-
-		PersistentStats stats = plugin.getPersistentStats();
 		
-		// Title
-		panelComponent.getChildren().add(TitleComponent.builder()
-			.text("Hallowed Sepulchre")
-			.color(new Color(170, 130, 255))
-			.build());
+		updateComponents(stats, System.currentTimeMillis(),
+			config.showFloorTimer(), config.showRunTimer(), config.showXpGained(), config.trackChests());
 		
-		boolean runIdle = plugin.isRunIdle();
-		int currentFloor = plugin.getCurrentFloor();
+		return super.render(graphics);
+	}
+	
+	/**
+	 * Bring the retained components up to date for this frame.
+	 */
+	void updateComponents(LiveStatsSnapshot stats, long nowMs,
+		boolean showFloorTimer, boolean showRunTimer, boolean showXpGained, boolean trackChests)
+	{
+		int visible = 0;
+		int currentFloor = stats.getCurrentFloor();
+		long liveFloorMs = stats.getLiveFloorMs(nowMs);
 		
 		// Split times per floor (only show floors with a personal best)
-		if (config.showFloorTimer() && stats != null)
+		if (showFloorTimer)
 		{
 			for (int floor = 1; floor <= 5; floor++)
 			{
@@ -64,55 +117,31 @@ public class HallowedSepulchreOverlay extends OverlayPanel
 				{
 					continue;
 				}
-
-				SepulchreRun.FloorData floorData = currentRun.getFloorData().get(floor);
-				String splitText = "--";
+				
 				long splitMs = 0;
 				boolean timeFromGame = false;
-
-				if (floorData != null && floorData.getDuration() != null && floorData.getDuration().toMillis() > 0)
-				{
-					splitMs = floorData.getDuration().toMillis();
-					splitText = HallowedSepulchrePlugin.formatDuration(floorData.getDuration());
-					timeFromGame = floorData.isTimeFromGame();
-				}
-				else if (!runIdle && floor == currentFloor && plugin.getFloorStartTime() != null)
+				if (stats.getRunSplitMs(floor) > 0)
 				{
-					Duration liveTime = Duration.between(plugin.getFloorStartTime(), Instant.now());
-					splitText = HallowedSepulchrePlugin.formatDuration(liveTime);
-					splitMs = liveTime.toMillis();
+					splitMs = stats.getRunSplitMs(floor);
+					timeFromGame = stats.isRunSplitFromGame(floor);
 				}
-
-				String deltaText = "";
-				Color leftColor = Color.WHITE;
-				if (splitMs > 0)
+				else if (floor == currentFloor)
 				{
-					long deltaMs = splitMs - pbMs;
-					if (timeFromGame)
-					{
-						deltaText = " " + formatDeltaColored(deltaMs);
-					}
-					else if (deltaMs > 0)
-					{
-						// Show only live "behind PB" deltas to reduce noise mid-floor.
-						deltaText = " " + formatDeltaColored(deltaMs);
-					}
+					splitMs = liveFloorMs;
 				}
-
-				panelComponent.getChildren().add(LineComponent.builder()
-					.left("F" + floor + ": " + splitText + deltaText)
-					.leftColor(leftColor)
-					.right("PB " + HallowedSepulchrePlugin.formatDuration(Duration.ofMillis(pbMs)))
-					.rightColor(new Color(180, 180, 190))
-					.build());
+				
+				// Show only live "behind PB" deltas to reduce noise mid-floor.
+				boolean showDelta = splitMs > 0 && (timeFromGame || splitMs > pbMs);
+				updateSplitLine(splitLines[floor], FLOOR_PREFIXES[floor], splitMs, showDelta, pbMs);
+				visible |= 1 << floor;
 			}
 		}
 		
 		// Total run timer vs PB (if available)
-		if (config.showRunTimer() && stats != null)
+		if (showRunTimer)
 		{
 			int pbFloors = getContiguousPbFloors(stats);
-
+			
 			if (pbFloors > 0)
 			{
 				long totalPbMs = stats.getBestRunTimeForFloorsMs(pbFloors);
@@ -123,122 +152,216 @@ public class HallowedSepulchreOverlay extends OverlayPanel
 				}
 				if (totalPbMs > 0)
 				{
-					long totalRunMs = getTotalRunMs(currentRun, pbFloors, currentFloor, runIdle, plugin.getFloorStartTime());
-					String runText = totalRunMs > 0 ? HallowedSepulchrePlugin.formatDuration(Duration.ofMillis(totalRunMs)) : "--";
-					boolean canCompare = hasOfficialSplits(currentRun, pbFloors);
-					long deltaMs = totalRunMs - totalPbMs;
-					String deltaText = "";
-					if (totalRunMs > 0 && (canCompare || deltaMs > 0))
-					{
-						deltaText = " " + formatDeltaColored(deltaMs);
-					}
-					Color leftColor = Color.WHITE;
-
-					panelComponent.getChildren().add(LineComponent.builder()
-						.left("Total: " + runText + deltaText)
-						.leftColor(leftColor)
-						.right("PB " + HallowedSepulchrePlugin.formatDuration(Duration.ofMillis(totalPbMs)))
-						.rightColor(new Color(180, 180, 190))
-						.build());
+					long totalRunMs = getTotalRunMs(stats, pbFloors, nowMs);
+					boolean canCompare = hasOfficialSplits(stats, pbFloors);
+					boolean showDelta = totalRunMs > 0 && (canCompare || totalRunMs > totalPbMs);
+					updateSplitLine(totalLine, "Total: ", totalRunMs, showDelta, totalPbMs);
+					visible |= TOTAL_BIT;
 				}
 			}
 		}
 		
 		// XP gained this run
-		if (config.showXpGained())
+		if (showXpGained)
 		{
-			panelComponent.getChildren().add(LineComponent.builder()
-				.left("XP Gained:")
-				.right(HallowedSepulchrePlugin.formatNumber(currentRun.getTotalXp()))
-				.rightColor(Color.GREEN)
-				.build());
+			int xp = stats.getRunXp();
+			if (xpLine.rightKey != xp)
+			{
+				xpLine.rightKey = xp;
+				xpLine.component.setRight(HallowedSepulchrePlugin.formatNumber(xp));
+			}
+			visible |= XP_BIT;
 		}
 		
 		// Chests looted
-		if (config.trackChests())
+		if (trackChests)
 		{
-			int chestsLooted = currentRun.getTotalChestsLooted();
-			if (chestsLooted > 0 || currentRun.isLootedGrandCoffin())
+			int chestsLooted = stats.getRunChestsLooted();
+			boolean grandCoffin = stats.isRunLootedGrandCoffin();
+			if (chestsLooted > 0 || grandCoffin)
 			{
-				String chestText = String.valueOf(chestsLooted);
-				if (currentRun.isLootedGrandCoffin())
+				long key = chestsLooted * 2L + (grandCoffin ? 1 : 0);
+				if (chestLine.rightKey != key)
 				{
-					chestText += " + GC";
+					chestLine.rightKey = key;
+					chestLine.component.setRight(grandCoffin ? chestsLooted + " + GC" : String.valueOf(chestsLooted));
 				}
-				panelComponent.getChildren().add(LineComponent.builder()
-					.left("Chests:")
-					.right(chestText)
-					.rightColor(new Color(255, 215, 0))
-					.build());
+				visible |= CHEST_BIT;
 			}
 		}
 		
 		// Current floor
-		if (!runIdle && currentFloor > 0)
+		if (!stats.isRunIdle() && currentFloor > 0)
 		{
-			panelComponent.getChildren().add(LineComponent.builder()
-				.left("Floor:")
-				.right(String.valueOf(currentFloor))
-				.rightColor(getFloorColor(currentFloor))
-				.build());
+			if (floorLine.rightKey != currentFloor)
+			{
+				floorLine.rightKey = currentFloor;
+				floorLine.component.setRight(String.valueOf(currentFloor));
+				floorLine.component.setRightColor(getFloorColor(currentFloor));
+			}
+			visible |= FLOOR_BIT;
 		}
-
+		
 		// Floors completed this run
-		int floorsCompleted = currentRun.getFloorsCompleted();
+		int floorsCompleted = stats.getRunFloorsCompleted();
 		if (floorsCompleted > 0)
 		{
-			panelComponent.getChildren().add(LineComponent.builder()
-				.left("Floors Done:")
-				.right(String.valueOf(floorsCompleted))
-				.rightColor(Color.CYAN)
-				.build());
+			if (floorsDoneLine.rightKey != floorsCompleted)
+			{
+				floorsDoneLine.rightKey = floorsCompleted;
+				floorsDoneLine.component.setRight(String.valueOf(floorsCompleted));
+			}
+			visible |= FLOORS_DONE_BIT;
 		}
 		
-		return super.render(graphics);
+		if (visible != visibleLines)
+		{
+			visibleLines = visible;
+			rebuildChildren(visible);
+		}
+	}
+	
+	private void rebuildChildren(int visible)
+	{
+		List<LayoutableRenderableEntity> children = panelComponent.getChildren();
+		children.clear();
+		children.add(title);
+		for (int floor = 1; floor <= 5; floor++)
+		{
+			if ((visible & (1 << floor)) != 0)
+			{
+				children.add(splitLines[floor].component);
+			}
+		}
+		if ((visible & TOTAL_BIT) != 0)
+		{
+			children.add(totalLine.component);
+		}
+		if ((visible & XP_BIT) != 0)
+		{
+			children.add(xpLine.component);
+		}
+		if ((visible & CHEST_BIT) != 0)
+		{
+			children.add(chestLine.component);
+		}
+		if ((visible & FLOOR_BIT) != 0)
+		{
+			children.add(floorLine.component);
+		}
+		if ((visible & FLOORS_DONE_BIT) != 0)
+		{
+			children.add(floorsDoneLine.component);
+		}
+	}
+	
+	/**
+	 * Update a "prefix split (delta)" / "PB time" line. Text is keyed on the displayed
+	 * seconds, so it is rebuilt at most once per second while a timer is running.
+	 */
+	private void updateSplitLine(CachedLine line, String prefix, long splitMs, boolean showDelta, long pbMs)
+	{
+		long deltaMs = splitMs - pbMs;
+		long splitKey = splitMs > 0 ? splitMs / 1000 : -1;
+		long deltaKey = showDelta ? (Math.abs(deltaMs) / 1000) * 3 + Long.signum(deltaMs) + 2 : 0;
+		long leftKey = (splitKey << 32) ^ deltaKey;
+		if (line.leftKey != leftKey)
+		{
+			line.leftKey = leftKey;
+			StringBuilder sb = textBuilder;
+			sb.setLength(0);
+			sb.append(prefix);
+			if (splitMs > 0)
+			{
+				appendDuration(sb, splitMs);
+			}
+			else
+			{
+				sb.append("--");
+			}
+			if (showDelta)
+			{
+				sb.append(' ');
+				appendDeltaColored(sb, deltaMs);
+			}
+			line.component.setLeft(sb.toString());
+		}
+		
+		long rightKey = pbMs / 1000;
+		if (line.rightKey != rightKey)
+		{
+			line.rightKey = rightKey;
+			StringBuilder sb = textBuilder;
+			sb.setLength(0);
+			sb.append("PB ");
+			appendDuration(sb, pbMs);
+			line.component.setRight(sb.toString());
+		}
 	}
 	
 	private Color getFloorColor(int floor)
 	{
-		switch (floor)
+		return floor >= 1 && floor <= 5 ? FLOOR_COLORS[floor] : Color.WHITE;
+	}
+	
+	/**
+	 * Same output as {@link HallowedSepulchrePlugin#formatDuration}, without String.format.
+	 */
+	private static void appendDuration(StringBuilder sb, long ms)
+	{
+		long seconds = ms / 1000;
+		long minutes = seconds / 60;
+		long hours = minutes / 60;
+		
+		seconds %= 60;
+		minutes %= 60;
+		
+		if (hours > 0)
+		{
+			sb.append(hours).append(':');
+			appendTwoDigits(sb, minutes);
+		}
+		else
 		{
-			case 1:
-				return new Color(144, 238, 144); // Light green
-			case 2:
-				return new Color(135, 206, 235); // Sky blue
-			case 3:
-				return new Color(255, 255, 150); // Light yellow
-			case 4:
-				return new Color(255, 165, 0);   // Orange
-			case 5:
-				return new Color(255, 100, 100); // Light red
-			default:
-				return Color.WHITE;
+			sb.append(minutes);
 		}
+		sb.append(':');
+		appendTwoDigits(sb, seconds);
 	}
-
-	private String formatDelta(long deltaMs)
+	
+	private static void appendTwoDigits(StringBuilder sb, long value)
+	{
+		if (value < 10)
+		{
+			sb.append('0');
+		}
+		sb.append(value);
+	}
+	
+	private static void appendDelta(StringBuilder sb, long deltaMs)
 	{
 		long absSeconds = Math.abs(deltaMs) / 1000;
-		String sign = deltaMs >= 0 ? "+" : "-";
-
+		sb.append(deltaMs >= 0 ? '+' : '-');
+		
 		if (absSeconds < 60)
 		{
-			return sign + absSeconds + "s";
+			sb.append(absSeconds).append('s');
+			return;
 		}
-
-		long minutes = absSeconds / 60;
-		long seconds = absSeconds % 60;
-		return String.format("%s%d:%02d", sign, minutes, seconds);
+		
+		sb.append(absSeconds / 60).append(':');
+		appendTwoDigits(sb, absSeconds % 60);
 	}
-
-	private String formatDeltaColored(long deltaMs)
+	
+	private static void appendDeltaColored(StringBuilder sb, long deltaMs)
 	{
-		String color = deltaMs <= 0 ? "64dc64" : "ffd700";
 		// Use an explicit reset color tag instead of </col>, which can render literally.
-		return "<col=" + color + ">(" + formatDelta(deltaMs) + ")<col=ffffff>";
+		sb.append(deltaMs <= 0 ? "<col=64dc64>(" : "<col=ffd700>(");
+		appendDelta(sb, deltaMs);
+		sb.append(")<col=ffffff>");
 	}
-
-	private int getContiguousPbFloors(PersistentStats stats)
+	
+	private int getContiguousPbFloors(LiveStatsSnapshot stats)
 	{
 		int count = 0;
 		for (int floor = 1; floor <= 5; floor++)
@@ -254,20 +377,19 @@ public class HallowedSepulchreOverlay extends OverlayPanel
 		}
 		return count;
 	}
-
-	private long getTotalRunMs(SepulchreRun run, int floors, int currentFloor, boolean runIdle, Instant floorStartTime)
+	
+	private long getTotalRunMs(LiveStatsSnapshot stats, int floors, long nowMs)
 	{
 		long totalMs = 0;
 		for (int floor = 1; floor <= floors; floor++)
 		{
-			SepulchreRun.FloorData data = run.getFloorData().get(floor);
-			if (data != null && data.getDuration() != null)
+			if (stats.getRunSplitMs(floor) > 0)
 			{
-				totalMs += data.getDuration().toMillis();
+				totalMs += stats.getRunSplitMs(floor);
 			}
-			else if (!runIdle && floor == currentFloor && floorStartTime != null)
+			else if (floor == stats.getCurrentFloor() && stats.getLiveFloorMs(nowMs) > 0)
 			{
-				totalMs += Duration.between(floorStartTime, Instant.now()).toMillis();
+				totalMs += stats.getLiveFloorMs(nowMs);
 			}
 			else
 			{
@@ -276,21 +398,20 @@ public class HallowedSepulchreOverlay extends OverlayPanel
 		}
 		return totalMs;
 	}
-
-	private boolean hasOfficialSplits(SepulchreRun run, int floors)
+	
+	private boolean hasOfficialSplits(LiveStatsSnapshot stats, int floors)
 	{
 		for (int floor = 1; floor <= floors; floor++)
 		{
-			SepulchreRun.FloorData data = run.getFloorData().get(floor);
-			if (data == null || !data.isTimeFromGame() || data.getDuration() == null || data.getDuration().toMillis() <= 0)
+			if (!stats.isRunSplitFromGame(floor) || stats.getRunSplitMs(floor) <= 0)
 			{
 				return false;
 			}
 		}
 		return true;
 	}
-
-	private long getFallbackTotalPbMs(PersistentStats stats, int floors)
+	
+	private long getFallbackTotalPbMs(LiveStatsSnapshot stats, int floors)
 	{
 		long totalMs = 0;
 		for (int floor = 1; floor <= floors; floor++)
@@ -304,4 +425,22 @@ public class HallowedSepulchreOverlay extends OverlayPanel
 		}
 		return totalMs;
 	}
+	
+	/**
+	 * A retained line plus the keys of the values its text was last built from.
+	 */
+	private static class CachedLine
+	{
+		private final LineComponent component;
+		private long leftKey = Long.MIN_VALUE;
+		private long rightKey = Long.MIN_VALUE;
+		
+		CachedLine(Color leftColor, Color rightColor)
+		{
+			component = LineComponent.builder()
+				.leftColor(leftColor)
+				.rightColor(rightColor)
+				.build();
+		}
+	}
 }
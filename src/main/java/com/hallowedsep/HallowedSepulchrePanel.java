@@ -11,7 +11,6 @@ import java.awt.*;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.Map;
 
 public class HallowedSepulchrePanel extends PluginPanel
 {
@@ -22,11 +21,14 @@ public class HallowedSepulchrePanel extends PluginPanel
 	private static final Color BLUE_ACCENT = new Color(100, 180, 255);
 	private static final Color GOLD_ACCENT = new Color(255, 215, 0);
 	private static final Color GREEN_SUCCESS = new Color(80, 200, 120);
+	private static final Color GREEN_BRIGHT = new Color(0, 255, 0);
 	private static final Color ORANGE_WARN = new Color(255, 165, 80);
 	private static final Color RED_DANGER = new Color(255, 100, 100);
 	private static final Color TEXT_PRIMARY = new Color(255, 255, 255);
 	private static final Color TEXT_SECONDARY = new Color(200, 200, 210);
 	private static final Color TEXT_MUTED = new Color(140, 140, 150);
+	private static final Color HISTORY_HEADER_BG = new Color(25, 45, 64);
+	private static final Color HISTORY_HEADER_HOVER_BG = new Color(35, 55, 75);
 	
 	// Floor colors
 	private static final Color[] FLOOR_COLORS = {
@@ -44,13 +46,68 @@ public class HallowedSepulchrePanel extends PluginPanel
 	private static final Font VALUE_FONT = new Font("SansSerif", Font.BOLD, 13);
 	private static final Font SMALL_FONT = new Font("SansSerif", Font.PLAIN, 12);
 	
+	private static final int HISTORY_ROW_HEIGHT = 44;
+	private static final int HISTORY_ROW_WIDTH = 150;
+	private static final int HISTORY_VISIBLE_ROWS = 10;
+	
+	// Minimum time between two refreshes, so bursts of mutations coalesce into one repaint
+	private static final long REFRESH_INTERVAL_MS = 1000;
+	// While a run is live the XP/hr row drifts with time even without mutations
+	private static final long LIVE_REFRESH_INTERVAL_MS = 5000;
+	
 	private final HallowedSepulchrePlugin plugin;
 	private final HallowedSepulchreConfig config;
 	
+	// True while the panel is open in the sidebar; refreshes are skipped otherwise
+	private volatile boolean active;
+	// Only touched from the client thread in requestRefresh
+	private int refreshedVersion = -1;
+	private long lastRefreshMs;
+	
 	private JPanel mainContent;
 	private JScrollPane scrollPane;
 	private boolean historyExpanded = false;
 	
+	// Long-lived rows, built once and updated in place on refresh
+	private StatRow todayEmptyRow;
+	private StatRow todayRunsRow;
+	private StatRow todayXpRow;
+	private StatRow todayTimeRow;
+	private StatRow todayXpHrRow;
+	private StatRow todayAvgRow;
+	
+	private StatRow last7DaysRow;
+	private StatRow last30DaysRow;
+	private StatRow thisMonthRow;
+	
+	private StatRow allTimeEmptyRow;
+	private StatRow allTimeRunsRow;
+	private StatRow allTimeXpRow;
+	private StatRow allTimeTimeRow;
+	private StatRow allTimeDaysRow;
+	private StatRow allTimeRunsPerDayRow;
+	private StatRow allTimeXpHrRow;
+	
+	private StatRow levelRow;
+	private StatRow xpTo92Row;
+	private StatRow runsTo92Row;
+	private StatRow daysTo92Row;
+	private StatRow xpTo99Row;
+	private StatRow runsTo99Row;
+	private StatRow daysTo99Row;
+	private JPanel congratsPanel;
+	
+	private final StatRow[] floorRows = new StatRow[5];
+	private final StatRow[] bestTimeRows = new StatRow[5];
+	private StatRow noBestTimesRow;
+	
+	private JLabel historyTitleLabel;
+	private JPanel historyContent;
+	private StatRow noHistoryRow;
+	private JScrollPane historyScroll;
+	private final DailyHistoryListModel historyModel = new DailyHistoryListModel();
+	private final DailyHistoryCellRenderer historyRenderer = new DailyHistoryCellRenderer();
+	
 	public HallowedSepulchrePanel(HallowedSepulchrePlugin plugin, HallowedSepulchreConfig config)
 	{
 		super(false);
@@ -74,25 +131,28 @@ public class HallowedSepulchrePanel extends PluginPanel
 		add(scrollPane, BorderLayout.CENTER);
 		
 		buildPanel();
+		refresh();
 	}
 	
+	/**
+	 * Build the component tree once. Refreshes only touch the labels created here.
+	 */
 	private void buildPanel()
 	{
-		mainContent.removeAll();
-		
 		// === HEADER ===
 		mainContent.add(createHeader());
 		mainContent.add(Box.createVerticalStrut(12));
 		
-		PersistentStats stats = plugin.getPersistentStats();
-		HallowedSepulchreSession session = plugin.getSession();
-		
 		// === TODAY'S STATS ===
-		mainContent.add(createTodayCard(stats));
+		mainContent.add(createTodayCard());
+		mainContent.add(Box.createVerticalStrut(10));
+		
+		// === RECENT DAYS ===
+		mainContent.add(createRecentCard());
 		mainContent.add(Box.createVerticalStrut(10));
 		
 		// === ALL-TIME STATS ===
-		mainContent.add(createAllTimeCard(stats));
+		mainContent.add(createAllTimeCard());
 		mainContent.add(Box.createVerticalStrut(10));
 		
 		// === PROGRESS CARD ===
@@ -100,24 +160,45 @@ public class HallowedSepulchrePanel extends PluginPanel
 		mainContent.add(Box.createVerticalStrut(10));
 		
 		// === FLOOR COMPLETIONS ===
-		mainContent.add(createFloorCard(stats, session));
+		mainContent.add(createFloorCard());
 		mainContent.add(Box.createVerticalStrut(10));
 		
 		// === BEST TIMES ===
-		mainContent.add(createBestTimesCard(session));
+		mainContent.add(createBestTimesCard());
 		mainContent.add(Box.createVerticalStrut(10));
 		
 		// === DAILY HISTORY ===
-		mainContent.add(createHistoryCard(stats));
+		mainContent.add(createHistoryCard());
 		mainContent.add(Box.createVerticalStrut(15));
 		
 		// === RESET BUTTONS ===
 		mainContent.add(createResetSessionButton());
 		mainContent.add(Box.createVerticalStrut(8));
 		mainContent.add(createResetAllTimeButton());
-		
-		mainContent.revalidate();
-		mainContent.repaint();
+	}
+	
+	/**
+	 * Push current values into the retained rows. Labels are only touched when their
+	 * text or color changed, and the layout is only revalidated when rows are shown or hidden.
+	 */
+	private void refresh()
+	{
+		LiveStatsSnapshot stats = plugin.getSnapshot();
+		
+		boolean layoutChanged = false;
+		layoutChanged |= refreshToday(stats);
+		refreshRecent(stats);
+		layoutChanged |= refreshAllTime(stats);
+		layoutChanged |= refreshProgress(stats);
+		refreshFloors(stats);
+		layoutChanged |= refreshBestTimes(stats);
+		layoutChanged |= refreshHistory(stats);
+		
+		if (layoutChanged)
+		{
+			mainContent.revalidate();
+			mainContent.repaint();
+		}
 	}
 	
 	private JPanel createHeader()
@@ -145,57 +226,125 @@ public class HallowedSepulchrePanel extends PluginPanel
 		return header;
 	}
 	
-	private JPanel createTodayCard(PersistentStats stats)
+	private JPanel createTodayCard()
 	{
 		JPanel card = createCard("Today", BLUE_ACCENT);
 		JPanel content = (JPanel) card.getComponent(1);
 		
-		DailyStats today = stats != null ? stats.getToday() : null;
+		todayEmptyRow = addStatRow(content, "No runs today", TEXT_MUTED);
+		todayRunsRow = addStatRow(content, "Runs", TEXT_SECONDARY);
+		todayXpRow = addStatRow(content, "XP", TEXT_SECONDARY);
+		todayTimeRow = addStatRow(content, "Time", TEXT_SECONDARY);
+		todayXpHrRow = addStatRow(content, "XP/hr", TEXT_SECONDARY);
+		todayAvgRow = addStatRow(content, "Avg/Run", TEXT_SECONDARY);
 		
-		if (today == null || today.getRuns() == 0)
-		{
-			addStatRow(content, "No runs today", "--", TEXT_MUTED, TEXT_MUTED);
-		}
-		else
+		return card;
+	}
+	
+	private boolean refreshToday(LiveStatsSnapshot stats)
+	{
+		boolean hasRuns = stats.getTodayRuns() > 0;
+		
+		boolean layoutChanged = todayEmptyRow.setShown(!hasRuns);
+		layoutChanged |= todayRunsRow.setShown(hasRuns);
+		layoutChanged |= todayXpRow.setShown(hasRuns);
+		layoutChanged |= todayTimeRow.setShown(hasRuns);
+		layoutChanged |= todayXpHrRow.setShown(hasRuns);
+		layoutChanged |= todayAvgRow.setShown(hasRuns);
+		
+		if (!hasRuns)
 		{
-			addStatRow(content, "Runs", String.valueOf(today.getRuns()), TEXT_SECONDARY, TEXT_PRIMARY);
-			addStatRow(content, "XP", formatNumber(today.getTotalXp()), TEXT_SECONDARY, GREEN_SUCCESS);
-			addStatRow(content, "Time", formatHoursMinutes(today.getHoursPlayed()), TEXT_SECONDARY, BLUE_ACCENT);
-			
-			// Live XP/hr including current run
-			double xpHr = plugin.getXpPerHour();
-			addStatRow(content, "XP/hr", formatNumber((int) xpHr), TEXT_SECONDARY, getXpHrColor(xpHr));
-			
-			if (today.getRuns() > 0)
-			{
-				int avgXp = today.getTotalXp() / today.getRuns();
-				addStatRow(content, "Avg/Run", formatNumber(avgXp), TEXT_SECONDARY, TEXT_PRIMARY);
-			}
+			todayEmptyRow.setValue("--", TEXT_MUTED);
+			return layoutChanged;
 		}
 		
-		return card;
+		todayRunsRow.setValue(String.valueOf(stats.getTodayRuns()), TEXT_PRIMARY);
+		todayXpRow.setValue(formatNumber(stats.getTodayXp()), GREEN_SUCCESS);
+		todayTimeRow.setValue(formatHoursMinutes(stats.getTodayHours()), BLUE_ACCENT);
+		
+		// Live XP/hr including current run
+		double xpHr = stats.getXpPerHour(System.currentTimeMillis());
+		todayXpHrRow.setValue(formatNumber((int) xpHr), getXpHrColor(xpHr));
+		
+		int avgXp = stats.getTodayXp() / stats.getTodayRuns();
+		todayAvgRow.setValue(formatNumber(avgXp), TEXT_PRIMARY);
+		
+		return layoutChanged;
 	}
 	
-	private JPanel createAllTimeCard(PersistentStats stats)
+	private JPanel createRecentCard()
 	{
-		JPanel card = createCard("All Time", GOLD_ACCENT);
+		JPanel card = createCard("Recent", PURPLE_ACCENT);
 		JPanel content = (JPanel) card.getComponent(1);
 		
-		if (stats == null || stats.getAllTimeRuns() == 0)
+		last7DaysRow = addStatRow(content, "7 Days", TEXT_SECONDARY);
+		last30DaysRow = addStatRow(content, "30 Days", TEXT_SECONDARY);
+		thisMonthRow = addStatRow(content, "This Month", TEXT_SECONDARY);
+		
+		return card;
+	}
+	
+	private void refreshRecent(LiveStatsSnapshot stats)
+	{
+		setRangeRow(last7DaysRow, stats.getLast7Days());
+		setRangeRow(last30DaysRow, stats.getLast30Days());
+		setRangeRow(thisMonthRow, stats.getThisMonth());
+	}
+	
+	// XP and XP/hr over a range of days
+	private void setRangeRow(StatRow row, DailyStats totals)
+	{
+		if (totals.getRuns() == 0)
 		{
-			addStatRow(content, "No data yet", "--", TEXT_MUTED, TEXT_MUTED);
+			row.setValue("--", TEXT_MUTED);
+			return;
 		}
-		else
+		double xpHr = totals.getXpPerHour();
+		row.setValue(formatNumber(totals.getTotalXp()) + " (" + formatNumber((int) xpHr) + "/hr)", getXpHrColor(xpHr));
+	}
+	
+	private JPanel createAllTimeCard()
+	{
+		JPanel card = createCard("All Time", GOLD_ACCENT);
+		JPanel content = (JPanel) card.getComponent(1);
+		
+		allTimeEmptyRow = addStatRow(content, "No data yet", TEXT_MUTED);
+		allTimeRunsRow = addStatRow(content, "Runs", TEXT_SECONDARY);
+		allTimeXpRow = addStatRow(content, "XP", TEXT_SECONDARY);
+		allTimeTimeRow = addStatRow(content, "Time", TEXT_SECONDARY);
+		allTimeDaysRow = addStatRow(content, "Days", TEXT_SECONDARY);
+		allTimeRunsPerDayRow = addStatRow(content, "Runs/Day", TEXT_SECONDARY);
+		allTimeXpHrRow = addStatRow(content, "XP/hr", TEXT_SECONDARY);
+		
+		return card;
+	}
+	
+	private boolean refreshAllTime(LiveStatsSnapshot stats)
+	{
+		boolean hasRuns = stats.getAllTimeRuns() > 0;
+		
+		boolean layoutChanged = allTimeEmptyRow.setShown(!hasRuns);
+		layoutChanged |= allTimeRunsRow.setShown(hasRuns);
+		layoutChanged |= allTimeXpRow.setShown(hasRuns);
+		layoutChanged |= allTimeTimeRow.setShown(hasRuns);
+		layoutChanged |= allTimeDaysRow.setShown(hasRuns);
+		layoutChanged |= allTimeRunsPerDayRow.setShown(hasRuns);
+		layoutChanged |= allTimeXpHrRow.setShown(hasRuns);
+		
+		if (!hasRuns)
 		{
-			addStatRow(content, "Runs", String.valueOf(stats.getAllTimeRuns()), TEXT_SECONDARY, TEXT_PRIMARY);
-			addStatRow(content, "XP", formatNumber(stats.getAllTimeXp()), TEXT_SECONDARY, GREEN_SUCCESS);
-			addStatRow(content, "Time", formatHoursMinutes(stats.getAllTimeHours()), TEXT_SECONDARY, BLUE_ACCENT);
-			addStatRow(content, "Days", String.valueOf(stats.getDaysTracked()), TEXT_SECONDARY, PURPLE_ACCENT);
-			addStatRow(content, "Runs/Day", String.format("%.1f", stats.getAverageRunsPerDay()), TEXT_SECONDARY, TEXT_PRIMARY);
-			addStatRow(content, "XP/hr", formatNumber((int) stats.getAllTimeXpPerHour()), TEXT_SECONDARY, getXpHrColor(stats.getAllTimeXpPerHour()));
+			allTimeEmptyRow.setValue("--", TEXT_MUTED);
+			return layoutChanged;
 		}
 		
-		return card;
+		allTimeRunsRow.setValue(String.valueOf(stats.getAllTimeRuns()), TEXT_PRIMARY);
+		allTimeXpRow.setValue(formatNumber(stats.getAllTimeXp()), GREEN_SUCCESS);
+		allTimeTimeRow.setValue(formatHoursMinutes(stats.getAllTimeHours()), BLUE_ACCENT);
+		allTimeDaysRow.setValue(String.valueOf(stats.getDaysTracked()), PURPLE_ACCENT);
+		allTimeRunsPerDayRow.setValue(String.format("%.1f", stats.getAverageRunsPerDay()), TEXT_PRIMARY);
+		allTimeXpHrRow.setValue(formatNumber((int) stats.getAllTimeXpPerHour()), getXpHrColor(stats.getAllTimeXpPerHour()));
+		
+		return layoutChanged;
 	}
 	
 	private JPanel createProgressCard()
@@ -203,60 +352,89 @@ public class HallowedSepulchrePanel extends PluginPanel
 		JPanel card = createCard("Progress to 99", GREEN_SUCCESS);
 		JPanel content = (JPanel) card.getComponent(1);
 		
-		int level = plugin.getCurrentAgilityLevel();
-		int xpTo99 = plugin.getXpToLevel(99);
-		int runsTo99 = plugin.getRunsRemaining(99);
+		levelRow = addStatRow(content, "Level", TEXT_SECONDARY);
+		xpTo92Row = addStatRow(content, "XP to 92", TEXT_SECONDARY);
+		runsTo92Row = addStatRow(content, "Runs to 92", TEXT_SECONDARY);
+		daysTo92Row = addStatRow(content, "Days to 92", TEXT_SECONDARY);
+		xpTo99Row = addStatRow(content, "XP to 99", TEXT_SECONDARY);
+		runsTo99Row = addStatRow(content, "Runs to 99", TEXT_SECONDARY);
+		daysTo99Row = addStatRow(content, "Days to 99", TEXT_SECONDARY);
+		
+		congratsPanel = new JPanel();
+		congratsPanel.setLayout(new BoxLayout(congratsPanel, BoxLayout.Y_AXIS));
+		congratsPanel.setBackground(BG_CARD);
+		congratsPanel.add(Box.createVerticalStrut(10));
+		JLabel congrats = new JLabel("99 AGILITY!");
+		congrats.setFont(HEADER_FONT);
+		congrats.setForeground(GOLD_ACCENT);
+		congrats.setAlignmentX(Component.CENTER_ALIGNMENT);
+		congratsPanel.add(congrats);
+		congratsPanel.add(Box.createVerticalStrut(10));
+		congratsPanel.setVisible(false);
+		content.add(congratsPanel);
+		
+		return card;
+	}
+	
+	private boolean refreshProgress(LiveStatsSnapshot stats)
+	{
+		int level = stats.getAgilityLevel();
 		
 		// Level with colored indicator
 		Color levelColor = level >= 99 ? GOLD_ACCENT : (level >= 92 ? GREEN_SUCCESS : TEXT_PRIMARY);
-		addStatRow(content, "Level", String.valueOf(level), TEXT_SECONDARY, levelColor);
+		levelRow.setValue(String.valueOf(level), levelColor);
+		
+		boolean below99 = level < 99;
+		boolean below92 = level < 92;
+		double avgRunsPerDay = stats.getAverageRunsPerDay();
+		boolean hasPace = avgRunsPerDay > 0;
+		
+		boolean layoutChanged = xpTo92Row.setShown(below92);
+		layoutChanged |= runsTo92Row.setShown(below92);
+		layoutChanged |= daysTo92Row.setShown(below92 && hasPace);
+		layoutChanged |= xpTo99Row.setShown(below99);
+		layoutChanged |= runsTo99Row.setShown(below99);
+		layoutChanged |= daysTo99Row.setShown(below99 && hasPace);
+		if (congratsPanel.isVisible() == below99)
+		{
+			congratsPanel.setVisible(!below99);
+			layoutChanged = true;
+		}
 		
-		// Progress
-		if (level < 99)
+		if (!below99)
 		{
-			PersistentStats stats = plugin.getPersistentStats();
-			double avgRunsPerDay = stats != null ? stats.getAverageRunsPerDay() : 0;
-			
-			// XP to 92 if not there yet
-			if (level < 92)
-			{
-				int xpTo92 = plugin.getXpToLevel(92);
-				int runsTo92 = plugin.getRunsRemaining(92);
-				addStatRow(content, "XP to 92", formatNumber(xpTo92), TEXT_SECONDARY, ORANGE_WARN);
-				addStatRow(content, "Runs to 92", String.valueOf(runsTo92), TEXT_SECONDARY, BLUE_ACCENT);
-				
-				if (avgRunsPerDay > 0)
-				{
-					int daysTo92 = (int) Math.ceil(runsTo92 / avgRunsPerDay);
-					addStatRow(content, "Days to 92", String.valueOf(daysTo92), TEXT_SECONDARY, PURPLE_ACCENT);
-				}
-			}
-			
-			// Always show 99 stats
-			addStatRow(content, "XP to 99", formatNumber(xpTo99), TEXT_SECONDARY, ORANGE_WARN);
-			addStatRow(content, "Runs to 99", String.valueOf(runsTo99), TEXT_SECONDARY, GOLD_ACCENT);
+			return layoutChanged;
+		}
+		
+		// XP to 92 if not there yet
+		if (below92)
+		{
+			int runsTo92 = stats.getRunsTo92();
+			xpTo92Row.setValue(formatNumber(stats.getXpTo92()), ORANGE_WARN);
+			runsTo92Row.setValue(String.valueOf(runsTo92), BLUE_ACCENT);
 			
-			if (avgRunsPerDay > 0)
+			if (hasPace)
 			{
-				int daysTo99 = (int) Math.ceil(runsTo99 / avgRunsPerDay);
-				addStatRow(content, "Days to 99", String.valueOf(daysTo99), TEXT_SECONDARY, GOLD_ACCENT);
+				int daysTo92 = (int) Math.ceil(runsTo92 / avgRunsPerDay);
+				daysTo92Row.setValue(String.valueOf(daysTo92), PURPLE_ACCENT);
 			}
 		}
-		else
+		
+		// Always show 99 stats
+		int runsTo99 = stats.getRunsTo99();
+		xpTo99Row.setValue(formatNumber(stats.getXpTo99()), ORANGE_WARN);
+		runsTo99Row.setValue(String.valueOf(runsTo99), GOLD_ACCENT);
+		
+		if (hasPace)
 		{
-			content.add(Box.createVerticalStrut(10));
-			JLabel congrats = new JLabel("99 AGILITY!");
-			congrats.setFont(HEADER_FONT);
-			congrats.setForeground(GOLD_ACCENT);
-			congrats.setAlignmentX(Component.CENTER_ALIGNMENT);
-			content.add(congrats);
-			content.add(Box.createVerticalStrut(10));
+			int daysTo99 = (int) Math.ceil(runsTo99 / avgRunsPerDay);
+			daysTo99Row.setValue(String.valueOf(daysTo99), GOLD_ACCENT);
 		}
 		
-		return card;
+		return layoutChanged;
 	}
 	
-	private JPanel createFloorCard(PersistentStats stats, HallowedSepulchreSession session)
+	private JPanel createFloorCard()
 	{
 		JPanel card = createCard("Floor Completions", PURPLE_ACCENT);
 		JPanel content = (JPanel) card.getComponent(1);
@@ -264,37 +442,50 @@ public class HallowedSepulchrePanel extends PluginPanel
 		// Simple vertical list - no width issues
 		for (int i = 1; i <= 5; i++)
 		{
-			int allTime = stats != null ? stats.getFloorCompletions(i) : 0;
-			addStatRow(content, "Floor " + i, String.valueOf(allTime), TEXT_SECONDARY, FLOOR_COLORS[i-1]);
+			floorRows[i - 1] = addStatRow(content, "Floor " + i, TEXT_SECONDARY);
 		}
 		
 		return card;
 	}
 	
-	private JPanel createBestTimesCard(HallowedSepulchreSession session)
+	private void refreshFloors(LiveStatsSnapshot stats)
+	{
+		for (int i = 1; i <= 5; i++)
+		{
+			int allTime = stats.getFloorCompletions(i);
+			floorRows[i - 1].setValue(String.valueOf(allTime), FLOOR_COLORS[i - 1]);
+		}
+	}
+	
+	private JPanel createBestTimesCard()
 	{
 		JPanel card = createCard("Personal Best Times", ORANGE_WARN);
 		JPanel content = (JPanel) card.getComponent(1);
 		
-		PersistentStats stats = plugin.getPersistentStats();
+		for (int i = 1; i <= 5; i++)
+		{
+			bestTimeRows[i - 1] = addStatRow(content, "Floor " + i, TEXT_SECONDARY);
+		}
+		noBestTimesRow = addStatRow(content, "Complete floors to see PBs", TEXT_MUTED);
+		
+		return card;
+	}
+	
+	private boolean refreshBestTimes(LiveStatsSnapshot stats)
+	{
 		boolean hasTimes = false;
 		
 		// Show personal best times from game data
 		for (int i = 1; i <= 5; i++)
 		{
-			long pbMs = stats != null ? stats.getBestFloorTimeMs(i) : 0;
+			long pbMs = stats.getBestFloorTimeMs(i);
 			String timeStr = pbMs > 0 ? formatDurationMs(pbMs) : "--";
 			if (pbMs > 0) hasTimes = true;
-			addStatRow(content, "Floor " + i, timeStr, TEXT_SECONDARY, FLOOR_COLORS[i-1]);
+			bestTimeRows[i - 1].setValue(timeStr, FLOOR_COLORS[i - 1]);
 		}
 		
-		if (!hasTimes)
-		{
-			// Show message if no PBs yet
-			addStatRow(content, "Complete floors to see PBs", "", TEXT_MUTED, TEXT_MUTED);
-		}
-		
-		return card;
+		// Show message if no PBs yet
+		return noBestTimesRow.setShown(!hasTimes);
 	}
 	
 	private String formatDurationMs(long ms)
@@ -305,7 +496,7 @@ public class HallowedSepulchrePanel extends PluginPanel
 		return String.format("%d:%02d", minutes, seconds);
 	}
 	
-	private JPanel createHistoryCard(PersistentStats stats)
+	private JPanel createHistoryCard()
 	{
 		JPanel card = new JPanel();
 		card.setLayout(new BoxLayout(card, BoxLayout.Y_AXIS));
@@ -319,16 +510,14 @@ public class HallowedSepulchrePanel extends PluginPanel
 		
 		// Clickable header
 		JPanel header = new JPanel(new BorderLayout());
-		header.setBackground(new Color(25, 45, 64));
+		header.setBackground(HISTORY_HEADER_BG);
 		header.setBorder(new EmptyBorder(10, 14, 10, 14));
 		header.setCursor(new Cursor(Cursor.HAND_CURSOR));
 		
-		int totalDays = stats != null ? stats.getDailyHistory().size() : 0;
-		String arrow = historyExpanded ? "v" : ">";
-		JLabel titleLabel = new JLabel(arrow + " Daily History (" + totalDays + " days)");
-		titleLabel.setFont(HEADER_FONT);
-		titleLabel.setForeground(BLUE_ACCENT);
-		header.add(titleLabel, BorderLayout.WEST);
+		historyTitleLabel = new JLabel();
+		historyTitleLabel.setFont(HEADER_FONT);
+		historyTitleLabel.setForeground(BLUE_ACCENT);
+		header.add(historyTitleLabel, BorderLayout.WEST);
 		
 		// Click to toggle
 		header.addMouseListener(new java.awt.event.MouseAdapter() {
@@ -339,101 +528,142 @@ public class HallowedSepulchrePanel extends PluginPanel
 			}
 			@Override
 			public void mouseEntered(java.awt.event.MouseEvent e) {
-				header.setBackground(new Color(35, 55, 75));
+				header.setBackground(HISTORY_HEADER_HOVER_BG);
 			}
 			@Override
 			public void mouseExited(java.awt.event.MouseEvent e) {
-				header.setBackground(new Color(25, 45, 64));
+				header.setBackground(HISTORY_HEADER_BG);
 			}
 		});
 		
 		card.add(header);
 		
 		// Content area (only visible when expanded)
-		if (historyExpanded)
-		{
-			JPanel content = new JPanel();
-			content.setLayout(new BorderLayout());
-			content.setBackground(BG_CARD);
-			content.setBorder(new EmptyBorder(12, 14, 12, 14));
-			
-			// Inner panel for rows, left-aligned
-			JPanel rowsPanel = new JPanel();
-			rowsPanel.setLayout(new BoxLayout(rowsPanel, BoxLayout.Y_AXIS));
-			rowsPanel.setBackground(BG_CARD);
-			rowsPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
-			
-			if (stats == null || stats.getDailyHistory().isEmpty())
-			{
-				addStatRow(rowsPanel, "No history yet", "--", TEXT_MUTED, TEXT_MUTED);
-			}
-			else
-			{
-				// Show ALL days when expanded
-				Map<String, DailyStats> history = stats.getDailyHistory();
-				DateTimeFormatter fmt = DateTimeFormatter.ofPattern("MMM dd");
-				
-				int count = 0;
-				for (int daysAgo = 0; daysAgo < 365 && count < 100; daysAgo++)
-				{
-					String dateKey = LocalDate.now().minusDays(daysAgo).toString();
-					DailyStats day = history.get(dateKey);
-					
-					if (day != null && day.getRuns() > 0)
-					{
-						String dateLabel = daysAgo == 0 ? "Today" : 
-							daysAgo == 1 ? "Yesterday" : 
-							LocalDate.parse(dateKey).format(fmt);
-						
-						String runsText = day.getRuns() == 1 ? "1 run" : day.getRuns() + " runs";
-						String stats_str = runsText + " / " + formatNumber(day.getTotalXp()) + " / " + formatHoursMinutes(day.getHoursPlayed());
-						addHistoryRow(rowsPanel, dateLabel, stats_str);
-						count++;
-					}
-				}
-				
-				if (count == 0)
-				{
-					addStatRow(rowsPanel, "No recent activity", "--", TEXT_MUTED, TEXT_MUTED);
-				}
-			}
-			
-			content.add(rowsPanel, BorderLayout.WEST);
-			card.add(content);
-		}
+		historyContent = new JPanel();
+		historyContent.setLayout(new BorderLayout());
+		historyContent.setBackground(BG_CARD);
+		historyContent.setBorder(new EmptyBorder(12, 14, 12, 14));
+		historyContent.setVisible(false);
+		
+		noHistoryRow = new StatRow("No history yet", TEXT_MUTED);
+		noHistoryRow.setValue("--", TEXT_MUTED);
+		
+		// Virtualized list: one shared renderer stamps only the rows in view
+		JList<DailyStats> historyList = new JList<>(historyModel);
+		historyList.setCellRenderer(historyRenderer);
+		historyList.setBackground(BG_CARD);
+		historyList.setFixedCellHeight(HISTORY_ROW_HEIGHT);
+		historyList.setFixedCellWidth(HISTORY_ROW_WIDTH);
+		historyList.setVisibleRowCount(HISTORY_VISIBLE_ROWS);
+		
+		historyScroll = new JScrollPane(historyList);
+		historyScroll.setBorder(null);
+		historyScroll.setBackground(BG_CARD);
+		historyScroll.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
+		historyScroll.getVerticalScrollBar().setUnitIncrement(HISTORY_ROW_HEIGHT);
+		
+		historyContent.add(noHistoryRow.row, BorderLayout.NORTH);
+		historyContent.add(historyScroll, BorderLayout.CENTER);
+		card.add(historyContent);
 		
 		return card;
 	}
 	
-	private void addHistoryRow(JPanel panel, String date, String stats)
+	private boolean refreshHistory(LiveStatsSnapshot stats)
 	{
-		// Use BorderLayout for proper left alignment
-		JPanel row = new JPanel(new BorderLayout());
-		row.setBackground(BG_CARD);
-		row.setBorder(new EmptyBorder(4, 0, 4, 0));
-		row.setMaximumSize(new Dimension(Integer.MAX_VALUE, 50));
-		row.setAlignmentX(Component.LEFT_ALIGNMENT);
+		int totalDays = stats.getDaysTracked();
+		String arrow = historyExpanded ? "v" : ">";
+		setText(historyTitleLabel, arrow + " Daily History (" + totalDays + " days)");
 		
-		// Left side: date and stats stacked
-		JPanel leftContent = new JPanel();
-		leftContent.setLayout(new BoxLayout(leftContent, BoxLayout.Y_AXIS));
-		leftContent.setBackground(BG_CARD);
-		leftContent.setAlignmentX(Component.LEFT_ALIGNMENT);
+		boolean layoutChanged = false;
+		if (historyContent.isVisible() != historyExpanded)
+		{
+			historyContent.setVisible(historyExpanded);
+			layoutChanged = true;
+		}
 		
-		JLabel dateLabel = new JLabel(date);
-		dateLabel.setFont(VALUE_FONT);
-		dateLabel.setForeground(PURPLE_ACCENT);
+		if (!historyExpanded)
+		{
+			return layoutChanged;
+		}
 		
-		JLabel statsLabel = new JLabel(stats);
-		statsLabel.setFont(SMALL_FONT);
-		statsLabel.setForeground(TEXT_SECONDARY);
+		historyModel.refresh(stats);
+		historyRenderer.setSnapshot(stats);
 		
-		leftContent.add(dateLabel);
-		leftContent.add(statsLabel);
+		boolean hasHistory = historyModel.getSize() > 0;
+		layoutChanged |= noHistoryRow.setShown(!hasHistory);
+		if (historyScroll.isVisible() != hasHistory)
+		{
+			historyScroll.setVisible(hasHistory);
+			layoutChanged = true;
+		}
 		
-		row.add(leftContent, BorderLayout.WEST);
+		return layoutChanged;
+	}
+	
+	/**
+	 * Single reusable renderer for history rows: date on top, runs / XP / time below.
+	 */
+	private class DailyHistoryCellRenderer extends JPanel implements ListCellRenderer<DailyStats>
+	{
+		private final DateTimeFormatter shortFormat = DateTimeFormatter.ofPattern("MMM dd");
+		private final DateTimeFormatter longFormat = DateTimeFormatter.ofPattern("MMM dd, yyyy");
+		private final JLabel dateLabel = new JLabel();
+		private final JLabel statsLabel = new JLabel();
+		private LocalDate today = LocalDate.now();
+		private LiveStatsSnapshot snapshot = LiveStatsSnapshot.EMPTY;
+		
+		DailyHistoryCellRenderer()
+		{
+			setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
+			setBackground(BG_CARD);
+			setBorder(new EmptyBorder(4, 0, 4, 0));
+			
+			dateLabel.setFont(VALUE_FONT);
+			dateLabel.setForeground(PURPLE_ACCENT);
+			statsLabel.setFont(SMALL_FONT);
+			statsLabel.setForeground(TEXT_SECONDARY);
+			
+			add(dateLabel);
+			add(statsLabel);
+		}
 		
-		panel.add(row);
+		void setSnapshot(LiveStatsSnapshot snapshot)
+		{
+			this.snapshot = snapshot;
+			this.today = LocalDate.now();
+		}
+		
+		@Override
+		public Component getListCellRendererComponent(JList<? extends DailyStats> list, DailyStats day, int index,
+			boolean isSelected, boolean cellHasFocus)
+		{
+			LocalDate date = LocalDate.parse(day.getDate());
+			String dateText;
+			if (date.equals(today))
+			{
+				dateText = "Today";
+			}
+			else if (date.equals(today.minusDays(1)))
+			{
+				dateText = "Yesterday";
+			}
+			else
+			{
+				dateText = date.format(date.getYear() == today.getYear() ? shortFormat : longFormat);
+			}
+			
+			// Earlier days are no longer written to; today's row comes from the snapshot
+			boolean isToday = day.getDate().equals(snapshot.getTodayDate());
+			int runs = isToday ? snapshot.getTodayRuns() : day.getRuns();
+			int xp = isToday ? snapshot.getTodayXp() : day.getTotalXp();
+			double hours = isToday ? snapshot.getTodayHours() : day.getHoursPlayed();
+			
+			String runsText = runs == 1 ? "1 run" : runs + " runs";
+			dateLabel.setText(dateText);
+			statsLabel.setText(runsText + " / " + formatNumber(xp) + " / " + formatHoursMinutes(hours));
+			return this;
+		}
 	}
 	
 	private JPanel createCard(String title, Color accentColor)
@@ -475,26 +705,69 @@ public class HallowedSepulchrePanel extends PluginPanel
 		return card;
 	}
 	
-	private void addStatRow(JPanel panel, String label, String value, Color labelColor, Color valueColor)
+	private StatRow addStatRow(JPanel panel, String label, Color labelColor)
 	{
-		JPanel row = new JPanel(new BorderLayout());
-		row.setBackground(BG_CARD);
-		row.setMaximumSize(new Dimension(Integer.MAX_VALUE, 24));
-		row.setBorder(new EmptyBorder(1, 0, 1, 0));
-		
-		JLabel labelComp = new JLabel(label + ":");
-		labelComp.setFont(LABEL_FONT);
-		labelComp.setForeground(labelColor);
-		labelComp.setPreferredSize(new Dimension(90, 20));
+		StatRow row = new StatRow(label, labelColor);
+		panel.add(row.row);
+		return row;
+	}
+	
+	private static void setText(JLabel label, String text)
+	{
+		if (!text.equals(label.getText()))
+		{
+			label.setText(text);
+		}
+	}
+	
+	/**
+	 * A label/value row whose components live for the lifetime of the panel.
+	 */
+	private static class StatRow
+	{
+		private final JPanel row;
+		private final JLabel valueComp;
 		
-		JLabel valueComp = new JLabel(value);
-		valueComp.setFont(VALUE_FONT);
-		valueComp.setForeground(valueColor);
+		StatRow(String label, Color labelColor)
+		{
+			row = new JPanel(new BorderLayout());
+			row.setBackground(BG_CARD);
+			row.setMaximumSize(new Dimension(Integer.MAX_VALUE, 24));
+			row.setBorder(new EmptyBorder(1, 0, 1, 0));
+			
+			JLabel labelComp = new JLabel(label + ":");
+			labelComp.setFont(LABEL_FONT);
+			labelComp.setForeground(labelColor);
+			labelComp.setPreferredSize(new Dimension(90, 20));
+			
+			valueComp = new JLabel();
+			valueComp.setFont(VALUE_FONT);
+			
+			row.add(labelComp, BorderLayout.WEST);
+			row.add(valueComp, BorderLayout.CENTER);
+		}
 		
-		row.add(labelComp, BorderLayout.WEST);
-		row.add(valueComp, BorderLayout.CENTER);
+		void setValue(String value, Color valueColor)
+		{
+			setText(valueComp, value);
+			if (!valueColor.equals(valueComp.getForeground()))
+			{
+				valueComp.setForeground(valueColor);
+			}
+		}
 		
-		panel.add(row);
+		/**
+		 * @return true if the visibility changed and the layout needs revalidating
+		 */
+		boolean setShown(boolean shown)
+		{
+			if (row.isVisible() == shown)
+			{
+				return false;
+			}
+			row.setVisible(shown);
+			return true;
+		}
 	}
 	
 	private JButton createResetSessionButton()
@@ -597,6 +870,52 @@ public class HallowedSepulchrePanel extends PluginPanel
 		return btn;
 	}
 	
+	/**
+	 * Called once per game tick from the client thread. Schedules a refresh on the EDT only if
+	 * the panel is showing and the stats version moved (or a run is live), at most once per
+	 * {@link #REFRESH_INTERVAL_MS}.
+	 */
+	public void requestRefresh(LiveStatsSnapshot snapshot)
+	{
+		if (!active)
+		{
+			return;
+		}
+		
+		int statsVersion = snapshot.getVersion();
+		long now = System.currentTimeMillis();
+		long sinceLastRefresh = now - lastRefreshMs;
+		if (statsVersion != refreshedVersion)
+		{
+			if (sinceLastRefresh < REFRESH_INTERVAL_MS)
+			{
+				return;
+			}
+		}
+		else if (!snapshot.isRunActive() || sinceLastRefresh < LIVE_REFRESH_INTERVAL_MS)
+		{
+			return;
+		}
+		
+		refreshedVersion = statsVersion;
+		lastRefreshMs = now;
+		SwingUtilities.invokeLater(this::refresh);
+	}
+	
+	@Override
+	public void onActivate()
+	{
+		active = true;
+		// Catch up on anything that changed while the panel was hidden
+		refresh();
+	}
+	
+	@Override
+	public void onDeactivate()
+	{
+		active = false;
+	}
+	
 	public void updateStats()
 	{
 		if (!SwingUtilities.isEventDispatchThread())
@@ -605,7 +924,7 @@ public class HallowedSepulchrePanel extends PluginPanel
 			return;
 		}
 		
-		buildPanel();
+		refresh();
 	}
 	
 	// Utility methods
@@ -664,7 +983,7 @@ public class HallowedSepulchrePanel extends PluginPanel
 	
 	private Color getXpHrColor(double xpPerHour)
 	{
-		if (xpPerHour >= 100000) return new Color(0, 255, 0);
+		if (xpPerHour >= 100000) return GREEN_BRIGHT;
 		if (xpPerHour >= 80000) return GREEN_SUCCESS;
 		if (xpPerHour >= 60000) return GOLD_ACCENT;
 		return ORANGE_WARN;
@@ -2,6 +2,7 @@ package com.hallowedsep;
 
 import com.google.gson.Gson;
 import com.google.inject.Provides;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.*;
@@ -21,8 +22,12 @@ import javax.inject.Inject;
 import java.awt.image.BufferedImage;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.BitSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @PluginDescriptor(
@@ -46,14 +51,25 @@ public class HallowedSepulchrePlugin extends Plugin
 		10335, 10591             // Floor 5 variations
 	};
 	
+	// Region IDs are 16 bits, so membership is a single bit lookup
+	private static final BitSet SEPULCHRE_REGION_SET = new BitSet(1 << 16);
+	
+	static
+	{
+		for (int region : SEPULCHRE_REGIONS)
+		{
+			SEPULCHRE_REGION_SET.set(region);
+		}
+	}
+	
 	// Object IDs
 	private static final int STAIRS_DOWN = 39526;
 	private static final int STAIRS_UP = 39527;
 	private static final int COFFIN = 39545;
 	private static final int GRAND_HALLOWED_COFFIN = 39546;
 	private static final int MAGICAL_OBELISK = 39558;
-
-	private static final Pattern FLOOR_TIME_PATTERN = Pattern.compile("Floor\\s+(\\d+)\\s+time:\\s*([0-9]+:[0-9]{1,2})");
+	
+	private final SepulchreChatParser chatParser = new SepulchreChatParser();
 	
 	@Inject
 	private Client client;
@@ -82,14 +98,31 @@ public class HallowedSepulchrePlugin extends Plugin
 	@Inject
 	private Gson gson;
 	
+	@Inject
+	private PersistenceWriter persistenceWriter;
+	
+	@Inject
+	private ScheduledExecutorService executor;
+	
 	private Gson configuredGson;
 	
+	private final PersistentStatsTypeAdapter persistentStatsAdapter = new PersistentStatsTypeAdapter();
+	
 	private HallowedSepulchreSession session;
 	
 	private PersistentStats persistentStats;
 	
+	// Every finished run; starts empty and is replaced once the file has been read
+	@Getter(AccessLevel.PACKAGE)
+	private RunHistory runHistory;
+	
 	private SepulchreRun currentRun;
 	
+	// Fires just after the next local midnight to move "today" to the new day
+	private ScheduledFuture<?> dayRollover;
+	// Bumped on shutdown, so a rollover already queued on the client thread by an older timer is dropped
+	private volatile int dayRolloverGeneration;
+	
 	private boolean inSepulchre;
 	
 	private int currentFloor;
@@ -102,25 +135,67 @@ public class HallowedSepulchrePlugin extends Plugin
 	private int lastRegionId;
 	private boolean hidePluginTabOutsideSepulchre;
 	
+	// Whether any loaded map region is a Sepulchre region. Only recomputed when the scene reloads.
+	private volatile boolean inSepulchreArea;
+	
+	// Bumped on every mutation of session/persistent/run stats; the panel repaints only when it moves
+	private int statsVersion;
+	
+	// Recent XP drops for the windowed XP/hr
+	private final XpRateEngine xpRates = new XpRateEngine();
+	
+	// Written only from the client thread, read by the overlays and the panel
+	private volatile LiveStatsSnapshot snapshot = LiveStatsSnapshot.EMPTY;
+	
 	@Override
 	protected void startUp() throws Exception
 	{
 		log.info("Hallowed Sepulchre Tracker started!");
 		
 		// Configure Gson with custom type adapters using the injected Gson
+		persistentStatsAdapter.setCompactHistory(config.compactHistory());
 		configuredGson = gson.newBuilder()
 			.registerTypeAdapter(Instant.class, new InstantTypeAdapter())
 			.registerTypeAdapter(Duration.class, new DurationTypeAdapter())
+			.registerTypeAdapter(PersistentStats.class, persistentStatsAdapter)
+			.registerTypeAdapter(DailyStats.class, new DailyStatsTypeAdapter())
+			.registerTypeAdapter(HallowedSepulchreSession.class, new HallowedSepulchreSessionTypeAdapter())
+			.registerTypeAdapter(SepulchreRun.class, new SepulchreRunTypeAdapter())
 			.create();
 		
+		persistenceWriter.start(configuredGson);
 		session = loadSession();
+		session.setRecentRunCapacity(config.recentRunsWindow());
 		persistentStats = loadPersistentStats();
+		persistentStats.setRetentionDays(config.historyRetentionDays());
+		persistentStats.rollOver(LocalDate.now());
+		runHistory = new RunHistory();
+		persistenceWriter.loadRunHistory(runHistory, loaded -> runHistory = loaded);
+		// Claimed now so a new run's checkpoint cannot replace it while the history loads
+		RunCheckpoint checkpoint = persistenceWriter.claimRunCheckpoint();
+		if (persistentStats.isHistoryLoaded())
+		{
+			recoverCheckpointedRun(checkpoint);
+		}
+		else
+		{
+			// The recovered run may belong to a day that is still on disk
+			persistenceWriter.loadHistory(persistentStats, () ->
+			{
+				recoverCheckpointedRun(checkpoint);
+				markStatsChanged();
+			});
+		}
 		currentRun = null;
 		inSepulchre = false;
 		currentFloor = 0;
 		lastAgilityXp = -1;
 		lastRegionId = -1;
+		inSepulchreArea = false;
 		hidePluginTabOutsideSepulchre = config.hidePluginTabOutsideSepulchre();
+		scheduleDayRollover();
+		xpRates.reset(getActiveTimeMs());
+		markStatsChanged();
 		
 		overlayManager.add(overlay);
 		overlayManager.add(infoBox);
@@ -149,8 +224,10 @@ public class HallowedSepulchrePlugin extends Plugin
 			.priority(6)
 			.panel(panel)
 			.build();
-
+		
 		updatePluginTabVisibility();
+		// Pick up the current scene if the plugin is enabled while logged in
+		clientThread.invokeLater(this::refreshSepulchreArea);
 	}
 	
 	@Override
@@ -162,12 +239,24 @@ public class HallowedSepulchrePlugin extends Plugin
 		overlayManager.remove(infoBox);
 		clientToolbar.removeNavigation(navButton);
 		
-		saveSession();
+		dayRolloverGeneration++;
+		if (dayRollover != null)
+		{
+			dayRollover.cancel(false);
+			dayRollover = null;
+		}
+		persistenceWriter.stop();
 	}
 	
 	@Subscribe
 	public void onGameStateChanged(GameStateChanged event)
 	{
+		if (event.getGameState() == GameState.LOADING || event.getGameState() == GameState.LOGGED_IN)
+		{
+			// Loaded map regions only change on a scene load
+			refreshSepulchreArea();
+		}
+		
 		if (event.getGameState() == GameState.LOGGED_IN)
 		{
 			clientThread.invokeLater(() -> {
@@ -185,11 +274,14 @@ public class HallowedSepulchrePlugin extends Plugin
 				endRun(false);
 			}
 			inSepulchre = false;
+			inSepulchreArea = false;
 			currentFloor = 0;
 			lastRegionId = -1;
+			markStatsChanged();
+			persistenceWriter.flushAsync();
 		}
 	}
-
+	
 	@Subscribe
 	public void onConfigChanged(ConfigChanged event)
 	{
@@ -197,17 +289,51 @@ public class HallowedSepulchrePlugin extends Plugin
 		{
 			return;
 		}
-
+		
 		hidePluginTabOutsideSepulchre = config.hidePluginTabOutsideSepulchre();
 		updatePluginTabVisibility();
-
+		
 		if ("trackBetweenFloorIdle".equals(event.getKey()) && !config.trackBetweenFloorIdle())
 		{
 			if (currentRun != null && currentRun.isPaused())
 			{
 				currentRun.resume();
+				markStatsChanged();
 			}
 		}
+		
+		if ("compactHistory".equals(event.getKey()))
+		{
+			// Rewrite the snapshot and every history shard in the newly selected form
+			clientThread.invokeLater(() ->
+			{
+				persistentStatsAdapter.setCompactHistory(config.compactHistory());
+				persistentStats.markHistoryRewrite();
+				savePersistentStats();
+			});
+		}
+		else if ("recentRunsWindow".equals(event.getKey()))
+		{
+			clientThread.invokeLater(() ->
+			{
+				session.setRecentRunCapacity(config.recentRunsWindow());
+				saveSession();
+			});
+		}
+		else if ("xpRateWindow".equals(event.getKey()))
+		{
+			clientThread.invokeLater(this::markStatsChanged);
+		}
+		else if ("historyRetentionDays".equals(event.getKey()))
+		{
+			// Rolling up mutates the history, which only the client thread may do
+			clientThread.invokeLater(() ->
+			{
+				persistentStats.setRetentionDays(config.historyRetentionDays());
+				savePersistentStats();
+				markStatsChanged();
+			});
+		}
 	}
 	
 	@Subscribe
@@ -227,10 +353,10 @@ public class HallowedSepulchrePlugin extends Plugin
 			lastRegionId = regionId;
 		}
 		
-		// Update panel periodically
+		// Let the panel pick up any stats changes (coalesced and rate limited by the panel)
 		if (panel != null)
 		{
-			panel.updateStats();
+			panel.requestRefresh(snapshot);
 		}
 	}
 	
@@ -247,12 +373,18 @@ public class HallowedSepulchrePlugin extends Plugin
 		if (lastAgilityXp > 0 && currentXp > lastAgilityXp && inSepulchre && currentRun != null)
 		{
 			int xpGained = currentXp - lastAgilityXp;
-			currentRun.addXp(xpGained);
+			currentRun.addXpDrop(xpGained, currentFloor, System.currentTimeMillis());
 			session.addXp(xpGained);
+			xpRates.record(xpGained, getActiveTimeMs());
 			
 			log.debug("Agility XP gained in Sepulchre: {} (total run: {})", xpGained, currentRun.getTotalXp());
 		}
 		
+		if (currentXp != lastAgilityXp)
+		{
+			// Level/XP-to-goal rows depend on this even outside of a run
+			markStatsChanged();
+		}
 		lastAgilityXp = currentXp;
 	}
 	
@@ -264,153 +396,124 @@ public class HallowedSepulchrePlugin extends Plugin
 			return;
 		}
 		
-		String message = event.getMessage();
+		switch (chatParser.parse(event.getMessage()))
+		{
+			case ENTER_FIRST_FLOOR:
+				log.info("Detected entry to Floor 1 via chat message!");
+				inSepulchre = true;
+				
+				if (currentRun == null)
+				{
+					startRun();
+					currentFloor = 1;
+					floorStartTime = Instant.now();
+					currentRun.startFloor(1);
+					markStatsChanged();
+					checkpointRun();
+					log.info("Started run from chat message trigger");
+				}
+				break;
+			case ENTER_NEXT_FLOOR:
+				enterNextFloor();
+				break;
+			case BETWEEN_FLOORS:
+				if (config.trackBetweenFloorIdle() && currentRun != null && currentFloor > 0)
+				{
+					log.info("Detected between-floor idle on floor {} via chat", currentFloor);
+					enterIdleBetweenFloors();
+					markStatsChanged();
+					checkpointRun();
+				}
+				break;
+			case FLOOR_COMPLETED:
+				onFloorCompletedMessage(chatParser.getFloor(), chatParser.getCompletions());
+				break;
+			case FLOOR_TIME:
+				onFloorTimeMessage(chatParser.getFloor(), chatParser.getFloorTimeMs(), chatParser.getPersonalBestMs());
+				break;
+			case RETURNED_TO_LOBBY:
+				log.info("Detected return to lobby via chat message");
+				if (currentRun != null)
+				{
+					endRun(true);
+					currentFloor = 0;
+					markStatsChanged();
+				}
+				break;
+			default:
+				break;
+		}
+	}
+	
+	private void enterNextFloor()
+	{
+		int nextFloor = currentFloor + 1;
+		if (nextFloor < 2) nextFloor = 2; // Safety: at least floor 2 if we missed floor 1
 		
-		// Detect entering Floor 1
-		if (message.contains("You venture down into the Hallowed Sepulchre") && !message.contains("further"))
+		log.info("Moving to floor {} via chat message", nextFloor);
+		
+		// If run was ended by region change, restart it
+		if (currentRun == null)
 		{
-			log.info("Detected entry to Floor 1 via chat message!");
-			inSepulchre = true;
-			
-			if (currentRun == null)
-			{
-				startRun();
-				currentFloor = 1;
-				floorStartTime = Instant.now();
-				currentRun.startFloor(1);
-				log.info("Started run from chat message trigger");
-			}
+			log.info("Run was null, restarting for floor {}", nextFloor);
+			startRun();
 		}
-		// Detect moving to next floor (Floor 2-5)
-		else if (message.contains("You venture further down into the Hallowed Sepulchre"))
+		else if (currentFloor > 0)
 		{
-			int nextFloor = currentFloor + 1;
-			if (nextFloor < 2) nextFloor = 2; // Safety: at least floor 2 if we missed floor 1
-			
-			log.info("Moving to floor {} via chat message", nextFloor);
-			
-			// If run was ended by region change, restart it
-			if (currentRun == null)
-			{
-				log.info("Run was null, restarting for floor {}", nextFloor);
-				startRun();
-			}
-			else if (currentFloor > 0)
+			if (!currentRun.isPaused() && floorStartTime != null)
 			{
-				if (!currentRun.isPaused() && floorStartTime != null)
-				{
-					completeFloor(currentFloor);
-				}
+				completeFloor(currentFloor);
 			}
-			
-			resumeRunForNextFloor();
-			inSepulchre = true;
-			currentFloor = nextFloor;
-			floorStartTime = Instant.now();
-			currentRun.startFloor(nextFloor);
 		}
-		// Detect between-floor idle starts
-		else if (config.trackBetweenFloorIdle() && (message.contains("You jump across the platform.") || message.contains("You squeeze through the gate")))
+		
+		resumeRunForNextFloor();
+		inSepulchre = true;
+		currentFloor = nextFloor;
+		floorStartTime = Instant.now();
+		currentRun.startFloor(nextFloor);
+		markStatsChanged();
+		checkpointRun();
+	}
+	
+	/**
+	 * "You have completed Floor 4 of the Hallowed Sepulchre! Total completions: 113."
+	 */
+	private void onFloorCompletedMessage(int floor, int totalCompletions)
+	{
+		log.info("Completed floor {} via chat message", floor);
+		if (currentRun != null && currentFloor == floor)
 		{
-			if (currentRun != null && currentFloor > 0)
-			{
-				log.info("Detected between-floor idle on floor {} via chat", currentFloor);
-				enterIdleBetweenFloors();
-			}
+			completeFloor(floor);
+			checkpointRun();
 		}
-		// Detect floor completions - "You have completed Floor 4 of the Hallowed Sepulchre! Total completions: 113."
-		else if (message.contains("You have completed Floor") && message.contains("Total completions:"))
+		
+		if (totalCompletions >= 0)
 		{
-			// Extract floor number
-			for (int f = 1; f <= 5; f++)
-			{
-				if (message.contains("Floor " + f))
-				{
-					log.info("Completed floor {} via chat message", f);
-					if (currentRun != null && currentFloor == f)
-					{
-						completeFloor(f);
-					}
-					
-					// Extract total completions from "Total completions: XXX"
-					try
-					{
-						String totalStr = message.substring(message.indexOf("Total completions:") + 18);
-						totalStr = totalStr.replaceAll("[^0-9]", "").trim();
-						if (!totalStr.isEmpty())
-						{
-							int totalCompletions = Integer.parseInt(totalStr);
-							persistentStats.setFloorCompletionsFromGame(f, totalCompletions);
-							log.info("Floor {} total completions from game: {}", f, totalCompletions);
-							savePersistentStats();
-						}
-					}
-					catch (Exception e)
-					{
-						log.warn("Failed to parse total completions from: {}", message);
-					}
-					break;
-				}
-			}
+			persistentStats.setFloorCompletionsFromGame(floor, totalCompletions);
+			markStatsChanged();
+			log.info("Floor {} total completions from game: {}", floor, totalCompletions);
+			persistenceWriter.recordFloorCompletions(floor, totalCompletions);
 		}
-		// Detect floor time - "Floor 4 time: 2:05. Personal best: 1:38"
-		else if (message.contains("Floor") && message.contains("time:"))
+	}
+	
+	/**
+	 * "Floor 4 time: 2:05. Personal best: 1:38"
+	 */
+	private void onFloorTimeMessage(int floor, long floorTimeMs, long personalBestMs)
+	{
+		if (currentRun != null && floorTimeMs > 0)
 		{
-			try
-			{
-				String cleanMessage = message.replaceAll("<[^>]+>", "");
-				int floorNum = 0;
-				Matcher matcher = FLOOR_TIME_PATTERN.matcher(cleanMessage);
-				if (matcher.find())
-				{
-					floorNum = Integer.parseInt(matcher.group(1));
-					long floorTimeMs = parseTimeMs(matcher.group(2));
-					if (currentRun != null && floorTimeMs > 0)
-					{
-						currentRun.setFloorTimeFromGame(floorNum, Duration.ofMillis(floorTimeMs));
-					}
-				}
-				else
-				{
-					for (int f = 1; f <= 5; f++)
-					{
-						if (message.contains("Floor " + f + " time:"))
-						{
-							floorNum = f;
-							break;
-						}
-					}
-				}
-				
-				if (floorNum > 0 && message.contains("Personal best:"))
-				{
-					// Extract personal best time - "Personal best: 1:38"
-					String pbStr = message.substring(message.indexOf("Personal best:") + 14).trim();
-					pbStr = pbStr.replaceAll("[^0-9:]", "");
-					String[] pbParts = pbStr.split(":");
-					if (pbParts.length == 2)
-					{
-						long pbMs = (Long.parseLong(pbParts[0]) * 60 + Long.parseLong(pbParts[1])) * 1000;
-						persistentStats.setPersonalBestFromGame(floorNum, pbMs);
-						log.info("Floor {} personal best from game: {}:{}", floorNum, pbParts[0], pbParts[1]);
-						savePersistentStats();
-					}
-				}
-			}
-			catch (Exception e)
-			{
-				log.warn("Failed to parse floor time from: {}", message);
-			}
+			currentRun.setFloorTimeFromGame(floor, Duration.ofMillis(floorTimeMs));
+			markStatsChanged();
+			checkpointRun();
 		}
-		// Detect returning to lobby
-		else if (message.contains("teleports you back to the lobby") || message.contains("make your way back to the lobby"))
+		
+		if (personalBestMs > 0)
 		{
-			log.info("Detected return to lobby via chat message");
-			if (currentRun != null)
-			{
-				endRun(true);
-				currentFloor = 0;
-			}
+			persistentStats.setPersonalBestFromGame(floor, personalBestMs);
+			markStatsChanged();
+			log.info("Floor {} personal best from game: {}ms", floor, personalBestMs);
+			persistenceWriter.recordPersonalBest(floor, personalBestMs);
 		}
 	}
 	
@@ -443,7 +546,7 @@ public class HallowedSepulchrePlugin extends Plugin
 	private void handleRegionChange(int regionId)
 	{
 		boolean isInLobby = regionId == LOBBY_REGION;
-		boolean stillInSepulchreArea = isInAnySepulchreRegion();
+		boolean stillInSepulchreArea = inSepulchreArea;
 		
 		// Track if we're in the lobby for overlay visibility
 		if (isInLobby)
@@ -457,6 +560,7 @@ public class HallowedSepulchrePlugin extends Plugin
 				log.info("Returned to lobby - ending run");
 				endRun(true);
 				currentFloor = 0;
+				markStatsChanged();
 			}
 		}
 		// Check if player teleported out of Sepulchre entirely
@@ -466,8 +570,9 @@ public class HallowedSepulchrePlugin extends Plugin
 			endRun(false);
 			inSepulchre = false;
 			currentFloor = 0;
+			markStatsChanged();
 		}
-
+		
 		updatePluginTabVisibility();
 	}
 	
@@ -485,17 +590,27 @@ public class HallowedSepulchrePlugin extends Plugin
 		
 		for (int loaded : loadedRegions)
 		{
-			for (int sepRegion : SEPULCHRE_REGIONS)
+			if (loaded >= 0 && SEPULCHRE_REGION_SET.get(loaded))
 			{
-				if (loaded == sepRegion)
-				{
-					return true;
-				}
+				return true;
 			}
 		}
 		return false;
 	}
 	
+	/**
+	 * Recompute the cached Sepulchre area flag after a scene load.
+	 */
+	private void refreshSepulchreArea()
+	{
+		boolean inArea = isInAnySepulchreRegion();
+		if (inArea != inSepulchreArea)
+		{
+			inSepulchreArea = inArea;
+			updatePluginTabVisibility();
+		}
+	}
+	
 	
 	private int getCurrentRegionId()
 	{
@@ -518,7 +633,7 @@ public class HallowedSepulchrePlugin extends Plugin
 		
 		log.debug("Started new Sepulchre run");
 	}
-
+	
 	private void enterIdleBetweenFloors()
 	{
 		if (currentRun != null)
@@ -531,7 +646,7 @@ public class HallowedSepulchrePlugin extends Plugin
 			floorStartTime = null;
 		}
 	}
-
+	
 	private void resumeRunForNextFloor()
 	{
 		if (currentRun != null)
@@ -550,6 +665,7 @@ public class HallowedSepulchrePlugin extends Plugin
 		Duration floorTime = Duration.between(floorStartTime, Instant.now());
 		currentRun.completeFloor(floor, floorTime);
 		session.incrementFloorCompletion(floor);
+		markStatsChanged();
 		
 		log.debug("Completed floor {} in {}", floor, formatDuration(floorTime));
 	}
@@ -580,8 +696,9 @@ public class HallowedSepulchrePlugin extends Plugin
 		// Add to session stats
 		session.addRun(currentRun);
 		
-		// Add to persistent stats (saved across sessions)
-		persistentStats.recordRun(currentRun);
+		// Add to persistent stats (saved across sessions), on the day the run started
+		String date = currentRun.getStartDate().toString();
+		persistentStats.recordRun(currentRun, date);
 		
 		log.info("=== RUN RECORDED ===");
 		log.info("  Floors reached: {}", currentRun.getHighestFloor());
@@ -593,8 +710,95 @@ public class HallowedSepulchrePlugin extends Plugin
 		log.info("===================");
 		
 		saveSession();
-		savePersistentStats();
+		persistenceWriter.recordRun(currentRun, date);
+		recordRunHistory(currentRun, date);
 		currentRun = null;
+		markStatsChanged();
+	}
+	
+	private void scheduleDayRollover()
+	{
+		ZonedDateTime now = ZonedDateTime.now();
+		ZonedDateTime midnight = now.toLocalDate().plusDays(1).atStartOfDay(now.getZone());
+		long delayMs = Duration.between(now, midnight).toMillis();
+		int generation = dayRolloverGeneration;
+		dayRollover = executor.schedule(() -> clientThread.invokeLater(() -> rollOverDay(generation)), delayMs,
+			TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Move persistent stats to the new day. If the timer fired a little early this is a no-op and
+	 * the next one is scheduled for the real midnight. Does nothing if the plugin was shut down
+	 * since the timer was scheduled.
+	 */
+	private void rollOverDay(int generation)
+	{
+		if (generation != dayRolloverGeneration)
+		{
+			return;
+		}
+		
+		persistentStats.rollOver(LocalDate.now());
+		savePersistentStats();
+		markStatsChanged();
+		scheduleDayRollover();
+	}
+	
+	private void checkpointRun()
+	{
+		if (currentRun != null)
+		{
+			persistenceWriter.checkpointRun(currentRun, currentFloor);
+		}
+	}
+	
+	/**
+	 * Finish a run that was still in progress when the client last stopped, as an incomplete run
+	 * ending at its last checkpoint. Runs without a completed floor are discarded. The claimed
+	 * checkpoint is deleted once the run is in the journal.
+	 */
+	private void recoverCheckpointedRun(RunCheckpoint checkpoint)
+	{
+		if (checkpoint == null)
+		{
+			return;
+		}
+		
+		SepulchreRun run = checkpoint.getRun();
+		if (run.getStartTime() == null || run.getFloorsCompleted() == 0)
+		{
+			log.info("Discarding checkpointed run with no completed floors");
+			persistenceWriter.discardClaimedRunCheckpoint();
+			return;
+		}
+		
+		Instant endTime = Instant.ofEpochMilli(checkpoint.getSavedAt());
+		run.resumeAt(endTime);
+		run.setEndTime(endTime);
+		run.setCompleted(false);
+		run.setHighestFloor(checkpoint.getFloor());
+		
+		String date = checkpoint.getDate();
+		String today = LocalDate.now().toString();
+		if (!persistentStats.isHistoryLoaded() && !today.equals(date))
+		{
+			// The history failed to load, and a row created for an older day would replace the one on disk
+			log.info("Recording interrupted run from {} under {}", date, today);
+			date = today;
+		}
+		
+		session.addRun(run);
+		persistentStats.recordRun(run, date);
+		saveSession();
+		persistenceWriter.recordRecoveredRun(run, date);
+		recordRunHistory(run, date);
+		log.info("Recovered interrupted run: {} floors, {} xp", run.getFloorsCompleted(), run.getTotalXp());
+	}
+	
+	private void recordRunHistory(SepulchreRun run, String date)
+	{
+		int index = runHistory.add(run, (int) LocalDate.parse(date).toEpochDay());
+		persistenceWriter.recordRunHistory(runHistory, index);
 	}
 	
 	private void handleCoffinLoot(int floor)
@@ -603,6 +807,7 @@ public class HallowedSepulchrePlugin extends Plugin
 		{
 			currentRun.incrementChestsLooted(floor);
 			session.incrementChestsLooted(floor);
+			markStatsChanged();
 			log.debug("Looted coffin on floor {}", floor);
 		}
 	}
@@ -613,6 +818,7 @@ public class HallowedSepulchrePlugin extends Plugin
 		{
 			currentRun.setLootedGrandCoffin(true);
 			session.incrementGrandCoffinLooted();
+			markStatsChanged();
 			log.debug("Looted Grand Hallowed Coffin");
 		}
 	}
@@ -641,70 +847,108 @@ public class HallowedSepulchrePlugin extends Plugin
 	
 	private void saveSession()
 	{
-		if (session != null)
-		{
-			String json = configuredGson.toJson(session);
-			configManager.setConfiguration("hallowedsep", "session", json);
-		}
+		persistenceWriter.markSessionDirty();
 	}
 	
 	private PersistentStats loadPersistentStats()
 	{
-		String json = configManager.getConfiguration("hallowedsep", "persistent");
-		if (json != null && !json.isEmpty())
+		return persistenceWriter.loadPersistentStats();
+	}
+	
+	private void savePersistentStats()
+	{
+		persistenceWriter.markPersistentStatsDirty();
+	}
+	
+	public void resetSession()
+	{
+		// Stats are only mutated on the client thread
+		clientThread.invokeLater(() ->
 		{
-			try
+			session = new HallowedSepulchreSession();
+			session.setRecentRunCapacity(config.recentRunsWindow());
+			xpRates.reset(getActiveTimeMs());
+			saveSession();
+			markStatsChanged();
+			if (panel != null)
 			{
-				PersistentStats loaded = configuredGson.fromJson(json, PersistentStats.class);
-				if (loaded != null)
-				{
-					loaded.initializeAfterLoad();
-					return loaded;
-				}
+				panel.updateStats();
 			}
-			catch (Exception e)
+		});
+	}
+	
+	public void resetAllStats()
+	{
+		clientThread.invokeLater(() ->
+		{
+			// Reset session
+			session = new HallowedSepulchreSession();
+			session.setRecentRunCapacity(config.recentRunsWindow());
+			xpRates.reset(getActiveTimeMs());
+			saveSession();
+			
+			// Reset all persistent stats
+			persistentStats = new PersistentStats();
+			persistentStats.setRetentionDays(config.historyRetentionDays());
+			persistentStats.rollOver(LocalDate.now());
+			persistentStats.markHistoryRewrite();
+			savePersistentStats();
+			persistenceWriter.flushAsync();
+			runHistory = new RunHistory();
+			persistenceWriter.clearRunHistory();
+			
+			log.info("All stats have been reset");
+			markStatsChanged();
+			
+			if (panel != null)
 			{
-				log.warn("Failed to load persistent stats", e);
+				panel.updateStats();
 			}
-		}
-		return new PersistentStats();
+		});
 	}
 	
-	private void savePersistentStats()
+	/**
+	 * Record that session, persistent or current run stats were mutated.
+	 */
+	private void markStatsChanged()
 	{
-		if (persistentStats != null)
-		{
-			String json = configuredGson.toJson(persistentStats);
-			configManager.setConfiguration("hallowedsep", "persistent", json);
-		}
+		statsVersion++;
+		publishSnapshot();
 	}
 	
-	public void resetSession()
+	/**
+	 * Capture the current state into a new immutable snapshot and swap it in.
+	 * Must be called from the client thread, which is the only writer of the models.
+	 */
+	private void publishSnapshot()
 	{
-		session = new HallowedSepulchreSession();
-		saveSession();
-		if (panel != null)
-		{
-			panel.updateStats();
-		}
+		int level = getCurrentAgilityLevel();
+		int runsToNextLevel = getRunsToNextLevel();
+		xpRates.advance(getActiveTimeMs());
+		snapshot = new LiveStatsSnapshot(statsVersion, currentRun, currentFloor, floorStartTime, session, persistentStats,
+			xpRates, config.xpRateWindow(), level, runsToNextLevel, getXpToLevel(92), getRunsRemaining(92), getXpToLevel(99), getRunsRemaining(99));
 	}
 	
-	public void resetAllStats()
+	/**
+	 * Session time plus the current run's duration: the clock the XP/hr windows run on, which
+	 * stands still while no run is active or the run is paused.
+	 */
+	private long getActiveTimeMs()
 	{
-		// Reset session
-		session = new HallowedSepulchreSession();
-		saveSession();
-		
-		// Reset all persistent stats
-		persistentStats = new PersistentStats();
-		savePersistentStats();
-		
-		log.info("All stats have been reset");
-		
-		if (panel != null)
+		long activeMs = session.getTotalTimeMs();
+		if (currentRun != null)
 		{
-			panel.updateStats();
+			activeMs += currentRun.getDuration().toMillis();
 		}
+		return activeMs;
+	}
+	
+	/**
+	 * Latest published stats. Safe to call from any thread.
+	 */
+	public LiveStatsSnapshot getSnapshot()
+	{
+		return snapshot;
 	}
 	
 	public boolean isInSepulchre()
@@ -718,7 +962,7 @@ public class HallowedSepulchrePlugin extends Plugin
 	public boolean isCurrentlyInSepulchreRegion()
 	{
 		// Show overlay if in any Sepulchre region OR if we have an active run
-		return isInAnySepulchreRegion() || currentRun != null;
+		return inSepulchreArea || snapshot.isRunActive();
 	}
 	
 	public SepulchreRun getCurrentRun()
@@ -735,7 +979,7 @@ public class HallowedSepulchrePlugin extends Plugin
 	{
 		return currentFloor;
 	}
-
+	
 	public Instant getFloorStartTime()
 	{
 		return floorStartTime;
@@ -819,29 +1063,7 @@ public class HallowedSepulchrePlugin extends Plugin
 	 */
 	public double getXpPerHour()
 	{
-		// Get completed session XP and time
-		int completedXp = session.getTotalXp();
-		long completedTimeMs = session.getTotalTimeMs();
-		
-		// Add current run XP and time if in a run
-		int currentXp = 0;
-		long currentTimeMs = 0;
-		if (currentRun != null)
-		{
-			currentXp = currentRun.getTotalXp();
-			currentTimeMs = currentRun.getDuration().toMillis();
-		}
-		
-		int totalXp = completedXp + currentXp;
-		long totalTimeMs = completedTimeMs + currentTimeMs;
-		
-		if (totalTimeMs == 0)
-		{
-			return 0;
-		}
-		
-		double hours = totalTimeMs / 3_600_000.0;
-		return totalXp / hours;
+		return snapshot.getXpPerHour(System.currentTimeMillis());
 	}
 	
 	public static String formatDuration(Duration duration)
@@ -864,29 +1086,6 @@ public class HallowedSepulchrePlugin extends Plugin
 		}
 		return String.format("%d:%02d", minutes, seconds);
 	}
-
-	private static long parseTimeMs(String timeStr)
-	{
-		if (timeStr == null)
-		{
-			return 0;
-		}
-		String[] parts = timeStr.trim().split(":");
-		if (parts.length != 2)
-		{
-			return 0;
-		}
-		try
-		{
-			long minutes = Long.parseLong(parts[0]);
-			long seconds = Long.parseLong(parts[1]);
-			return (minutes * 60 + seconds) * 1000;
-		}
-		catch (NumberFormatException e)
-		{
-			return 0;
-		}
-	}
 	
 	public static String formatNumber(int number)
 	{
@@ -900,10 +1099,10 @@ public class HallowedSepulchrePlugin extends Plugin
 		}
 		return String.valueOf(number);
 	}
-
+	
 	private void updatePluginTabVisibility()
 	{
-		if (hidePluginTabOutsideSepulchre && !isInAnySepulchreRegion() && currentRun == null)
+		if (hidePluginTabOutsideSepulchre && !inSepulchreArea && currentRun == null)
 		{
 			clientToolbar.removeNavigation(navButton);
 		}
@@ -1,12 +1,11 @@
 package com.hallowedsep;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Setter;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @Data
@@ -18,22 +17,24 @@ public class HallowedSepulchreSession
 	private long totalTimeMs;
 	
 	// Floor completion counts
-	private Map<Integer, Integer> floorCompletions = new HashMap<>();
+	private FloorCounts floorCompletions = new FloorCounts();
 	
 	// Chest loot counts per floor
-	private Map<Integer, Integer> chestsLootedPerFloor = new HashMap<>();
+	private FloorCounts chestsLootedPerFloor = new FloorCounts();
+	@Setter(AccessLevel.NONE)
+	private transient int totalChestsLooted;
 	
 	// Grand coffin loot count
 	private int grandCoffinLooted;
 	
-	// Best times per floor (in milliseconds)
-	private Map<Integer, Long> bestFloorTimes = new HashMap<>();
+	// Best times per floor (in milliseconds, 0 for none)
+	private FloorTimes bestFloorTimes = new FloorTimes();
 	
 	// Best full run time (in milliseconds)
 	private long bestRunTimeMs;
 	
-	// Recent runs for averaging (limited to last 50)
-	private List<RunSummary> recentRuns = new ArrayList<>();
+	// Recent runs for averaging, capacity set from the config
+	private RecentRunWindow recentRuns = new RecentRunWindow();
 	
 	// XP at session start for calculating session XP
 	private int sessionStartXp;
@@ -41,12 +42,27 @@ public class HallowedSepulchreSession
 	public HallowedSepulchreSession()
 	{
 		this.sessionStartTime = Instant.now();
-		for (int i = 1; i <= 5; i++)
-		{
-			floorCompletions.put(i, 0);
-			chestsLootedPerFloor.put(i, 0);
-			bestFloorTimes.put(i, Long.MAX_VALUE);
-		}
+	}
+	
+	/**
+	 * Detached copy for background serialization
+	 */
+	public HallowedSepulchreSession copy()
+	{
+		HallowedSepulchreSession copy = new HallowedSepulchreSession();
+		copy.sessionStartTime = sessionStartTime;
+		copy.totalRuns = totalRuns;
+		copy.totalXp = totalXp;
+		copy.totalTimeMs = totalTimeMs;
+		copy.floorCompletions = floorCompletions.copy();
+		copy.chestsLootedPerFloor = chestsLootedPerFloor.copy();
+		copy.totalChestsLooted = totalChestsLooted;
+		copy.grandCoffinLooted = grandCoffinLooted;
+		copy.bestFloorTimes = bestFloorTimes.copy();
+		copy.bestRunTimeMs = bestRunTimeMs;
+		copy.recentRuns = recentRuns.copy();
+		copy.sessionStartXp = sessionStartXp;
+		return copy;
 	}
 	
 	public void addRun(SepulchreRun run)
@@ -69,29 +85,17 @@ public class HallowedSepulchreSession
 			
 			if (floorData.isCompleted() && floorData.getDuration() != null)
 			{
-				long floorTime = floorData.getDuration().toMillis();
-				Long currentBest = bestFloorTimes.get(floor);
-				
-				if (currentBest == null || floorTime < currentBest)
-				{
-					bestFloorTimes.put(floor, floorTime);
-				}
+				bestFloorTimes.offer(floor, floorData.getDuration().toMillis());
 			}
 		}
 		
-		// Add to recent runs (keep last 50)
-		RunSummary summary = new RunSummary();
-		summary.setXp(run.getTotalXp());
-		summary.setDurationMs(run.getDuration().toMillis());
-		summary.setHighestFloor(run.getHighestFloor());
-		summary.setCompleted(run.isCompleted());
-		summary.setTimestamp(Instant.now().toEpochMilli());
-		
-		recentRuns.add(summary);
-		if (recentRuns.size() > 50)
-		{
-			recentRuns.remove(0);
-		}
+		recentRuns.add(run.getTotalXp(), run.getDuration().toMillis(), run.getHighestFloor(), run.isCompleted(),
+			Instant.now().toEpochMilli());
+	}
+	
+	public void setRecentRunCapacity(int capacity)
+	{
+		recentRuns.resize(capacity);
 	}
 	
 	public void addXp(int xp)
@@ -101,12 +105,22 @@ public class HallowedSepulchreSession
 	
 	public void incrementFloorCompletion(int floor)
 	{
-		floorCompletions.merge(floor, 1, Integer::sum);
+		floorCompletions.increment(floor);
 	}
 	
 	public void incrementChestsLooted(int floor)
 	{
-		chestsLootedPerFloor.merge(floor, 1, Integer::sum);
+		chestsLootedPerFloor.increment(floor);
+		if (floor >= 1 && floor <= FloorCounts.FLOORS)
+		{
+			totalChestsLooted++;
+		}
+	}
+	
+	public void setChestsLootedPerFloor(FloorCounts chestsLootedPerFloor)
+	{
+		this.chestsLootedPerFloor = chestsLootedPerFloor;
+		totalChestsLooted = chestsLootedPerFloor != null ? chestsLootedPerFloor.total() : 0;
 	}
 	
 	public void incrementGrandCoffinLooted()
@@ -116,23 +130,23 @@ public class HallowedSepulchreSession
 	
 	public int getFloorCompletions(int floor)
 	{
-		return floorCompletions.getOrDefault(floor, 0);
+		return floorCompletions.get(floor);
 	}
 	
 	public int getChestsLooted(int floor)
 	{
-		return chestsLootedPerFloor.getOrDefault(floor, 0);
+		return chestsLootedPerFloor.get(floor);
 	}
 	
 	public int getTotalChestsLooted()
 	{
-		return chestsLootedPerFloor.values().stream().mapToInt(Integer::intValue).sum();
+		return totalChestsLooted;
 	}
 	
 	public Duration getBestFloorTime(int floor)
 	{
-		Long timeMs = bestFloorTimes.get(floor);
-		if (timeMs == null || timeMs == Long.MAX_VALUE)
+		long timeMs = bestFloorTimes.get(floor);
+		if (timeMs == 0)
 		{
 			return null;
 		}
@@ -200,21 +214,17 @@ public class HallowedSepulchreSession
 	
 	public int getRecentAverageXp(int count)
 	{
-		if (recentRuns.isEmpty())
-		{
-			return 0;
-		}
-		
-		int limit = Math.min(count, recentRuns.size());
-		int startIndex = recentRuns.size() - limit;
-		
-		int sum = 0;
-		for (int i = startIndex; i < recentRuns.size(); i++)
-		{
-			sum += recentRuns.get(i).getXp();
-		}
-		
-		return sum / limit;
+		return (int) recentRuns.averageXp(count);
+	}
+	
+	public double getRecentAverageTimeMs(int count)
+	{
+		return recentRuns.averageDurationMs(count);
+	}
+	
+	public double getRecentCompletionRate(int count)
+	{
+		return recentRuns.completionRate(count);
 	}
 	
 	/**
@@ -224,37 +234,20 @@ public class HallowedSepulchreSession
 	{
 		if (floorCompletions == null)
 		{
-			floorCompletions = new HashMap<>();
+			floorCompletions = new FloorCounts();
 		}
 		if (chestsLootedPerFloor == null)
 		{
-			chestsLootedPerFloor = new HashMap<>();
+			chestsLootedPerFloor = new FloorCounts();
 		}
 		if (bestFloorTimes == null)
 		{
-			bestFloorTimes = new HashMap<>();
+			bestFloorTimes = new FloorTimes();
 		}
 		if (recentRuns == null)
 		{
-			recentRuns = new ArrayList<>();
+			recentRuns = new RecentRunWindow();
 		}
-		
-		// Ensure all floors have entries
-		for (int i = 1; i <= 5; i++)
-		{
-			floorCompletions.putIfAbsent(i, 0);
-			chestsLootedPerFloor.putIfAbsent(i, 0);
-			bestFloorTimes.putIfAbsent(i, Long.MAX_VALUE);
-		}
-	}
-	
-	@Data
-	public static class RunSummary
-	{
-		private int xp;
-		private long durationMs;
-		private int highestFloor;
-		private boolean completed;
-		private long timestamp;
+		totalChestsLooted = chestsLootedPerFloor.total();
 	}
 }
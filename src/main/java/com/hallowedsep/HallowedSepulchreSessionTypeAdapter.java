@@ -0,0 +1,161 @@
+package com.hallowedsep;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+public class HallowedSepulchreSessionTypeAdapter extends TypeAdapter<HallowedSepulchreSession>
+{
+	@Override
+	public void write(JsonWriter out, HallowedSepulchreSession session) throws IOException
+	{
+		if (session == null)
+		{
+			out.nullValue();
+			return;
+		}
+		
+		out.beginObject();
+		PersistenceJson.writeInstant(out, "sessionStartTime", session.getSessionStartTime());
+		out.name("totalRuns").value(session.getTotalRuns());
+		out.name("totalXp").value(session.getTotalXp());
+		out.name("totalTimeMs").value(session.getTotalTimeMs());
+		PersistenceJson.writeFloorInts(out, "floorCompletions", session::getFloorCompletions);
+		PersistenceJson.writeFloorInts(out, "chestsLootedPerFloor", session::getChestsLooted);
+		out.name("grandCoffinLooted").value(session.getGrandCoffinLooted());
+		PersistenceJson.writeFloorTimes(out, "bestFloorTimes", session.getBestFloorTimes());
+		out.name("bestRunTimeMs").value(session.getBestRunTimeMs());
+		out.name("sessionStartXp").value(session.getSessionStartXp());
+		
+		out.name("recentRuns").beginArray();
+		RecentRunWindow runs = session.getRecentRuns();
+		for (int i = 0; i < runs.size(); i++)
+		{
+			out.beginObject();
+			out.name("xp").value(runs.getXp(i));
+			out.name("durationMs").value(runs.getDurationMs(i));
+			out.name("highestFloor").value(runs.getHighestFloor(i));
+			out.name("completed").value(runs.isCompleted(i));
+			out.name("timestamp").value(runs.getTimestamp(i));
+			out.endObject();
+		}
+		out.endArray();
+		out.endObject();
+	}
+	
+	@Override
+	public HallowedSepulchreSession read(JsonReader in) throws IOException
+	{
+		if (in.peek() == JsonToken.NULL)
+		{
+			in.nextNull();
+			return null;
+		}
+		
+		HallowedSepulchreSession session = new HallowedSepulchreSession();
+		in.beginObject();
+		while (in.hasNext())
+		{
+			switch (in.nextName())
+			{
+				case "sessionStartTime":
+					session.setSessionStartTime(PersistenceJson.readInstant(in));
+					break;
+				case "totalRuns":
+					session.setTotalRuns(in.nextInt());
+					break;
+				case "totalXp":
+					session.setTotalXp(in.nextInt());
+					break;
+				case "totalTimeMs":
+					session.setTotalTimeMs(in.nextLong());
+					break;
+				case "floorCompletions":
+					session.setFloorCompletions(PersistenceJson.readFloorInts(in));
+					break;
+				case "chestsLootedPerFloor":
+					session.setChestsLootedPerFloor(PersistenceJson.readFloorInts(in));
+					break;
+				case "grandCoffinLooted":
+					session.setGrandCoffinLooted(in.nextInt());
+					break;
+				case "bestFloorTimes":
+					session.setBestFloorTimes(PersistenceJson.readFloorTimes(in));
+					break;
+				case "bestRunTimeMs":
+					session.setBestRunTimeMs(in.nextLong());
+					break;
+				case "sessionStartXp":
+					session.setSessionStartXp(in.nextInt());
+					break;
+				case "recentRuns":
+					readRecentRuns(in, session.getRecentRuns());
+					break;
+				default:
+					in.skipValue();
+					break;
+			}
+		}
+		in.endObject();
+		return session;
+	}
+	
+	/**
+	 * The window grows to hold every saved run; the plugin then trims it to the configured capacity.
+	 */
+	private static void readRecentRuns(JsonReader in, RecentRunWindow runs) throws IOException
+	{
+		if (in.peek() != JsonToken.BEGIN_ARRAY)
+		{
+			in.skipValue();
+			return;
+		}
+		
+		in.beginArray();
+		while (in.hasNext())
+		{
+			int xp = 0;
+			long durationMs = 0;
+			int highestFloor = 0;
+			boolean completed = false;
+			long timestamp = 0;
+			
+			in.beginObject();
+			while (in.hasNext())
+			{
+				switch (in.nextName())
+				{
+					case "xp":
+						xp = in.nextInt();
+						break;
+					case "durationMs":
+						durationMs = in.nextLong();
+						break;
+					case "highestFloor":
+						highestFloor = in.nextInt();
+						break;
+					case "completed":
+						completed = in.nextBoolean();
+						break;
+					case "timestamp":
+						timestamp = in.nextLong();
+						break;
+					default:
+						in.skipValue();
+						break;
+				}
+			}
+			in.endObject();
+			
+			if (runs.size() == runs.capacity())
+			{
+				runs.resize(runs.capacity() * 2);
+			}
+			runs.add(xp, durationMs, highestFloor, completed, timestamp);
+		}
+		in.endArray();
+	}
+}
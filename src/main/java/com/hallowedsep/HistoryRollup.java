@@ -0,0 +1,49 @@
+package com.hallowedsep;
+
+import lombok.Data;
+
+/**
+ * Counters of the tracked days in one week (starting Monday) or calendar month, rolled up out
+ * of the daily history once they are older than the retention window.
+ */
+@Data
+public class HistoryRollup
+{
+	private String start; // YYYY-MM-DD, first day of the week or month
+	private int days; // days tracked that were folded in
+	private DailyStats totals;
+	
+	public HistoryRollup()
+	{
+	}
+	
+	public HistoryRollup(String start)
+	{
+		this.start = start;
+		this.totals = new DailyStats(start);
+	}
+	
+	/**
+	 * Detached copy for background serialization
+	 */
+	public HistoryRollup copy()
+	{
+		HistoryRollup copy = new HistoryRollup();
+		copy.start = start;
+		copy.days = days;
+		copy.totals = totals.copy();
+		return copy;
+	}
+	
+	public void add(DailyStats day)
+	{
+		days++;
+		totals.add(day);
+	}
+	
+	public void add(HistoryRollup other)
+	{
+		days += other.days;
+		totals.add(other.totals);
+	}
+}
@@ -0,0 +1,99 @@
+package com.hallowedsep;
+
+import lombok.Data;
+
+/**
+ * One line of the stats journal: a change to PersistentStats that happened after the last snapshot.
+ */
+@Data
+public class JournalEntry
+{
+	public enum Kind
+	{
+		RUN,
+		FLOOR_COMPLETIONS,
+		PERSONAL_BEST
+	}
+	
+	// Strictly increasing; entries at or below the snapshot's sequence are already folded in
+	private long seq;
+	private Kind kind;
+	
+	// RUN
+	private String date;
+	private SepulchreRun run;
+	
+	// FLOOR_COMPLETIONS / PERSONAL_BEST
+	private int floor;
+	private long value;
+	
+	public static JournalEntry run(long seq, String date, SepulchreRun run)
+	{
+		JournalEntry entry = new JournalEntry();
+		entry.seq = seq;
+		entry.kind = Kind.RUN;
+		entry.date = date;
+		entry.run = run;
+		return entry;
+	}
+	
+	public static JournalEntry floorCompletions(long seq, int floor, int totalCompletions)
+	{
+		JournalEntry entry = new JournalEntry();
+		entry.seq = seq;
+		entry.kind = Kind.FLOOR_COMPLETIONS;
+		entry.floor = floor;
+		entry.value = totalCompletions;
+		return entry;
+	}
+	
+	public static JournalEntry personalBest(long seq, int floor, long timeMs)
+	{
+		JournalEntry entry = new JournalEntry();
+		entry.seq = seq;
+		entry.kind = Kind.PERSONAL_BEST;
+		entry.floor = floor;
+		entry.value = timeMs;
+		return entry;
+	}
+	
+	/**
+	 * @param dayRecorded whether the day this run counts towards already includes it
+	 */
+	public void applyTo(PersistentStats stats, boolean dayRecorded)
+	{
+		if (kind == Kind.RUN && dayRecorded)
+		{
+			if (run != null)
+			{
+				stats.recordRunTotals(run);
+			}
+			return;
+		}
+		applyTo(stats);
+	}
+	
+	public void applyTo(PersistentStats stats)
+	{
+		if (kind == null)
+		{
+			return;
+		}
+		
+		switch (kind)
+		{
+			case RUN:
+				if (run != null && date != null)
+				{
+					stats.recordRun(run, date);
+				}
+				break;
+			case FLOOR_COMPLETIONS:
+				stats.setFloorCompletionsFromGame(floor, (int) value);
+				break;
+			case PERSONAL_BEST:
+				stats.setPersonalBestFromGame(floor, value);
+				break;
+		}
+	}
+}
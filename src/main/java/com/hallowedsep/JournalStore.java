@@ -0,0 +1,529 @@
+package com.hallowedsep;
+
+import com.google.gson.Gson;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.RuneLite;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * File storage for PersistentStats in the RuneLite user directory.
+ * Every change is appended to a journal as one small JSON line, so a save costs O(run)
+ * instead of O(history). A snapshot is written periodically and compaction then drops the
+ * journal lines it already contains.
+ * <p>
+ * The snapshot is sharded so neither saving nor startup depends on how long someone has tracked:
+ * a summary (totals, PBs, today's row and the number of days) that is loaded eagerly, and one
+ * history file per month that is loaded in the background. A snapshot rewrites the summary and
+ * only the months that changed, normally just the current one.
+ * <p>
+ * A shard or journal line that cannot be read is set aside rather than failing the load: the
+ * shard is renamed to {@code .corrupt} and the journal is copied there before the line is dropped.
+ * An unreadable summary fails the load, and the caller must not write over it.
+ */
+@Slf4j
+class JournalStore
+{
+	static final File DIRECTORY = new File(RuneLite.RUNELITE_DIR, "hallowed-sepulchre");
+	
+	private static final String SUMMARY_FILE = "summary.json";
+	private static final String HISTORY_DIRECTORY = "history";
+	// Snapshots written by earlier versions, one file or summary + one history file; read once, then sharded
+	private static final String LEGACY_SNAPSHOT_FILE = "stats.json";
+	private static final String LEGACY_HISTORY_FILE = "history.json";
+	private static final String JOURNAL_FILE = "stats.journal";
+	private static final String RUN_CHECKPOINT_FILE = "run-checkpoint.json";
+	private static final String CLAIMED_CHECKPOINT_FILE = "run-checkpoint.recovering.json";
+	private static final String CORRUPT_SUFFIX = ".corrupt";
+	
+	private final Path summaryPath;
+	private final Path historyDirectory;
+	private final Path legacySnapshotPath;
+	private final Path legacyHistoryPath;
+	private final Path journalPath;
+	private final Path runCheckpointPath;
+	private final Path claimedCheckpointPath;
+	private final Gson gson;
+	
+	// Highest sequence number found on load
+	private long lastSeq;
+	
+	JournalStore(File directory, Gson gson)
+	{
+		this.summaryPath = directory.toPath().resolve(SUMMARY_FILE);
+		this.historyDirectory = directory.toPath().resolve(HISTORY_DIRECTORY);
+		this.legacySnapshotPath = directory.toPath().resolve(LEGACY_SNAPSHOT_FILE);
+		this.legacyHistoryPath = directory.toPath().resolve(LEGACY_HISTORY_FILE);
+		this.journalPath = directory.toPath().resolve(JOURNAL_FILE);
+		this.runCheckpointPath = directory.toPath().resolve(RUN_CHECKPOINT_FILE);
+		this.claimedCheckpointPath = directory.toPath().resolve(CLAIMED_CHECKPOINT_FILE);
+		this.gson = gson;
+	}
+	
+	boolean exists()
+	{
+		return Files.exists(summaryPath) || Files.exists(legacySnapshotPath) || Files.exists(journalPath);
+	}
+	
+	long getLastSeq()
+	{
+		return lastSeq;
+	}
+	
+	/**
+	 * Read the summary and replay the journal entries written after it. The history stays on
+	 * disk ({@link PersistentStats#isHistoryLoaded()} is false) unless the journal means it is
+	 * needed now. Stats read from a legacy layout are marked for a full history rewrite.
+	 */
+	synchronized PersistentStats load() throws IOException
+	{
+		List<JournalEntry> journal = readJournal();
+		Snapshot summary = read(summaryPath);
+		
+		PersistentStats stats;
+		long snapshotSeq;
+		// Months whose shard is newer than the summary, with the journal entry it includes up to
+		Map<String, Long> newerMonths = new HashMap<>();
+		if (summary == null || Files.exists(legacyHistoryPath))
+		{
+			Snapshot legacy = readLegacy(summary);
+			snapshotSeq = legacy != null ? legacy.seq : 0;
+			stats = legacy != null ? legacy.stats : new PersistentStats();
+			stats.initializeAfterLoad();
+			if (legacy != null)
+			{
+				stats.markHistoryRewrite();
+			}
+		}
+		else
+		{
+			snapshotSeq = summary.seq;
+			stats = summary.stats;
+			stats.initializeAfterLoad();
+			
+			List<Path> shards = listShards();
+			if (!shards.isEmpty())
+			{
+				stats.setHistoryPending(summary.daysTracked - stats.getDaysTracked());
+			}
+			if (!shards.isEmpty() && hasEntriesAfter(journal, snapshotSeq))
+			{
+				// Replaying runs needs their days, so finish loading first
+				List<DailyStats> days = new ArrayList<>();
+				for (Path path : shards)
+				{
+					Snapshot shard = readShard(path);
+					if (shard == null)
+					{
+						continue;
+					}
+					
+					String month = monthOf(path);
+					if (shard.seq > snapshotSeq)
+					{
+						// Crashed between the shard and summary writes: the shard's rows are the newer ones
+						newerMonths.put(month, shard.seq);
+						stats.getDailyHistory().removeIf(day -> PersistentStats.monthOf(day.getDate()).equals(month));
+					}
+					days.addAll(shard.stats.getDailyHistory().values());
+				}
+				stats.mergeHistory(days);
+			}
+		}
+		lastSeq = snapshotSeq;
+		
+		int replayed = 0;
+		for (JournalEntry entry : journal)
+		{
+			if (entry.getSeq() > snapshotSeq)
+			{
+				Long monthSeq = entry.getDate() != null ? newerMonths.get(PersistentStats.monthOf(entry.getDate())) : null;
+				entry.applyTo(stats, monthSeq != null && entry.getSeq() <= monthSeq);
+				replayed++;
+			}
+			lastSeq = Math.max(lastSeq, entry.getSeq());
+		}
+		log.debug("Loaded stats snapshot at {} and replayed {} journal entries", snapshotSeq, replayed);
+		return stats;
+	}
+	
+	/**
+	 * Read every day from the history shards, oldest month first.
+	 */
+	synchronized List<DailyStats> loadHistory() throws IOException
+	{
+		List<DailyStats> days = new ArrayList<>();
+		for (Path path : listShards())
+		{
+			Snapshot shard = readShard(path);
+			if (shard != null)
+			{
+				days.addAll(shard.stats.getDailyHistory().values());
+			}
+		}
+		return days;
+	}
+	
+	private Snapshot readLegacy(Snapshot summary) throws IOException
+	{
+		if (summary == null)
+		{
+			return read(legacySnapshotPath);
+		}
+		
+		Snapshot history = read(legacyHistoryPath);
+		if (history != null && history.seq > summary.seq)
+		{
+			return history;
+		}
+		if (history != null)
+		{
+			summary.stats.initializeAfterLoad();
+			summary.stats.mergeHistory(history.stats.getDailyHistory().values());
+		}
+		return summary;
+	}
+	
+	synchronized void append(JournalEntry entry) throws IOException
+	{
+		Files.createDirectories(journalPath.getParent());
+		try (BufferedWriter writer = Files.newBufferedWriter(journalPath, StandardCharsets.UTF_8,
+			StandardOpenOption.CREATE, StandardOpenOption.APPEND))
+		{
+			gson.toJson(entry, writer);
+			writer.newLine();
+		}
+	}
+	
+	/**
+	 * Replace the snapshot and compact the journal down to the entries newer than {@code seq}.
+	 *
+	 * @param stats a copy that is not mutated while this runs
+	 * @param seq the last journal entry already applied to {@code stats}
+	 */
+	synchronized void writeSnapshot(PersistentStats stats, long seq) throws IOException
+	{
+		Files.createDirectories(historyDirectory);
+		
+		// Normally the copy holds just the changed months; only a full rewrite walks every row
+		Set<String> changed = stats.getDirtyMonths();
+		if (stats.isHistoryLoaded() && stats.isHistoryRewrite())
+		{
+			changed = new HashSet<>();
+			for (DailyStats day : stats.getDailyHistory().values())
+			{
+				changed.add(PersistentStats.monthOf(day.getDate()));
+			}
+			for (Path path : listShards())
+			{
+				if (!changed.contains(monthOf(path)))
+				{
+					Files.delete(path);
+				}
+			}
+		}
+		
+		// Shards first: if the summary write is lost, load() sees the newer shards and uses their rows
+		for (String month : changed)
+		{
+			Path path = shardPath(month);
+			DailyHistory days = null;
+			if (!stats.isHistoryLoaded())
+			{
+				// Older days of this month are only on disk; keep them, the rows in memory are newer
+				Snapshot existing = readShard(path);
+				days = existing != null ? existing.stats.getDailyHistory() : null;
+			}
+			if (days == null)
+			{
+				days = new DailyHistory();
+			}
+			for (DailyStats day : stats.getMonthDays(month))
+			{
+				days.put(day);
+			}
+			
+			if (days.isEmpty())
+			{
+				Files.deleteIfExists(path);
+				continue;
+			}
+			PersistentStats shard = new PersistentStats();
+			shard.setDailyHistory(days);
+			write(path, seq, days.size(), shard);
+		}
+		
+		write(summaryPath, seq, stats.getDaysTracked(), stats.summaryCopy());
+		Files.deleteIfExists(legacySnapshotPath);
+		Files.deleteIfExists(legacyHistoryPath);
+		
+		compact(seq);
+	}
+	
+	private void write(Path path, long seq, int daysTracked, PersistentStats stats) throws IOException
+	{
+		Snapshot snapshot = new Snapshot();
+		snapshot.seq = seq;
+		snapshot.daysTracked = daysTracked;
+		snapshot.stats = stats;
+		
+		Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8))
+		{
+			gson.toJson(snapshot, writer);
+		}
+		replace(tmp, path);
+	}
+	
+	private Snapshot read(Path path) throws IOException
+	{
+		if (!Files.exists(path))
+		{
+			return null;
+		}
+		
+		try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8))
+		{
+			Snapshot snapshot = gson.fromJson(reader, Snapshot.class);
+			return snapshot != null && snapshot.stats != null ? snapshot : null;
+		}
+	}
+	
+	/**
+	 * Read a month shard, setting it aside if it cannot be parsed so the other months still load.
+	 */
+	private Snapshot readShard(Path path) throws IOException
+	{
+		try
+		{
+			return read(path);
+		}
+		catch (RuntimeException e)
+		{
+			log.warn("History shard {} is unreadable, moved it to {}", path, quarantine(path), e);
+			return null;
+		}
+	}
+	
+	private static Path quarantine(Path path) throws IOException
+	{
+		Path target = corruptPath(path);
+		Files.move(path, target);
+		return target;
+	}
+	
+	/**
+	 * @return a {@code .corrupt} name for a copy of {@code path} that does not replace an earlier one
+	 */
+	private static Path corruptPath(Path path)
+	{
+		Path target = path.resolveSibling(path.getFileName() + CORRUPT_SUFFIX);
+		for (int n = 1; Files.exists(target); n++)
+		{
+			target = path.resolveSibling(path.getFileName() + CORRUPT_SUFFIX + "." + n);
+		}
+		return target;
+	}
+	
+	private Path shardPath(String month)
+	{
+		return historyDirectory.resolve(month + ".json");
+	}
+	
+	private static String monthOf(Path shard)
+	{
+		String name = shard.getFileName().toString();
+		return name.substring(0, name.length() - ".json".length());
+	}
+	
+	/**
+	 * @return the month shards, oldest first
+	 */
+	private List<Path> listShards() throws IOException
+	{
+		List<Path> shards = new ArrayList<>();
+		if (!Files.isDirectory(historyDirectory))
+		{
+			return shards;
+		}
+		
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(historyDirectory, "*.json"))
+		{
+			for (Path path : stream)
+			{
+				shards.add(path);
+			}
+		}
+		// YYYY-MM names sort chronologically
+		shards.sort(Comparator.comparing(path -> path.getFileName().toString()));
+		return shards;
+	}
+	
+	private static boolean hasEntriesAfter(List<JournalEntry> journal, long seq)
+	{
+		for (JournalEntry entry : journal)
+		{
+			if (entry.getSeq() > seq)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Replace the run checkpoint. Checkpoints are independent of the snapshot and journal.
+	 */
+	synchronized void writeRunCheckpoint(String json) throws IOException
+	{
+		Files.createDirectories(runCheckpointPath.getParent());
+		Path tmp = runCheckpointPath.resolveSibling(RUN_CHECKPOINT_FILE + ".tmp");
+		Files.write(tmp, json.getBytes(StandardCharsets.UTF_8));
+		replace(tmp, runCheckpointPath);
+	}
+	
+	/**
+	 * Move the run checkpoint aside for recovery, so the next run's checkpoint cannot replace it
+	 * before the recovered run is persisted. A checkpoint claimed earlier but never recovered is
+	 * returned first.
+	 *
+	 * @return the claimed checkpoint JSON, or null if there is none
+	 */
+	synchronized String claimRunCheckpoint() throws IOException
+	{
+		if (!Files.exists(claimedCheckpointPath))
+		{
+			if (!Files.exists(runCheckpointPath))
+			{
+				return null;
+			}
+			replace(runCheckpointPath, claimedCheckpointPath);
+		}
+		return new String(Files.readAllBytes(claimedCheckpointPath), StandardCharsets.UTF_8);
+	}
+	
+	synchronized void deleteRunCheckpoint() throws IOException
+	{
+		Files.deleteIfExists(runCheckpointPath);
+	}
+	
+	synchronized void deleteClaimedRunCheckpoint() throws IOException
+	{
+		Files.deleteIfExists(claimedCheckpointPath);
+	}
+	
+	private void compact(long snapshotSeq) throws IOException
+	{
+		if (!Files.exists(journalPath))
+		{
+			return;
+		}
+		
+		List<JournalEntry> remaining = new ArrayList<>();
+		for (JournalEntry entry : readJournal())
+		{
+			if (entry.getSeq() > snapshotSeq)
+			{
+				remaining.add(entry);
+			}
+		}
+		
+		if (remaining.isEmpty())
+		{
+			Files.delete(journalPath);
+			return;
+		}
+		
+		Path tmp = journalPath.resolveSibling(JOURNAL_FILE + ".tmp");
+		try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8))
+		{
+			for (JournalEntry entry : remaining)
+			{
+				gson.toJson(entry, writer);
+				writer.newLine();
+			}
+		}
+		replace(tmp, journalPath);
+	}
+	
+	private List<JournalEntry> readJournal() throws IOException
+	{
+		List<JournalEntry> entries = new ArrayList<>();
+		if (!Files.exists(journalPath))
+		{
+			return entries;
+		}
+		
+		Path preserved = null;
+		try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				if (line.isEmpty())
+				{
+					continue;
+				}
+				
+				try
+				{
+					JournalEntry entry = gson.fromJson(line, JournalEntry.class);
+					if (entry != null)
+					{
+						entries.add(entry);
+					}
+				}
+				catch (RuntimeException e)
+				{
+					// A crash mid-append leaves a torn last line. Keep the original for anything
+					// else, since the next compaction drops the line.
+					if (preserved == null)
+					{
+						preserved = corruptPath(journalPath);
+						Files.copy(journalPath, preserved);
+					}
+					log.warn("Skipping unreadable journal line, the journal was copied to {}", preserved);
+				}
+			}
+		}
+		return entries;
+	}
+	
+	private static void replace(Path source, Path target) throws IOException
+	{
+		try
+		{
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e)
+		{
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+	
+	// Both the summary and the month shards; a shard's stats hold only that month's days
+	private static class Snapshot
+	{
+		private long seq;
+		private int daysTracked;
+		private PersistentStats stats;
+	}
+}
@@ -0,0 +1,305 @@
+package com.hallowedsep;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Immutable copy of everything the overlay, info box and panel display.
+ * The plugin builds one on the client thread after each change and publishes it through a
+ * volatile field, so readers on the render thread and the EDT never touch the mutable models.
+ * Time-dependent values (live floor/run timers, XP/hr) are derived from the captured timestamps.
+ */
+@Getter
+public final class LiveStatsSnapshot
+{
+	static final LiveStatsSnapshot EMPTY = new LiveStatsSnapshot(-1, null, 0, null, null, null, 1, 0, 0, 0, 0, 0);
+	
+	private final int version;
+	
+	// Current run
+	private final boolean runActive;
+	private final boolean runIdle;
+	private final int currentFloor;
+	private final long floorStartMs;
+	private final long runStartMs;
+	private final long runPausedMs;
+	private final long runPausedAtMs;
+	private final int runXp;
+	private final int runChestsLooted;
+	private final boolean runLootedGrandCoffin;
+	private final int runFloorsCompleted;
+	@Getter(AccessLevel.NONE)
+	private final long[] runSplitMs = new long[6];
+	@Getter(AccessLevel.NONE)
+	private final boolean[] runSplitFromGame = new boolean[6];
+	
+	// Session
+	private final int sessionRuns;
+	private final int sessionXp;
+	private final long sessionTimeMs;
+	
+	// Drops in the live XP/hr window, or null for the session average
+	@Getter(AccessLevel.NONE)
+	private final XpRateEngine.Drops rateDrops;
+	
+	// All time
+	private final int allTimeRuns;
+	private final int allTimeXp;
+	private final long allTimeMs;
+	private final int daysTracked;
+	private final double averageRunsPerDay;
+	@Getter(AccessLevel.NONE)
+	private final int[] floorCompletions = new int[6];
+	@Getter(AccessLevel.NONE)
+	private final long[] bestFloorTimeMs = new long[6];
+	@Getter(AccessLevel.NONE)
+	private final long[] bestRunTimeForFloorsMs = new long[6];
+	
+	// Today
+	private final String todayDate;
+	private final int todayRuns;
+	private final int todayXp;
+	private final long todayTimeMs;
+	
+	// Range totals ending today; fresh objects owned by this snapshot
+	private final DailyStats last7Days;
+	private final DailyStats last30Days;
+	private final DailyStats thisMonth;
+	
+	// Agility progress
+	private final int agilityLevel;
+	private final int nextLevel;
+	private final int runsToNextLevel;
+	private final int xpTo92;
+	private final int runsTo92;
+	private final int xpTo99;
+	private final int runsTo99;
+	
+	// Copies of the days with runs, oldest first; shared between snapshots but never modified
+	@Getter(AccessLevel.NONE)
+	private final DailyStats[] historyDays;
+	
+	LiveStatsSnapshot(int version, SepulchreRun run, int currentFloor, Instant floorStartTime,
+		HallowedSepulchreSession session, PersistentStats stats,
+		int agilityLevel, int runsToNextLevel, int xpTo92, int runsTo92, int xpTo99, int runsTo99)
+	{
+		this(version, run, currentFloor, floorStartTime, session, stats, null, XpRateWindow.SESSION,
+			agilityLevel, runsToNextLevel, xpTo92, runsTo92, xpTo99, runsTo99);
+	}
+	
+	LiveStatsSnapshot(int version, SepulchreRun run, int currentFloor, Instant floorStartTime,
+		HallowedSepulchreSession session, PersistentStats stats, XpRateEngine rates, XpRateWindow rateWindow,
+		int agilityLevel, int runsToNextLevel, int xpTo92, int runsTo92, int xpTo99, int runsTo99)
+	{
+		this.version = version;
+		this.currentFloor = currentFloor;
+		this.floorStartMs = floorStartTime != null ? floorStartTime.toEpochMilli() : 0;
+		
+		runActive = run != null;
+		if (run != null)
+		{
+			runIdle = run.isPaused();
+			runStartMs = run.getStartTime() != null ? run.getStartTime().toEpochMilli() : 0;
+			runPausedMs = run.getPausedDurationMs();
+			runPausedAtMs = run.getPausedAt() != null ? run.getPausedAt().toEpochMilli() : 0;
+			runXp = run.getTotalXp();
+			runChestsLooted = run.getTotalChestsLooted();
+			runLootedGrandCoffin = run.isLootedGrandCoffin();
+			runFloorsCompleted = run.getFloorsCompleted();
+			for (int floor = 1; floor <= 5; floor++)
+			{
+				SepulchreRun.FloorData data = run.getFloorData().get(floor);
+				if (data != null && data.getDuration() != null)
+				{
+					runSplitMs[floor] = data.getDuration().toMillis();
+					runSplitFromGame[floor] = data.isTimeFromGame();
+				}
+			}
+		}
+		else
+		{
+			runIdle = false;
+			runStartMs = 0;
+			runPausedMs = 0;
+			runPausedAtMs = 0;
+			runXp = 0;
+			runChestsLooted = 0;
+			runLootedGrandCoffin = false;
+			runFloorsCompleted = 0;
+		}
+		
+		sessionRuns = session != null ? session.getTotalRuns() : 0;
+		sessionXp = session != null ? session.getTotalXp() : 0;
+		sessionTimeMs = session != null ? session.getTotalTimeMs() : 0;
+		
+		rateDrops = rates != null && rateWindow != XpRateWindow.SESSION ? rates.capture(rateWindow) : null;
+		
+		if (stats != null)
+		{
+			allTimeRuns = stats.getAllTimeRuns();
+			allTimeXp = stats.getAllTimeXp();
+			allTimeMs = stats.getAllTimeMs();
+			daysTracked = stats.getDaysTracked();
+			averageRunsPerDay = stats.getAverageRunsPerDay();
+			for (int floor = 1; floor <= 5; floor++)
+			{
+				floorCompletions[floor] = stats.getFloorCompletions(floor);
+				bestFloorTimeMs[floor] = stats.getBestFloorTimeMs(floor);
+				bestRunTimeForFloorsMs[floor] = stats.getBestRunTimeForFloorsMs(floor);
+			}
+			
+			DailyStats today = stats.getToday();
+			todayDate = today.getDate();
+			todayRuns = today.getRuns();
+			todayXp = today.getTotalXp();
+			todayTimeMs = today.getTotalTimeMs();
+			
+			LocalDate date = LocalDate.parse(todayDate);
+			last7Days = stats.getTotals(date.minusDays(6), date);
+			last30Days = stats.getTotals(date.minusDays(29), date);
+			thisMonth = stats.getTotals(date.withDayOfMonth(1), date);
+		}
+		else
+		{
+			allTimeRuns = 0;
+			allTimeXp = 0;
+			allTimeMs = 0;
+			daysTracked = 0;
+			averageRunsPerDay = 0;
+			todayDate = null;
+			todayRuns = 0;
+			todayXp = 0;
+			todayTimeMs = 0;
+			last7Days = new DailyStats(null);
+			last30Days = new DailyStats(null);
+			thisMonth = new DailyStats(null);
+		}
+		
+		historyDays = stats != null ? stats.getActiveDays() : new DailyStats[0];
+		
+		this.agilityLevel = agilityLevel;
+		this.nextLevel = Math.min(agilityLevel + 1, 99);
+		this.runsToNextLevel = runsToNextLevel;
+		this.xpTo92 = xpTo92;
+		this.runsTo92 = runsTo92;
+		this.xpTo99 = xpTo99;
+		this.runsTo99 = runsTo99;
+	}
+	
+	public int getHistoryDayCount()
+	{
+		return historyDays.length;
+	}
+	
+	/**
+	 * @param index 0 for the most recent day with runs
+	 */
+	public DailyStats getHistoryDayFromNewest(int index)
+	{
+		return historyDays[historyDays.length - 1 - index];
+	}
+	
+	/**
+	 * @return whether both snapshots hold the same history rows
+	 */
+	boolean hasSameHistory(LiveStatsSnapshot other)
+	{
+		return other != null && other.historyDays == historyDays;
+	}
+	
+	public long getRunSplitMs(int floor)
+	{
+		return runSplitMs[floor];
+	}
+	
+	public boolean isRunSplitFromGame(int floor)
+	{
+		return runSplitFromGame[floor];
+	}
+	
+	public int getFloorCompletions(int floor)
+	{
+		return floorCompletions[floor];
+	}
+	
+	public long getBestFloorTimeMs(int floor)
+	{
+		return bestFloorTimeMs[floor];
+	}
+	
+	public long getBestRunTimeForFloorsMs(int floors)
+	{
+		return bestRunTimeForFloorsMs[floors];
+	}
+	
+	/**
+	 * Active (unpaused) duration of the current run at the given wall-clock time.
+	 */
+	public long getRunDurationMs(long nowMs)
+	{
+		if (!runActive || runStartMs == 0)
+		{
+			return 0;
+		}
+		
+		long pausedMs = runPausedMs;
+		if (runPausedAtMs != 0)
+		{
+			pausedMs += nowMs - runPausedAtMs;
+		}
+		return Math.max(0, nowMs - runStartMs - pausedMs);
+	}
+	
+	/**
+	 * Time spent on the floor currently being run, or 0 when idle between floors.
+	 */
+	public long getLiveFloorMs(long nowMs)
+	{
+		if (runIdle || floorStartMs == 0)
+		{
+			return 0;
+		}
+		return Math.max(0, nowMs - floorStartMs);
+	}
+	
+	/**
+	 * Live XP/hr over the configured window of active time, or the session average including the
+	 * current run. Drops leave the window as the run's active time moves on, and the window stands
+	 * still while the run is paused.
+	 */
+	public double getXpPerHour(long nowMs)
+	{
+		long totalTimeMs = sessionTimeMs + getRunDurationMs(nowMs);
+		if (rateDrops != null)
+		{
+			return rateDrops.getXpPerHour(totalTimeMs);
+		}
+		
+		if (totalTimeMs == 0)
+		{
+			return 0;
+		}
+		
+		double hours = totalTimeMs / 3_600_000.0;
+		return (sessionXp + runXp) / hours;
+	}
+	
+	public double getAllTimeHours()
+	{
+		return allTimeMs / 3_600_000.0;
+	}
+	
+	public double getAllTimeXpPerHour()
+	{
+		if (allTimeMs == 0) return 0;
+		return allTimeXp / (allTimeMs / 3_600_000.0);
+	}
+	
+	public double getTodayHours()
+	{
+		return todayTimeMs / 3_600_000.0;
+	}
+}
@@ -0,0 +1,152 @@
+package com.hallowedsep;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Helpers shared by the streaming type adapters.
+ * Per-floor values are written as a five element array indexed by floor - 1. The reflective
+ * layout they replace, an object keyed by floor number, is still accepted when reading.
+ */
+final class PersistenceJson
+{
+	static final int FLOORS = FloorCounts.FLOORS;
+	
+	private PersistenceJson()
+	{
+	}
+	
+	static void writeFloorInts(JsonWriter out, String name, IntUnaryOperator valueForFloor) throws IOException
+	{
+		out.name(name).beginArray();
+		for (int floor = 1; floor <= FLOORS; floor++)
+		{
+			out.value(valueForFloor.applyAsInt(floor));
+		}
+		out.endArray();
+	}
+	
+	static FloorCounts readFloorInts(JsonReader in) throws IOException
+	{
+		FloorCounts values = new FloorCounts();
+		if (in.peek() == JsonToken.BEGIN_ARRAY)
+		{
+			in.beginArray();
+			for (int floor = 1; in.hasNext(); floor++)
+			{
+				values.set(floor, in.nextInt());
+			}
+			in.endArray();
+		}
+		else if (in.peek() == JsonToken.BEGIN_OBJECT)
+		{
+			in.beginObject();
+			while (in.hasNext())
+			{
+				values.set(Integer.parseInt(in.nextName()), in.nextInt());
+			}
+			in.endObject();
+		}
+		else
+		{
+			in.skipValue();
+		}
+		return values;
+	}
+	
+	/**
+	 * Best times are written as 0 for "none", as in {@link FloorTimes}. The reflective layout
+	 * used Long.MAX_VALUE instead.
+	 */
+	static void writeFloorTimes(JsonWriter out, String name, FloorTimes times) throws IOException
+	{
+		out.name(name).beginArray();
+		for (int floor = 1; floor <= FLOORS; floor++)
+		{
+			out.value(times.get(floor));
+		}
+		out.endArray();
+	}
+	
+	static FloorTimes readFloorTimes(JsonReader in) throws IOException
+	{
+		FloorTimes into = new FloorTimes();
+		if (in.peek() == JsonToken.BEGIN_ARRAY)
+		{
+			in.beginArray();
+			for (int floor = 1; in.hasNext(); floor++)
+			{
+				into.set(floor, in.nextLong());
+			}
+			in.endArray();
+		}
+		else if (in.peek() == JsonToken.BEGIN_OBJECT)
+		{
+			in.beginObject();
+			while (in.hasNext())
+			{
+				int floor = Integer.parseInt(in.nextName());
+				long time = in.nextLong();
+				into.set(floor, time == Long.MAX_VALUE ? 0 : time);
+			}
+			in.endObject();
+		}
+		else
+		{
+			in.skipValue();
+		}
+		return into;
+	}
+	
+	static void writeInstant(JsonWriter out, String name, Instant instant) throws IOException
+	{
+		if (instant != null)
+		{
+			out.name(name).value(instant.toEpochMilli());
+		}
+	}
+	
+	static Instant readInstant(JsonReader in) throws IOException
+	{
+		if (in.peek() == JsonToken.NULL)
+		{
+			in.nextNull();
+			return null;
+		}
+		return Instant.ofEpochMilli(in.nextLong());
+	}
+	
+	static void writeDuration(JsonWriter out, String name, Duration duration) throws IOException
+	{
+		if (duration != null)
+		{
+			out.name(name).value(duration.toMillis());
+		}
+	}
+	
+	static Duration readDuration(JsonReader in) throws IOException
+	{
+		if (in.peek() == JsonToken.NULL)
+		{
+			in.nextNull();
+			return null;
+		}
+		return Duration.ofMillis(in.nextLong());
+	}
+	
+	static String readString(JsonReader in) throws IOException
+	{
+		if (in.peek() == JsonToken.NULL)
+		{
+			in.nextNull();
+			return null;
+		}
+		return in.nextString();
+	}
+}
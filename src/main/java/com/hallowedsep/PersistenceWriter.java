@@ -0,0 +1,569 @@
+package com.hallowedsep;
+
+import com.google.gson.Gson;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.config.ConfigManager;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Saves session and persistent stats without blocking the client thread.
+ * Changes to persistent stats are appended to the {@link JournalStore} journal in the background.
+ * Everything else only marks a model dirty: at most once per save interval the dirty models are
+ * copied on the client thread and the copies are serialized and written on the executor, the
+ * session to the config and persistent stats as a journal snapshot of the shards that changed.
+ */
+@Slf4j
+@Singleton
+class PersistenceWriter
+{
+	private static final String CONFIG_GROUP = "hallowedsep";
+	
+	// Journal entries appended before the next snapshot is taken
+	private static final int SNAPSHOT_AFTER_ENTRIES = 50;
+	
+	private final HallowedSepulchrePlugin plugin;
+	private final HallowedSepulchreConfig config;
+	private final ClientThread clientThread;
+	private final ConfigManager configManager;
+	private final ScheduledExecutorService executor;
+	
+	private Gson gson;
+	private JournalStore store;
+	private RunHistoryStore runStore;
+	
+	private boolean persistentStatsDirty;
+	private boolean sessionDirty;
+	private ScheduledFuture<?> pendingFlush;
+	
+	// Copies are numbered so a slow background write never overwrites a newer one.
+	// Writes hold their own lock so marking dirty never waits on serialization.
+	private final Object writeLock = new Object();
+	private long generation;
+	private long persistentStatsWritten;
+	private long sessionWritten;
+	
+	// Last journal sequence number handed out, and entries appended since the last snapshot copy
+	private long journalSeq;
+	private int entriesSinceSnapshot;
+	
+	// Set when the stored stats could not be read: nothing is written over them this session
+	private volatile boolean storeUnreadable;
+	
+	@Inject
+	PersistenceWriter(HallowedSepulchrePlugin plugin, HallowedSepulchreConfig config, ClientThread clientThread,
+		ConfigManager configManager, ScheduledExecutorService executor)
+	{
+		this.plugin = plugin;
+		this.config = config;
+		this.clientThread = clientThread;
+		this.configManager = configManager;
+		this.executor = executor;
+	}
+	
+	void start(Gson gson)
+	{
+		this.gson = gson;
+		this.storeUnreadable = false;
+		this.store = new JournalStore(JournalStore.DIRECTORY, gson);
+		this.runStore = new RunHistoryStore(JournalStore.DIRECTORY);
+	}
+	
+	/**
+	 * Cancel the scheduled write and queue a final write of anything still dirty. The models are
+	 * copied on the client thread like any other save, and the write runs after the pending ones.
+	 * The journal is folded into a fresh snapshot so the next start replays nothing.
+	 */
+	void stop()
+	{
+		synchronized (this)
+		{
+			if (pendingFlush != null)
+			{
+				pendingFlush.cancel(false);
+				pendingFlush = null;
+			}
+			if (entriesSinceSnapshot > 0)
+			{
+				persistentStatsDirty = true;
+			}
+		}
+		
+		// The plugin's models are replaced if it starts again before this runs
+		PersistentStats stats = plugin.getPersistentStats();
+		HallowedSepulchreSession session = plugin.getSession();
+		clientThread.invoke(() -> writeDirty(stats, session));
+	}
+	
+	/**
+	 * Load persistent stats from the journal store, migrating the legacy config entry on first start.
+	 */
+	PersistentStats loadPersistentStats()
+	{
+		if (store.exists())
+		{
+			try
+			{
+				PersistentStats stats = store.load();
+				synchronized (this)
+				{
+					journalSeq = store.getLastSeq();
+					entriesSinceSnapshot = 0;
+				}
+				if (stats.isHistoryRewrite())
+				{
+					// Read from a legacy layout; shard it now rather than on the first save
+					store.writeSnapshot(stats.takeChanges(), journalSeq);
+					log.info("Converted persistent stats in {} to history shards", JournalStore.DIRECTORY);
+				}
+				return stats;
+			}
+			catch (IOException | RuntimeException e)
+			{
+				// Stats start from zero in memory, but saving them would replace the unread files
+				storeUnreadable = true;
+				log.warn("Failed to load persistent stats from {}, they will not be saved this session",
+					JournalStore.DIRECTORY, e);
+				return new PersistentStats();
+			}
+		}
+		
+		PersistentStats stats = null;
+		String json = configManager.getConfiguration(CONFIG_GROUP, "persistent");
+		if (json != null && !json.isEmpty())
+		{
+			try
+			{
+				stats = gson.fromJson(json, PersistentStats.class);
+			}
+			catch (RuntimeException e)
+			{
+				// Keep the config entry and write nothing that would replace it on the next start
+				storeUnreadable = true;
+				log.warn("Failed to load persistent stats, they will not be saved this session", e);
+			}
+		}
+		if (stats == null)
+		{
+			return new PersistentStats();
+		}
+		stats.initializeAfterLoad();
+		stats.markHistoryRewrite();
+		
+		try
+		{
+			store.writeSnapshot(stats.takeChanges(), 0);
+			configManager.unsetConfiguration(CONFIG_GROUP, "persistent");
+			log.info("Migrated persistent stats to {}", JournalStore.DIRECTORY);
+		}
+		catch (IOException e)
+		{
+			// Keep the config entry so the migration is retried next start
+			log.warn("Failed to migrate persistent stats", e);
+		}
+		return stats;
+	}
+	
+	/**
+	 * Read the daily history left on disk by a summary-only load and merge it into {@code stats}
+	 * on the client thread. If the read fails the history stays unloaded, so snapshots merge
+	 * into the existing shards instead of overwriting them with partial data.
+	 *
+	 * @param onDone run on the client thread once the read finishes, whether or not it merged
+	 */
+	void loadHistory(PersistentStats stats, Runnable onDone)
+	{
+		executor.execute(() ->
+		{
+			List<DailyStats> history;
+			try
+			{
+				history = store.loadHistory();
+			}
+			catch (IOException | RuntimeException e)
+			{
+				log.warn("Failed to load stats history", e);
+				history = null;
+			}
+			
+			List<DailyStats> loaded = history;
+			clientThread.invokeLater(() ->
+			{
+				// Stats were reset or the plugin restarted while reading
+				if (plugin.getPersistentStats() != stats)
+				{
+					return;
+				}
+				if (loaded != null)
+				{
+					stats.mergeHistory(loaded);
+				}
+				onDone.run();
+			});
+		});
+	}
+	
+	/**
+	 * Journal a finished run that was just recorded into the live stats, then delete its
+	 * checkpoint. Client thread only; the run must not be modified afterwards.
+	 */
+	void recordRun(SepulchreRun run, String date)
+	{
+		append(JournalEntry.run(nextSeq(), date, run), store::deleteRunCheckpoint);
+	}
+	
+	/**
+	 * Journal a run recovered from the claimed checkpoint, then delete the claimed checkpoint.
+	 * If the journal cannot be written the checkpoint is kept and recovered again next start.
+	 */
+	void recordRecoveredRun(SepulchreRun run, String date)
+	{
+		append(JournalEntry.run(nextSeq(), date, run), store::deleteClaimedRunCheckpoint);
+	}
+	
+	/**
+	 * Append the run stored at {@code index} to the run history file. Client thread only.
+	 */
+	void recordRunHistory(RunHistory history, int index)
+	{
+		byte[] record = RunHistoryStore.encode(history, index);
+		executor.execute(() ->
+		{
+			try
+			{
+				runStore.append(record);
+			}
+			catch (IOException e)
+			{
+				log.warn("Failed to append to run history", e);
+			}
+		});
+	}
+	
+	/**
+	 * Read the run history file in the background and hand it to {@code onLoaded} on the client
+	 * thread, followed by the runs added to {@code current} in the meantime. Runs recorded after
+	 * this call are appended to the file only after it has been read, so none is counted twice.
+	 */
+	void loadRunHistory(RunHistory current, Consumer<RunHistory> onLoaded)
+	{
+		executor.execute(() ->
+		{
+			RunHistory loaded;
+			try
+			{
+				loaded = runStore.load();
+			}
+			catch (IOException | RuntimeException e)
+			{
+				log.warn("Failed to load run history", e);
+				return;
+			}
+			
+			clientThread.invokeLater(() ->
+			{
+				// Stats were reset or the plugin restarted while reading
+				if (plugin.getRunHistory() != current)
+				{
+					return;
+				}
+				loaded.addAll(current);
+				onLoaded.accept(loaded);
+			});
+		});
+	}
+	
+	void clearRunHistory()
+	{
+		executor.execute(() ->
+		{
+			try
+			{
+				runStore.delete();
+			}
+			catch (IOException e)
+			{
+				log.warn("Failed to clear run history", e);
+			}
+		});
+	}
+	
+	void recordFloorCompletions(int floor, int totalCompletions)
+	{
+		append(JournalEntry.floorCompletions(nextSeq(), floor, totalCompletions));
+	}
+	
+	void recordPersonalBest(int floor, long timeMs)
+	{
+		append(JournalEntry.personalBest(nextSeq(), floor, timeMs));
+	}
+	
+	/**
+	 * Save the active run to the checkpoint slot. Client thread only. The run is only a few
+	 * floors, so it is serialized here and just the file write happens in the background.
+	 */
+	void checkpointRun(SepulchreRun run, int floor)
+	{
+		RunCheckpoint checkpoint = new RunCheckpoint();
+		checkpoint.setSavedAt(System.currentTimeMillis());
+		checkpoint.setDate(run.getStartDate().toString());
+		checkpoint.setFloor(floor);
+		checkpoint.setRun(run);
+		String json = gson.toJson(checkpoint);
+		
+		executor.execute(() ->
+		{
+			try
+			{
+				store.writeRunCheckpoint(json);
+			}
+			catch (IOException e)
+			{
+				log.warn("Failed to checkpoint run", e);
+			}
+		});
+	}
+	
+	/**
+	 * Claim the checkpoint left by a run that never ended. The checkpoint stays on disk until
+	 * {@link #recordRecoveredRun} persists it or {@link #discardClaimedRunCheckpoint} drops it.
+	 *
+	 * @return the checkpoint, or null if there is none or it cannot be read
+	 */
+	RunCheckpoint claimRunCheckpoint()
+	{
+		try
+		{
+			String json = store.claimRunCheckpoint();
+			if (json == null)
+			{
+				return null;
+			}
+			
+			RunCheckpoint checkpoint = gson.fromJson(json, RunCheckpoint.class);
+			if (checkpoint != null && checkpoint.getRun() != null)
+			{
+				return checkpoint;
+			}
+		}
+		catch (IOException | RuntimeException e)
+		{
+			log.warn("Failed to read run checkpoint", e);
+		}
+		discardClaimedRunCheckpoint();
+		return null;
+	}
+	
+	void discardClaimedRunCheckpoint()
+	{
+		executor.execute(() ->
+		{
+			try
+			{
+				store.deleteClaimedRunCheckpoint();
+			}
+			catch (IOException e)
+			{
+				log.warn("Failed to delete run checkpoint", e);
+			}
+		});
+	}
+	
+	private synchronized long nextSeq()
+	{
+		if (++entriesSinceSnapshot >= SNAPSHOT_AFTER_ENTRIES)
+		{
+			persistentStatsDirty = true;
+			scheduleFlush();
+		}
+		return ++journalSeq;
+	}
+	
+	private void append(JournalEntry entry)
+	{
+		append(entry, null);
+	}
+	
+	/**
+	 * @param onAppended run in the background once the entry is in the journal
+	 */
+	private void append(JournalEntry entry, StoreAction onAppended)
+	{
+		if (storeUnreadable)
+		{
+			return;
+		}
+		executor.execute(() ->
+		{
+			try
+			{
+				store.append(entry);
+			}
+			catch (IOException e)
+			{
+				log.warn("Failed to append to stats journal", e);
+				return;
+			}
+			
+			if (onAppended != null)
+			{
+				try
+				{
+					onAppended.run();
+				}
+				catch (IOException e)
+				{
+					log.warn("Failed to delete run checkpoint", e);
+				}
+			}
+		});
+	}
+	
+	synchronized void markPersistentStatsDirty()
+	{
+		persistentStatsDirty = true;
+		scheduleFlush();
+	}
+	
+	synchronized void markSessionDirty()
+	{
+		sessionDirty = true;
+		scheduleFlush();
+	}
+	
+	/**
+	 * Copy the dirty models now and write them in the background. Must be called on the client thread.
+	 */
+	void flushAsync()
+	{
+		writeDirty(plugin.getPersistentStats(), plugin.getSession());
+	}
+	
+	private void writeDirty(PersistentStats stats, HallowedSepulchreSession session)
+	{
+		Pending pending = takeDirty(stats, session);
+		if (pending != null)
+		{
+			executor.execute(() -> write(pending));
+		}
+	}
+	
+	private void scheduleFlush()
+	{
+		if (pendingFlush == null)
+		{
+			pendingFlush = executor.schedule(() -> clientThread.invokeLater(this::flushAsync),
+				config.saveIntervalSeconds(), TimeUnit.SECONDS);
+		}
+	}
+	
+	private synchronized Pending takeDirty(PersistentStats stats, HallowedSepulchreSession session)
+	{
+		pendingFlush = null;
+		if (!persistentStatsDirty && !sessionDirty)
+		{
+			return null;
+		}
+		
+		Pending pending = new Pending(++generation, journalSeq, stats,
+			persistentStatsDirty && stats != null ? stats.takeChanges() : null,
+			sessionDirty && session != null ? session.copy() : null);
+		if (pending.stats != null)
+		{
+			entriesSinceSnapshot = 0;
+		}
+		persistentStatsDirty = false;
+		sessionDirty = false;
+		return pending;
+	}
+	
+	private void write(Pending pending)
+	{
+		synchronized (writeLock)
+		{
+			if (pending.stats != null && !storeUnreadable)
+			{
+				try
+				{
+					if (pending.generation <= persistentStatsWritten)
+					{
+						// A newer snapshot won the race, but it does not include this copy's shards
+						if (!pending.stats.getDirtyMonths().isEmpty() || pending.stats.isHistoryRewrite())
+						{
+							retry(pending);
+						}
+					}
+					else
+					{
+						store.writeSnapshot(pending.stats, pending.journalSeq);
+						persistentStatsWritten = pending.generation;
+					}
+				}
+				catch (IOException | RuntimeException e)
+				{
+					log.warn("Failed to save persistent stats", e);
+					retry(pending);
+				}
+			}
+			
+			try
+			{
+				if (pending.session != null && pending.generation > sessionWritten)
+				{
+					configManager.setConfiguration(CONFIG_GROUP, "session", gson.toJson(pending.session));
+					sessionWritten = pending.generation;
+				}
+			}
+			catch (RuntimeException e)
+			{
+				log.warn("Failed to save session", e);
+			}
+		}
+	}
+	
+	/**
+	 * Hand the shards a copy would have written back to the live stats for the next snapshot.
+	 */
+	private void retry(Pending pending)
+	{
+		clientThread.invokeLater(() ->
+		{
+			pending.source.restoreChanges(pending.stats);
+			markPersistentStatsDirty();
+		});
+	}
+	
+	private static class Pending
+	{
+		private final long generation;
+		// Journal entries up to here are already applied to stats
+		private final long journalSeq;
+		// The live stats the copy was taken from
+		private final PersistentStats source;
+		private final PersistentStats stats;
+		private final HallowedSepulchreSession session;
+		
+		Pending(long generation, long journalSeq, PersistentStats source, PersistentStats stats,
+			HallowedSepulchreSession session)
+		{
+			this.generation = generation;
+			this.journalSeq = journalSeq;
+			this.source = source;
+			this.stats = stats;
+			this.session = session;
+		}
+	}
+	
+	private interface StoreAction
+	{
+		void run() throws IOException;
+	}
+}
@@ -1,28 +1,73 @@
 package com.hallowedsep;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 @Data
 public class PersistentStats
 {
+	// Weeks a rolled up day stays in a weekly rollup before moving to its month
+	static final int WEEKLY_ROLLUP_WEEKS = 26;
+	
+	// Fewest days kept day by day when rolling up, so the 30 day and month totals never split a rollup
+	static final int MIN_RETENTION_DAYS = 62;
+	
+	private static final DailyStats[] NO_DAYS = new DailyStats[0];
+	
 	// All-time stats
 	private int allTimeRuns;
 	private int allTimeXp;
 	private long allTimeMs;
-	private Map<Integer, Integer> allTimeFloorCompletions = new HashMap<>();
+	private FloorCounts allTimeFloorCompletions = new FloorCounts();
 	private int allTimeChestsLooted;
 	private int allTimeGrandCoffins;
 	
-	// Best times (in milliseconds)
+	// Best times (in milliseconds, 0 for none)
 	private long bestRunTimeMs;
-	private Map<Integer, Long> bestFloorTimes = new HashMap<>();
-	private Map<Integer, Long> bestRunTimesByFloors = new HashMap<>();
+	private FloorTimes bestFloorTimes = new FloorTimes();
+	private FloorTimes bestRunTimesByFloors = new FloorTimes();
+	
+	// Daily stats, keyed by epoch day
+	private DailyHistory dailyHistory = new DailyHistory();
+	
+	// The current day's row, swapped by rollOver at each day boundary so reading it is one field read
+	@Setter(AccessLevel.NONE)
+	private transient DailyStats today;
+	
+	// Days older than the retention window, keyed by the start of their week or month, oldest first
+	private Map<String, HistoryRollup> weeklyHistory = new LinkedHashMap<>();
+	private Map<String, HistoryRollup> monthlyHistory = new LinkedHashMap<>();
+	private transient int rolledUpDays;
+	// Epoch day of the last day in the newest rollup's week or month
+	private transient long lastRolledUpDay = Long.MIN_VALUE;
+	
+	// Days of per-day detail to keep, 0 keeps every day
+	private transient int retentionDays;
+	
+	// Detached copies of the days with at least one run, oldest first, for the panel's history list.
+	// Replaced rather than modified, so a snapshot can hand the array to the EDT as it is.
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private transient DailyStats[] activeDays = NO_DAYS;
+	
+	// False while only the summary is loaded and older days are still on disk
+	private transient boolean historyLoaded = true;
+	private transient int unloadedHistoryDays;
 	
-	// Daily stats - keyed by date string (YYYY-MM-DD)
-	private Map<String, DailyStats> dailyHistory = new LinkedHashMap<>();
+	// Days left out of a partial copy from takeChanges, so it still reports the days tracked
+	private transient int detachedDays;
+	
+	// History shards (one per month) changed since the last snapshot, and whether every shard must be rewritten
+	private transient Set<String> dirtyMonths = new HashSet<>();
+	private transient boolean historyRewrite;
 	
 	// Starting XP when we first started tracking
 	private int startingXp;
@@ -30,25 +75,351 @@ public class PersistentStats
 	
 	public PersistentStats()
 	{
-		for (int i = 1; i <= 5; i++)
+		this.startDate = LocalDate.now().toString();
+	}
+	
+	/**
+	 * Detached copy for background serialization
+	 */
+	public PersistentStats copy()
+	{
+		PersistentStats copy = copyWithoutHistory();
+		copy.dailyHistory = dailyHistory.copy();
+		copy.today = today != null ? copy.dailyHistory.get(DailyHistory.epochDayOf(today.getDate())) : null;
+		return copy;
+	}
+	
+	/**
+	 * Detached copy of everything but the daily rows, which the caller fills in.
+	 */
+	private PersistentStats copyWithoutHistory()
+	{
+		PersistentStats copy = new PersistentStats();
+		copy.allTimeRuns = allTimeRuns;
+		copy.allTimeXp = allTimeXp;
+		copy.allTimeMs = allTimeMs;
+		copy.allTimeFloorCompletions = allTimeFloorCompletions.copy();
+		copy.allTimeChestsLooted = allTimeChestsLooted;
+		copy.allTimeGrandCoffins = allTimeGrandCoffins;
+		copy.bestRunTimeMs = bestRunTimeMs;
+		copy.bestFloorTimes = bestFloorTimes.copy();
+		copy.bestRunTimesByFloors = bestRunTimesByFloors.copy();
+		copy.weeklyHistory = copyRollups(weeklyHistory);
+		copy.monthlyHistory = copyRollups(monthlyHistory);
+		copy.rolledUpDays = rolledUpDays;
+		copy.lastRolledUpDay = lastRolledUpDay;
+		copy.retentionDays = retentionDays;
+		copy.startingXp = startingXp;
+		copy.startDate = startDate;
+		copy.historyLoaded = historyLoaded;
+		copy.unloadedHistoryDays = unloadedHistoryDays;
+		return copy;
+	}
+	
+	private static Map<String, HistoryRollup> copyRollups(Map<String, HistoryRollup> rollups)
+	{
+		Map<String, HistoryRollup> copy = new LinkedHashMap<>();
+		for (HistoryRollup rollup : rollups.values())
 		{
-			allTimeFloorCompletions.put(i, 0);
-			bestFloorTimes.put(i, Long.MAX_VALUE);
-			bestRunTimesByFloors.put(i, Long.MAX_VALUE);
+			copy.put(rollup.getStart(), rollup.copy());
+		}
+		return copy;
+	}
+	
+	/**
+	 * Detached copy that also carries the shards changed since the last call, which are then cleared here.
+	 * Only the rows of those months and today's row are copied, or every row for a full rewrite.
+	 */
+	public PersistentStats takeChanges()
+	{
+		PersistentStats copy;
+		if (historyRewrite && historyLoaded)
+		{
+			copy = copy();
+		}
+		else
+		{
+			copy = copyWithoutHistory();
+			for (String month : dirtyMonths)
+			{
+				for (DailyStats day : getMonthDays(month))
+				{
+					copy.dailyHistory.put(day.copy());
+				}
+			}
+			if (today != null)
+			{
+				copy.today = copy.dailyHistory.get(DailyHistory.epochDayOf(today.getDate()));
+				if (copy.today == null)
+				{
+					copy.today = today.copy();
+					copy.dailyHistory.put(copy.today);
+				}
+			}
+			copy.detachedDays = getDaysTracked() - copy.getDaysTracked();
+		}
+		copy.dirtyMonths = dirtyMonths;
+		copy.historyRewrite = historyRewrite;
+		dirtyMonths = new HashSet<>();
+		historyRewrite = false;
+		return copy;
+	}
+	
+	/**
+	 * Put back the changes of a copy from {@link #takeChanges()} whose write failed.
+	 */
+	public void restoreChanges(PersistentStats failed)
+	{
+		dirtyMonths.addAll(failed.dirtyMonths);
+		historyRewrite |= failed.historyRewrite;
+	}
+	
+	/**
+	 * Rewrite every history shard on the next snapshot, dropping shards for months no longer held.
+	 * Only honoured once the history is loaded.
+	 */
+	public void markHistoryRewrite()
+	{
+		historyRewrite = true;
+	}
+	
+	/**
+	 * Everything except the day-by-day history, which lives in the month shards, plus today's row.
+	 */
+	public PersistentStats summaryCopy()
+	{
+		PersistentStats copy = copyWithoutHistory();
+		DailyStats current = today != null ? today : dailyHistory.get(LocalDate.now().toEpochDay());
+		if (current != null)
+		{
+			copy.today = current.copy();
+			copy.dailyHistory.put(copy.today);
+		}
+		return copy;
+	}
+	
+	/**
+	 * @return the rows held for a YYYY-MM history shard, oldest first
+	 */
+	public Collection<DailyStats> getMonthDays(String month)
+	{
+		YearMonth yearMonth;
+		try
+		{
+			yearMonth = YearMonth.parse(month);
+		}
+		catch (DateTimeParseException e)
+		{
+			return Collections.emptyList();
+		}
+		return getDays(yearMonth.atDay(1), yearMonth.atEndOfMonth());
+	}
+	
+	/**
+	 * @return the YYYY-MM history shard a day belongs to
+	 */
+	public static String monthOf(String date)
+	{
+		if (date != null && date.length() >= 7 && date.charAt(4) == '-'
+			&& date.chars().limit(7).allMatch(c -> c == '-' || (c >= '0' && c <= '9')))
+		{
+			return date.substring(0, 7);
+		}
+		return "other";
+	}
+	
+	/**
+	 * Mark that only summary rows are in memory and {@code days} more are in the history shards.
+	 * Until {@link #mergeHistory} runs, only today's row may be recorded into: a row created for
+	 * an older day would replace the one on disk.
+	 */
+	public void setHistoryPending(int days)
+	{
+		historyLoaded = false;
+		unloadedHistoryDays = Math.max(0, days);
+	}
+	
+	/**
+	 * Add the days read from the history shards. Rows already in memory are newer and win.
+	 */
+	public void mergeHistory(Collection<DailyStats> days)
+	{
+		for (DailyStats day : days)
+		{
+			if (!dailyHistory.contains(DailyHistory.epochDayOf(day.getDate())))
+			{
+				dailyHistory.put(day);
+			}
+		}
+		historyLoaded = true;
+		unloadedHistoryDays = 0;
+		rebuildActiveDays();
+		rollUp(LocalDate.now());
+	}
+	
+	/**
+	 * Keep per-day detail for {@code days} days, at least {@link #MIN_RETENTION_DAYS}, and roll
+	 * older days up; 0 keeps every day.
+	 */
+	public void setRetentionDays(int days)
+	{
+		retentionDays = days <= 0 ? 0 : Math.max(MIN_RETENTION_DAYS, days);
+		rollUp(LocalDate.now());
+	}
+	
+	/**
+	 * Fold the days that left the retention window into their weekly rollup, and weeks that left
+	 * the weekly tier into the month they start in. Called whenever a new day is added, so each
+	 * call only moves the few days at the head of the history.
+	 */
+	void rollUp(LocalDate today)
+	{
+		// The shards would still hold the rolled up days
+		if (retentionDays == 0 || !historyLoaded)
+		{
+			return;
+		}
+		
+		LocalDate dayCutoff = today.minusDays(retentionDays);
+		LocalDate weekCutoff = dayCutoff.minusWeeks(WEEKLY_ROLLUP_WEEKS);
+		
+		while (!dailyHistory.isEmpty() && dailyHistory.firstEpochDay() < dayCutoff.toEpochDay())
+		{
+			LocalDate date = LocalDate.ofEpochDay(dailyHistory.firstEpochDay());
+			DailyStats day = dailyHistory.removeFirst();
+			dirtyMonths.add(monthOf(day.getDate()));
+			
+			HistoryRollup rollup;
+			if (date.isBefore(weekCutoff))
+			{
+				rollup = rollupFor(monthlyHistory, date.withDayOfMonth(1));
+			}
+			else
+			{
+				rollup = rollupFor(weeklyHistory, date.with(DayOfWeek.MONDAY));
+			}
+			rollup.add(day);
+			rolledUpDays++;
+			noteRolledUp(rollup);
+		}
+		
+		// Active days are sorted, so the rolled up ones are at the head
+		int removedRows = activeDayIndex(dayCutoff.toString());
+		if (removedRows < 0)
+		{
+			removedRows = -removedRows - 1;
+		}
+		if (removedRows > 0)
+		{
+			activeDays = Arrays.copyOfRange(activeDays, removedRows, activeDays.length);
+		}
+		
+		Iterator<HistoryRollup> weeks = weeklyHistory.values().iterator();
+		while (weeks.hasNext())
+		{
+			HistoryRollup week = weeks.next();
+			LocalDate start = parseDate(week.getStart());
+			if (start == null || start.plusWeeks(1).isAfter(weekCutoff))
+			{
+				break;
+			}
+			
+			// A week spanning two months counts towards the one it starts in
+			weeks.remove();
+			rollupFor(monthlyHistory, start.withDayOfMonth(1)).add(week);
+		}
+	}
+	
+	private static HistoryRollup rollupFor(Map<String, HistoryRollup> rollups, LocalDate start)
+	{
+		return rollups.computeIfAbsent(start.toString(), HistoryRollup::new);
+	}
+	
+	/**
+	 * The last day of a rollup's week or month
+	 */
+	private LocalDate lastDayOf(HistoryRollup rollup, LocalDate start)
+	{
+		return monthlyHistory.get(rollup.getStart()) == rollup ? start.plusMonths(1).minusDays(1) : start.plusDays(6);
+	}
+	
+	private void noteRolledUp(HistoryRollup rollup)
+	{
+		LocalDate start = parseDate(rollup.getStart());
+		if (start != null)
+		{
+			lastRolledUpDay = Math.max(lastRolledUpDay, lastDayOf(rollup, start).toEpochDay());
+		}
+	}
+	
+	private static LocalDate parseDate(String date)
+	{
+		try
+		{
+			return date != null ? LocalDate.parse(date) : null;
+		}
+		catch (DateTimeParseException e)
+		{
+			return null;
 		}
-		this.startDate = LocalDate.now().toString();
 	}
 	
+	/**
+	 * The current day's row. It only moves to a new day when {@link #rollOver} is called, so a frame
+	 * rendered just after midnight still shows the previous day. Before the first rollOver this is
+	 * an empty detached row; reading never changes the stats.
+	 */
 	public DailyStats getToday()
 	{
-		String today = LocalDate.now().toString();
-		return dailyHistory.computeIfAbsent(today, DailyStats::new);
+		return today != null ? today : new DailyStats(LocalDate.now().toString());
+	}
+	
+	/**
+	 * Make {@code date} the current day: roll up the days that left the retention window and point
+	 * {@link #getToday()} at the day's row. Called at the day boundary.
+	 */
+	public void rollOver(LocalDate date)
+	{
+		rollUp(date);
+		today = dayFor(date.toEpochDay());
+	}
+	
+	/**
+	 * The row for a day, added if missing. A new day may roll the oldest days up.
+	 */
+	private DailyStats dayFor(long epochDay)
+	{
+		DailyStats day = dailyHistory.get(epochDay);
+		if (day == null)
+		{
+			// Before adding, so a late run for an old day is never rolled up from under its caller
+			rollUp(LocalDate.now());
+			day = dailyHistory.create(epochDay);
+		}
+		return day;
 	}
 	
 	public void recordRun(SepulchreRun run)
+	{
+		recordRun(run, LocalDate.now().toString());
+	}
+	
+	/**
+	 * @param date the YYYY-MM-DD day the run counts towards
+	 */
+	public void recordRun(SepulchreRun run, String date)
 	{
 		if (run == null) return;
 		
+		recordRunTotals(run);
+		recordRunDay(run, date);
+	}
+	
+	/**
+	 * The all-time half of {@link #recordRun(SepulchreRun, String)}: totals and best times.
+	 */
+	public void recordRunTotals(SepulchreRun run)
+	{
 		int xp = run.getTotalXp();
 		long timeMs = run.getDuration().toMillis();
 		
@@ -65,12 +436,7 @@ public class PersistentStats
 			
 			if (floorData.isCompleted() && floorData.isTimeFromGame() && floorData.getDuration() != null)
 			{
-				long floorTime = floorData.getDuration().toMillis();
-				Long currentBest = bestFloorTimes.get(floor);
-				if (currentBest == null || floorTime < currentBest)
-				{
-					bestFloorTimes.put(floor, floorTime);
-				}
+				bestFloorTimes.offer(floor, floorData.getDuration().toMillis());
 			}
 		}
 		
@@ -92,15 +458,11 @@ public class PersistentStats
 					break;
 				}
 			}
-
+			
 			if (floorsWithSplits > 0)
 			{
-				Long currentBest = bestRunTimesByFloors.get(floorsWithSplits);
-				if (currentBest == null || currentBest == Long.MAX_VALUE || totalSplitMs < currentBest)
-				{
-					bestRunTimesByFloors.put(floorsWithSplits, totalSplitMs);
-				}
-
+				bestRunTimesByFloors.offer(floorsWithSplits, totalSplitMs);
+				
 				// Keep legacy full-run PB in sync when we have all five floors
 				if (floorsWithSplits == 5 && (bestRunTimeMs == 0 || totalSplitMs < bestRunTimeMs))
 				{
@@ -108,31 +470,133 @@ public class PersistentStats
 				}
 			}
 		}
-
+		
 		// Update chest counts
 		allTimeChestsLooted += run.getTotalChestsLooted();
 		if (run.isLootedGrandCoffin())
 		{
 			allTimeGrandCoffins++;
 		}
+	}
+	
+	/**
+	 * The daily half of {@link #recordRun(SepulchreRun, String)}.
+	 */
+	public void recordRunDay(SepulchreRun run, String date)
+	{
+		int xp = run.getTotalXp();
+		long timeMs = run.getDuration().toMillis();
 		
-		// Update daily stats
-		DailyStats today = getToday();
-		today.addRun(xp, timeMs);
-		today.setChestsLooted(today.getChestsLooted() + run.getTotalChestsLooted());
+		int parsed = DailyHistory.epochDayOf(date);
+		long epochDay = parsed != DailyHistory.NO_DAY ? parsed : LocalDate.now().toEpochDay();
+		
+		DailyStats delta = new DailyStats(LocalDate.ofEpochDay(epochDay).toString());
+		delta.addRun(xp, timeMs);
+		delta.setChestsLooted(run.getTotalChestsLooted());
 		if (run.isLootedGrandCoffin())
 		{
-			today.setGrandCoffinsLooted(today.getGrandCoffinsLooted() + 1);
+			delta.setGrandCoffinsLooted(1);
 		}
 		
-		// Update floor completions for today
+		// Update floor completions for the day
 		for (Map.Entry<Integer, SepulchreRun.FloorData> entry : run.getFloorData().entrySet())
 		{
 			if (entry.getValue().isCompleted())
 			{
-				today.incrementFloor(entry.getKey());
+				delta.incrementFloor(entry.getKey());
 			}
 		}
+		
+		HistoryRollup rollup = rolledUpInto(LocalDate.ofEpochDay(epochDay));
+		if (rollup != null)
+		{
+			rollup.getTotals().add(delta);
+			return;
+		}
+		
+		DailyStats day = dayFor(epochDay);
+		dailyHistory.record(epochDay, delta);
+		dirtyMonths.add(monthOf(day.getDate()));
+		updateActiveDay(day);
+	}
+	
+	/**
+	 * The rollup a day older than the retention window was folded into, so a late run for it adds
+	 * to the rollup's totals without counting the day again. A week or month with a rollup is taken
+	 * to already count the day.
+	 *
+	 * @return the rollup, or null if the day is still kept day by day or no rollup covers it yet
+	 */
+	private HistoryRollup rolledUpInto(LocalDate date)
+	{
+		if (retentionDays == 0 || !historyLoaded || !date.isBefore(LocalDate.now().minusDays(retentionDays)))
+		{
+			return null;
+		}
+		
+		// Days go to their week or month; weeks move to the month they start in
+		LocalDate weekStart = date.with(DayOfWeek.MONDAY);
+		HistoryRollup rollup = weeklyHistory.get(weekStart.toString());
+		if (rollup == null)
+		{
+			rollup = monthlyHistory.get(date.withDayOfMonth(1).toString());
+		}
+		if (rollup == null)
+		{
+			rollup = monthlyHistory.get(weekStart.withDayOfMonth(1).toString());
+		}
+		return rollup;
+	}
+	
+	/**
+	 * Swap in a new active day array holding a fresh copy of {@code day} in date order.
+	 * A late run for an earlier day is inserted in place rather than appended.
+	 */
+	private void updateActiveDay(DailyStats day)
+	{
+		int index = activeDayIndex(day.getDate());
+		DailyStats[] rows;
+		if (index >= 0)
+		{
+			rows = activeDays.clone();
+		}
+		else
+		{
+			index = -index - 1;
+			rows = new DailyStats[activeDays.length + 1];
+			System.arraycopy(activeDays, 0, rows, 0, index);
+			System.arraycopy(activeDays, index, rows, index + 1, activeDays.length - index);
+		}
+		rows[index] = day.copy();
+		activeDays = rows;
+	}
+	
+	/**
+	 * Binary search of the active days by date, as {@link Arrays#binarySearch} reports it.
+	 * History dates are normalized to ISO form, which sorts as a string.
+	 */
+	private int activeDayIndex(String date)
+	{
+		int low = 0;
+		int high = activeDays.length - 1;
+		while (low <= high)
+		{
+			int mid = (low + high) >>> 1;
+			int cmp = activeDays[mid].getDate().compareTo(date);
+			if (cmp < 0)
+			{
+				low = mid + 1;
+			}
+			else if (cmp > 0)
+			{
+				high = mid - 1;
+			}
+			else
+			{
+				return mid;
+			}
+		}
+		return -(low + 1);
 	}
 	
 	public double getAllTimeHours()
@@ -154,7 +618,7 @@ public class PersistentStats
 	
 	public int getAllTimeFloorCompletions(int floor)
 	{
-		return allTimeFloorCompletions.getOrDefault(floor, 0);
+		return allTimeFloorCompletions.get(floor);
 	}
 	
 	public int getFloorCompletions(int floor)
@@ -164,14 +628,12 @@ public class PersistentStats
 	
 	public long getBestFloorTimeMs(int floor)
 	{
-		Long time = bestFloorTimes.get(floor);
-		return (time == null || time == Long.MAX_VALUE) ? 0 : time;
+		return bestFloorTimes.get(floor);
 	}
-
+	
 	public long getBestRunTimeForFloorsMs(int floors)
 	{
-		Long time = bestRunTimesByFloors.get(floors);
-		return (time == null || time == Long.MAX_VALUE) ? 0 : time;
+		return bestRunTimesByFloors.get(floors);
 	}
 	
 	/**
@@ -180,9 +642,9 @@ public class PersistentStats
 	 */
 	public void setFloorCompletionsFromGame(int floor, int totalCompletions)
 	{
-		if (floor >= 1 && floor <= 5 && totalCompletions >= 0)
+		if (totalCompletions >= 0)
 		{
-			allTimeFloorCompletions.put(floor, totalCompletions);
+			allTimeFloorCompletions.set(floor, totalCompletions);
 		}
 	}
 	
@@ -191,36 +653,106 @@ public class PersistentStats
 	 */
 	public void setPersonalBestFromGame(int floor, long timeMs)
 	{
-		if (floor >= 1 && floor <= 5 && timeMs > 0)
+		if (timeMs > 0)
 		{
-			bestFloorTimes.put(floor, timeMs);
+			bestFloorTimes.set(floor, timeMs);
 		}
 	}
 	
+	/**
+	 * @return up to {@code count} of the newest days, newest first
+	 */
 	public List<DailyStats> getRecentDays(int count)
 	{
-		List<DailyStats> days = new ArrayList<>(dailyHistory.values());
-		Collections.reverse(days);
-		return days.subList(0, Math.min(count, days.size()));
+		return dailyHistory.latest(count);
+	}
+	
+	/**
+	 * @return the days from {@code from} to {@code to} inclusive, oldest first
+	 */
+	public Collection<DailyStats> getDays(LocalDate from, LocalDate to)
+	{
+		return dailyHistory.range(from.toEpochDay(), to.toEpochDay());
+	}
+	
+	/**
+	 * Totals over the days from {@code from} to {@code to} inclusive, in O(log n) from the day index
+	 * when the range is newer than every rollup, as the panel's ranges always are. Older ranges add
+	 * the rolled up weeks and months they cover.
+	 *
+	 * @throws IllegalArgumentException if the range covers only part of a rolled up week or month
+	 */
+	public DailyStats getTotals(LocalDate from, LocalDate to)
+	{
+		DailyStats totals = dailyHistory.totals(from.toEpochDay(), to.toEpochDay());
+		if (from.toEpochDay() > lastRolledUpDay)
+		{
+			return totals;
+		}
+		
+		for (HistoryRollup week : weeklyHistory.values())
+		{
+			addIfInside(totals, week, from, to);
+		}
+		for (HistoryRollup month : monthlyHistory.values())
+		{
+			addIfInside(totals, month, from, to);
+		}
+		return totals;
+	}
+	
+	private void addIfInside(DailyStats totals, HistoryRollup rollup, LocalDate from, LocalDate to)
+	{
+		LocalDate start = parseDate(rollup.getStart());
+		if (start == null || start.isAfter(to))
+		{
+			return;
+		}
+		LocalDate end = lastDayOf(rollup, start);
+		if (end.isBefore(from))
+		{
+			return;
+		}
+		if (start.isBefore(from) || end.isAfter(to))
+		{
+			throw new IllegalArgumentException("Totals from " + from + " to " + to
+				+ " cover part of the rolled up days from " + start + " to " + end);
+		}
+		totals.add(rollup.getTotals());
+	}
+	
+	public int getActiveDayCount()
+	{
+		return activeDays.length;
+	}
+	
+	/**
+	 * Copies of the days with runs, oldest first. The array is never modified once returned.
+	 */
+	DailyStats[] getActiveDays()
+	{
+		return activeDays;
 	}
 	
 	public int getDaysTracked()
 	{
-		return dailyHistory.size();
+		return dailyHistory.size() + unloadedHistoryDays + rolledUpDays + detachedDays;
 	}
 	
 	public double getAverageRunsPerDay()
 	{
-		if (dailyHistory.isEmpty()) return 0;
-		return (double) allTimeRuns / dailyHistory.size();
+		int days = getDaysTracked();
+		if (days == 0) return 0;
+		return (double) allTimeRuns / days;
 	}
 	
 	public double getAverageHoursPerDay()
 	{
-		if (dailyHistory.isEmpty()) return 0;
-		return getAllTimeHours() / dailyHistory.size();
+		int days = getDaysTracked();
+		if (days == 0) return 0;
+		return getAllTimeHours() / days;
 	}
-
+	
 	/**
 	 * Initialize maps after deserialization
 	 */
@@ -228,27 +760,58 @@ public class PersistentStats
 	{
 		if (allTimeFloorCompletions == null)
 		{
-			allTimeFloorCompletions = new HashMap<>();
+			allTimeFloorCompletions = new FloorCounts();
 		}
 		if (bestFloorTimes == null)
 		{
-			bestFloorTimes = new HashMap<>();
+			bestFloorTimes = new FloorTimes();
 		}
 		if (bestRunTimesByFloors == null)
 		{
-			bestRunTimesByFloors = new HashMap<>();
+			bestRunTimesByFloors = new FloorTimes();
 		}
 		if (dailyHistory == null)
 		{
-			dailyHistory = new LinkedHashMap<>();
+			dailyHistory = new DailyHistory();
+		}
+		if (weeklyHistory == null)
+		{
+			weeklyHistory = new LinkedHashMap<>();
+		}
+		if (monthlyHistory == null)
+		{
+			monthlyHistory = new LinkedHashMap<>();
 		}
 		
-		// Ensure all floors have entries
-		for (int i = 1; i <= 5; i++)
+		// Rolling up reads only the head of each map, so keep them chronological. ISO dates sort as strings.
+		weeklyHistory = new LinkedHashMap<>(new TreeMap<>(weeklyHistory));
+		monthlyHistory = new LinkedHashMap<>(new TreeMap<>(monthlyHistory));
+		rolledUpDays = 0;
+		lastRolledUpDay = Long.MIN_VALUE;
+		for (HistoryRollup rollup : weeklyHistory.values())
+		{
+			rolledUpDays += rollup.getDays();
+			noteRolledUp(rollup);
+		}
+		for (HistoryRollup rollup : monthlyHistory.values())
 		{
-			allTimeFloorCompletions.putIfAbsent(i, 0);
-			bestFloorTimes.putIfAbsent(i, Long.MAX_VALUE);
-			bestRunTimesByFloors.putIfAbsent(i, Long.MAX_VALUE);
+			rolledUpDays += rollup.getDays();
+			noteRolledUp(rollup);
+		}
+		
+		rebuildActiveDays();
+	}
+	
+	private void rebuildActiveDays()
+	{
+		List<DailyStats> rows = new ArrayList<>();
+		for (DailyStats day : dailyHistory.values())
+		{
+			if (day.getRuns() > 0)
+			{
+				rows.add(day.copy());
+			}
 		}
+		activeDays = rows.toArray(NO_DAYS);
 	}
 }
@@ -0,0 +1,232 @@
+package com.hallowedsep;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes dailyHistory as an array of days, oldest first; the date inside each day is the key.
+ * With compact history enabled it is written as "dailyHistoryCompact" by {@link DailyHistoryCodec}
+ * instead. Either form is read regardless of the setting. Rollups are written as
+ * {"days": n, "totals": day} with the day's date as the start, and only when there are any.
+ */
+public class PersistentStatsTypeAdapter extends TypeAdapter<PersistentStats>
+{
+	private final DailyStatsTypeAdapter dailyStatsAdapter = new DailyStatsTypeAdapter();
+	
+	private volatile boolean compactHistory;
+	
+	public void setCompactHistory(boolean compactHistory)
+	{
+		this.compactHistory = compactHistory;
+	}
+	
+	@Override
+	public void write(JsonWriter out, PersistentStats stats) throws IOException
+	{
+		if (stats == null)
+		{
+			out.nullValue();
+			return;
+		}
+		
+		out.beginObject();
+		out.name("allTimeRuns").value(stats.getAllTimeRuns());
+		out.name("allTimeXp").value(stats.getAllTimeXp());
+		out.name("allTimeMs").value(stats.getAllTimeMs());
+		PersistenceJson.writeFloorInts(out, "allTimeFloorCompletions", stats::getAllTimeFloorCompletions);
+		out.name("allTimeChestsLooted").value(stats.getAllTimeChestsLooted());
+		out.name("allTimeGrandCoffins").value(stats.getAllTimeGrandCoffins());
+		out.name("bestRunTimeMs").value(stats.getBestRunTimeMs());
+		PersistenceJson.writeFloorTimes(out, "bestFloorTimes", stats.getBestFloorTimes());
+		PersistenceJson.writeFloorTimes(out, "bestRunTimesByFloors", stats.getBestRunTimesByFloors());
+		out.name("startingXp").value(stats.getStartingXp());
+		out.name("startDate").value(stats.getStartDate());
+		
+		String compact = compactHistory ? DailyHistoryCodec.encode(stats.getDailyHistory().values()) : null;
+		if (compact != null)
+		{
+			out.name("dailyHistoryCompact").value(compact);
+		}
+		else
+		{
+			out.name("dailyHistory").beginArray();
+			for (DailyStats day : stats.getDailyHistory().values())
+			{
+				dailyStatsAdapter.write(out, day);
+			}
+			out.endArray();
+		}
+		writeRollups(out, "weeklyHistory", stats.getWeeklyHistory());
+		writeRollups(out, "monthlyHistory", stats.getMonthlyHistory());
+		out.endObject();
+	}
+	
+	private void writeRollups(JsonWriter out, String name, Map<String, HistoryRollup> rollups) throws IOException
+	{
+		if (rollups.isEmpty())
+		{
+			return;
+		}
+		
+		out.name(name).beginArray();
+		for (HistoryRollup rollup : rollups.values())
+		{
+			out.beginObject();
+			out.name("days").value(rollup.getDays());
+			out.name("totals");
+			dailyStatsAdapter.write(out, rollup.getTotals());
+			out.endObject();
+		}
+		out.endArray();
+	}
+	
+	@Override
+	public PersistentStats read(JsonReader in) throws IOException
+	{
+		if (in.peek() == JsonToken.NULL)
+		{
+			in.nextNull();
+			return null;
+		}
+		
+		PersistentStats stats = new PersistentStats();
+		in.beginObject();
+		while (in.hasNext())
+		{
+			switch (in.nextName())
+			{
+				case "allTimeRuns":
+					stats.setAllTimeRuns(in.nextInt());
+					break;
+				case "allTimeXp":
+					stats.setAllTimeXp(in.nextInt());
+					break;
+				case "allTimeMs":
+					stats.setAllTimeMs(in.nextLong());
+					break;
+				case "allTimeFloorCompletions":
+					stats.setAllTimeFloorCompletions(PersistenceJson.readFloorInts(in));
+					break;
+				case "allTimeChestsLooted":
+					stats.setAllTimeChestsLooted(in.nextInt());
+					break;
+				case "allTimeGrandCoffins":
+					stats.setAllTimeGrandCoffins(in.nextInt());
+					break;
+				case "bestRunTimeMs":
+					stats.setBestRunTimeMs(in.nextLong());
+					break;
+				case "bestFloorTimes":
+					stats.setBestFloorTimes(PersistenceJson.readFloorTimes(in));
+					break;
+				case "bestRunTimesByFloors":
+					stats.setBestRunTimesByFloors(PersistenceJson.readFloorTimes(in));
+					break;
+				case "startingXp":
+					stats.setStartingXp(in.nextInt());
+					break;
+				case "startDate":
+					stats.setStartDate(PersistenceJson.readString(in));
+					break;
+				case "dailyHistory":
+					readDailyHistory(in, stats.getDailyHistory());
+					break;
+				case "dailyHistoryCompact":
+					for (DailyStats day : DailyHistoryCodec.decode(in.nextString()))
+					{
+						stats.getDailyHistory().put(day);
+					}
+					break;
+				case "weeklyHistory":
+					readRollups(in, stats.getWeeklyHistory());
+					break;
+				case "monthlyHistory":
+					readRollups(in, stats.getMonthlyHistory());
+					break;
+				default:
+					in.skipValue();
+					break;
+			}
+		}
+		in.endObject();
+		return stats;
+	}
+	
+	private void readRollups(JsonReader in, Map<String, HistoryRollup> rollups) throws IOException
+	{
+		in.beginArray();
+		while (in.hasNext())
+		{
+			HistoryRollup rollup = new HistoryRollup();
+			in.beginObject();
+			while (in.hasNext())
+			{
+				switch (in.nextName())
+				{
+					case "days":
+						rollup.setDays(in.nextInt());
+						break;
+					case "totals":
+						rollup.setTotals(dailyStatsAdapter.read(in));
+						break;
+					default:
+						in.skipValue();
+						break;
+				}
+			}
+			in.endObject();
+			
+			if (rollup.getTotals() != null && rollup.getTotals().getDate() != null)
+			{
+				rollup.setStart(rollup.getTotals().getDate());
+				rollups.put(rollup.getStart(), rollup);
+			}
+		}
+		in.endArray();
+	}
+	
+	private void readDailyHistory(JsonReader in, DailyHistory history) throws IOException
+	{
+		if (in.peek() == JsonToken.BEGIN_ARRAY)
+		{
+			in.beginArray();
+			while (in.hasNext())
+			{
+				DailyStats day = dailyStatsAdapter.read(in);
+				if (day != null && day.getDate() != null)
+				{
+					history.put(day);
+				}
+			}
+			in.endArray();
+		}
+		else if (in.peek() == JsonToken.BEGIN_OBJECT)
+		{
+			// Reflective layout: keyed by date
+			in.beginObject();
+			while (in.hasNext())
+			{
+				String date = in.nextName();
+				DailyStats day = dailyStatsAdapter.read(in);
+				if (day != null)
+				{
+					if (day.getDate() == null)
+					{
+						day.setDate(date);
+					}
+					history.put(day);
+				}
+			}
+			in.endObject();
+		}
+		else
+		{
+			in.skipValue();
+		}
+	}
+}
@@ -0,0 +1,231 @@
+package com.hallowedsep;
+
+/**
+ * The most recent runs of a session, oldest dropped first, as a ring buffer of parallel arrays.
+ * Each slot also holds the running totals from before its run was added, so the sum or average
+ * over the last n runs is one subtraction instead of a loop.
+ */
+public final class RecentRunWindow
+{
+	public static final int DEFAULT_CAPACITY = 50;
+	
+	private int[] xp;
+	private long[] durationMs;
+	private int[] highestFloor;
+	private boolean[] completed;
+	private long[] timestamp;
+	
+	// Totals over every run added before the one in the slot
+	private long[] xpBefore;
+	private long[] durationBefore;
+	private long[] completedBefore;
+	
+	// Totals over every run added so far
+	private long xpTotal;
+	private long durationTotal;
+	private long completedTotal;
+	
+	// Slot the next run is written to
+	private int head;
+	private int size;
+	
+	public RecentRunWindow()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+	
+	public RecentRunWindow(int capacity)
+	{
+		allocate(Math.max(1, capacity));
+	}
+	
+	private void allocate(int capacity)
+	{
+		xp = new int[capacity];
+		durationMs = new long[capacity];
+		highestFloor = new int[capacity];
+		completed = new boolean[capacity];
+		timestamp = new long[capacity];
+		xpBefore = new long[capacity];
+		durationBefore = new long[capacity];
+		completedBefore = new long[capacity];
+	}
+	
+	public int capacity()
+	{
+		return xp.length;
+	}
+	
+	public int size()
+	{
+		return size;
+	}
+	
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+	
+	/**
+	 * Add a run, replacing the oldest if the window is full.
+	 */
+	public void add(int runXp, long runDurationMs, int runHighestFloor, boolean runCompleted, long runTimestamp)
+	{
+		int slot = head;
+		xp[slot] = runXp;
+		durationMs[slot] = runDurationMs;
+		highestFloor[slot] = runHighestFloor;
+		completed[slot] = runCompleted;
+		timestamp[slot] = runTimestamp;
+		xpBefore[slot] = xpTotal;
+		durationBefore[slot] = durationTotal;
+		completedBefore[slot] = completedTotal;
+		xpTotal += runXp;
+		durationTotal += runDurationMs;
+		completedTotal += runCompleted ? 1 : 0;
+		
+		head = (head + 1) % capacity();
+		if (size < capacity())
+		{
+			size++;
+		}
+	}
+	
+	/**
+	 * Change the capacity, keeping the newest runs that fit.
+	 */
+	public void resize(int capacity)
+	{
+		capacity = Math.max(1, capacity);
+		if (capacity == capacity())
+		{
+			return;
+		}
+		
+		RecentRunWindow resized = new RecentRunWindow(capacity);
+		for (int i = Math.max(0, size - capacity); i < size; i++)
+		{
+			int slot = slot(i);
+			resized.add(xp[slot], durationMs[slot], highestFloor[slot], completed[slot], timestamp[slot]);
+		}
+		takeFrom(resized);
+	}
+	
+	public RecentRunWindow copy()
+	{
+		RecentRunWindow copy = new RecentRunWindow(capacity());
+		copy.head = head;
+		copy.size = size;
+		System.arraycopy(xp, 0, copy.xp, 0, xp.length);
+		System.arraycopy(durationMs, 0, copy.durationMs, 0, durationMs.length);
+		System.arraycopy(highestFloor, 0, copy.highestFloor, 0, highestFloor.length);
+		System.arraycopy(completed, 0, copy.completed, 0, completed.length);
+		System.arraycopy(timestamp, 0, copy.timestamp, 0, timestamp.length);
+		System.arraycopy(xpBefore, 0, copy.xpBefore, 0, xpBefore.length);
+		System.arraycopy(durationBefore, 0, copy.durationBefore, 0, durationBefore.length);
+		System.arraycopy(completedBefore, 0, copy.completedBefore, 0, completedBefore.length);
+		copy.xpTotal = xpTotal;
+		copy.durationTotal = durationTotal;
+		copy.completedTotal = completedTotal;
+		return copy;
+	}
+	
+	private void takeFrom(RecentRunWindow other)
+	{
+		xp = other.xp;
+		durationMs = other.durationMs;
+		highestFloor = other.highestFloor;
+		completed = other.completed;
+		timestamp = other.timestamp;
+		xpBefore = other.xpBefore;
+		durationBefore = other.durationBefore;
+		completedBefore = other.completedBefore;
+		xpTotal = other.xpTotal;
+		durationTotal = other.durationTotal;
+		completedTotal = other.completedTotal;
+		head = other.head;
+		size = other.size;
+	}
+	
+	// Runs are indexed 0 (oldest) to size() - 1 (newest)
+	
+	public int getXp(int index)
+	{
+		return xp[slot(index)];
+	}
+	
+	public long getDurationMs(int index)
+	{
+		return durationMs[slot(index)];
+	}
+	
+	public int getHighestFloor(int index)
+	{
+		return highestFloor[slot(index)];
+	}
+	
+	public boolean isCompleted(int index)
+	{
+		return completed[slot(index)];
+	}
+	
+	public long getTimestamp(int index)
+	{
+		return timestamp[slot(index)];
+	}
+	
+	/**
+	 * @param count runs to include, clamped to the runs held
+	 */
+	public long sumXp(int count)
+	{
+		return sum(xpTotal, xpBefore, count);
+	}
+	
+	public long sumDurationMs(int count)
+	{
+		return sum(durationTotal, durationBefore, count);
+	}
+	
+	public int countCompleted(int count)
+	{
+		return (int) sum(completedTotal, completedBefore, count);
+	}
+	
+	public double averageXp(int count)
+	{
+		int n = clamp(count);
+		return n == 0 ? 0 : (double) sumXp(n) / n;
+	}
+	
+	public double averageDurationMs(int count)
+	{
+		int n = clamp(count);
+		return n == 0 ? 0 : (double) sumDurationMs(n) / n;
+	}
+	
+	/**
+	 * @return the share of the last {@code count} runs that completed all five floors, 0 to 1
+	 */
+	public double completionRate(int count)
+	{
+		int n = clamp(count);
+		return n == 0 ? 0 : (double) countCompleted(n) / n;
+	}
+	
+	private long sum(long total, long[] before, int count)
+	{
+		int n = clamp(count);
+		return n == 0 ? 0 : total - before[slot(size - n)];
+	}
+	
+	private int clamp(int count)
+	{
+		return Math.max(0, Math.min(count, size));
+	}
+	
+	private int slot(int index)
+	{
+		return (head - size + index + capacity()) % capacity();
+	}
+}
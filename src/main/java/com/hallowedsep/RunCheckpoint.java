@@ -0,0 +1,16 @@
+package com.hallowedsep;
+
+import lombok.Data;
+
+/**
+ * The in-progress run as of its last floor transition, so a crash mid-run does not lose it.
+ */
+@Data
+public class RunCheckpoint
+{
+	private long savedAt;
+	// YYYY-MM-DD day the run started on
+	private String date;
+	private int floor;
+	private SepulchreRun run;
+}
@@ -0,0 +1,293 @@
+package com.hallowedsep;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Every finished run, stored column by column in primitive arrays rather than one object per run.
+ * Runs are kept in order of the day they count towards, which doubles as the date index: the
+ * runs of any day range are found by binary search. Per-floor columns are flattened, five
+ * values per run.
+ */
+public final class RunHistory
+{
+	private static final int FLOORS = FloorCounts.FLOORS;
+	private static final int INITIAL_CAPACITY = 256;
+	
+	static final int FLAG_COMPLETED = 1;
+	static final int FLAG_GRAND_COFFIN = 1 << 1;
+	
+	private int size;
+	
+	private int[] epochDay = new int[INITIAL_CAPACITY];
+	private long[] startMs = new long[INITIAL_CAPACITY];
+	private long[] durationMs = new long[INITIAL_CAPACITY];
+	private long[] pausedMs = new long[INITIAL_CAPACITY];
+	private int[] xp = new int[INITIAL_CAPACITY];
+	private byte[] highestFloor = new byte[INITIAL_CAPACITY];
+	private byte[] flags = new byte[INITIAL_CAPACITY];
+	// Bit n set when floor n's split came from the game's chat message
+	private byte[] timeFromGame = new byte[INITIAL_CAPACITY];
+	
+	// Five per run, floor 1 first; a split of 0 means the floor was not completed
+	private int[] floorSplitMs = new int[INITIAL_CAPACITY * FLOORS];
+	private byte[] chestsLooted = new byte[INITIAL_CAPACITY * FLOORS];
+	
+	public int size()
+	{
+		return size;
+	}
+	
+	/**
+	 * Add a finished run.
+	 *
+	 * @param day the epoch day the run counts towards
+	 * @return the index the run was stored at
+	 */
+	public int add(SepulchreRun run, int day)
+	{
+		int runFlags = (run.isCompleted() ? FLAG_COMPLETED : 0) | (run.isLootedGrandCoffin() ? FLAG_GRAND_COFFIN : 0);
+		int fromGame = 0;
+		int[] splits = new int[FLOORS];
+		int[] chests = new int[FLOORS];
+		for (int floor = 1; floor <= FLOORS; floor++)
+		{
+			SepulchreRun.FloorData data = run.getFloorData().get(floor);
+			if (data != null && data.isCompleted() && data.getDuration() != null)
+			{
+				splits[floor - 1] = (int) Math.min(Integer.MAX_VALUE, data.getDuration().toMillis());
+				if (data.isTimeFromGame())
+				{
+					fromGame |= 1 << floor;
+				}
+			}
+			chests[floor - 1] = run.getChestsLooted(floor);
+		}
+		
+		long start = run.getStartTime() != null ? run.getStartTime().toEpochMilli() : 0;
+		return add(day, start, run.getDuration().toMillis(), run.getPausedDurationMs(), run.getTotalXp(),
+			run.getHighestFloor(), runFlags, fromGame, splits, chests);
+	}
+	
+	int add(int day, long start, long duration, long paused, int runXp, int runHighestFloor, int runFlags,
+		int fromGame, int[] splits, int[] chests)
+	{
+		ensureCapacity(size + 1);
+		
+		// Runs almost always arrive in day order; a late one is shifted into place
+		int index = size;
+		if (size > 0 && epochDay[size - 1] > day)
+		{
+			index = upperBound(day);
+			shift(index);
+		}
+		
+		epochDay[index] = day;
+		startMs[index] = start;
+		durationMs[index] = duration;
+		pausedMs[index] = paused;
+		xp[index] = runXp;
+		highestFloor[index] = (byte) runHighestFloor;
+		flags[index] = (byte) runFlags;
+		timeFromGame[index] = (byte) fromGame;
+		for (int floor = 0; floor < FLOORS; floor++)
+		{
+			floorSplitMs[index * FLOORS + floor] = splits[floor];
+			chestsLooted[index * FLOORS + floor] = (byte) Math.min(Byte.MAX_VALUE, chests[floor]);
+		}
+		size++;
+		return index;
+	}
+	
+	/**
+	 * Add every run of {@code other} after the runs here.
+	 */
+	public void addAll(RunHistory other)
+	{
+		int[] splits = new int[FLOORS];
+		int[] chests = new int[FLOORS];
+		for (int i = 0; i < other.size; i++)
+		{
+			for (int floor = 0; floor < FLOORS; floor++)
+			{
+				splits[floor] = other.floorSplitMs[i * FLOORS + floor];
+				chests[floor] = other.chestsLooted[i * FLOORS + floor];
+			}
+			add(other.epochDay[i], other.startMs[i], other.durationMs[i], other.pausedMs[i], other.xp[i],
+				other.highestFloor[i], other.flags[i], other.timeFromGame[i], splits, chests);
+		}
+	}
+	
+	/**
+	 * @return the index of the first run counting towards {@code day} or later, or size() if none
+	 */
+	public int firstIndexOnOrAfter(int day)
+	{
+		int low = 0;
+		int high = size;
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (epochDay[mid] < day)
+			{
+				low = mid + 1;
+			}
+			else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
+	/**
+	 * @return the index after the last run counting towards {@code day} or earlier
+	 */
+	public int upperBound(int day)
+	{
+		return firstIndexOnOrAfter(day + 1);
+	}
+	
+	/**
+	 * Best split for a floor over the runs in [from, to), from game times only like the live PBs.
+	 *
+	 * @return the best split in milliseconds, or 0 if none
+	 */
+	public long bestFloorSplitMs(int floor, int from, int to)
+	{
+		long best = 0;
+		int bit = 1 << floor;
+		for (int i = from; i < to; i++)
+		{
+			int split = floorSplitMs[i * FLOORS + floor - 1];
+			if (split > 0 && (timeFromGame[i] & bit) != 0 && (best == 0 || split < best))
+			{
+				best = split;
+			}
+		}
+		return best;
+	}
+	
+	/**
+	 * Total XP over the runs in [from, to).
+	 */
+	public long sumXp(int from, int to)
+	{
+		long total = 0;
+		for (int i = from; i < to; i++)
+		{
+			total += xp[i];
+		}
+		return total;
+	}
+	
+	public int getEpochDay(int index)
+	{
+		return epochDay[index];
+	}
+	
+	public long getStartMs(int index)
+	{
+		return startMs[index];
+	}
+	
+	public long getDurationMs(int index)
+	{
+		return durationMs[index];
+	}
+	
+	public long getPausedMs(int index)
+	{
+		return pausedMs[index];
+	}
+	
+	public int getXp(int index)
+	{
+		return xp[index];
+	}
+	
+	public int getHighestFloor(int index)
+	{
+		return highestFloor[index];
+	}
+	
+	public boolean isCompleted(int index)
+	{
+		return (flags[index] & FLAG_COMPLETED) != 0;
+	}
+	
+	public boolean isLootedGrandCoffin(int index)
+	{
+		return (flags[index] & FLAG_GRAND_COFFIN) != 0;
+	}
+	
+	int getFlags(int index)
+	{
+		return flags[index];
+	}
+	
+	int getTimeFromGameBits(int index)
+	{
+		return timeFromGame[index];
+	}
+	
+	/**
+	 * @return the floor's split, or null if the floor was not completed
+	 */
+	public Duration getFloorSplit(int index, int floor)
+	{
+		int split = getFloorSplitMs(index, floor);
+		return split > 0 ? Duration.ofMillis(split) : null;
+	}
+	
+	public int getFloorSplitMs(int index, int floor)
+	{
+		return floorSplitMs[index * FLOORS + floor - 1];
+	}
+	
+	public boolean isTimeFromGame(int index, int floor)
+	{
+		return (timeFromGame[index] & (1 << floor)) != 0;
+	}
+	
+	public int getChestsLooted(int index, int floor)
+	{
+		return chestsLooted[index * FLOORS + floor - 1];
+	}
+	
+	private void ensureCapacity(int capacity)
+	{
+		if (capacity <= epochDay.length)
+		{
+			return;
+		}
+		
+		int grown = Math.max(capacity, epochDay.length * 2);
+		epochDay = Arrays.copyOf(epochDay, grown);
+		startMs = Arrays.copyOf(startMs, grown);
+		durationMs = Arrays.copyOf(durationMs, grown);
+		pausedMs = Arrays.copyOf(pausedMs, grown);
+		xp = Arrays.copyOf(xp, grown);
+		highestFloor = Arrays.copyOf(highestFloor, grown);
+		flags = Arrays.copyOf(flags, grown);
+		timeFromGame = Arrays.copyOf(timeFromGame, grown);
+		floorSplitMs = Arrays.copyOf(floorSplitMs, grown * FLOORS);
+		chestsLooted = Arrays.copyOf(chestsLooted, grown * FLOORS);
+	}
+	
+	// Open a gap at index; capacity for one more run is already ensured
+	private void shift(int index)
+	{
+		int count = size - index;
+		System.arraycopy(epochDay, index, epochDay, index + 1, count);
+		System.arraycopy(startMs, index, startMs, index + 1, count);
+		System.arraycopy(durationMs, index, durationMs, index + 1, count);
+		System.arraycopy(pausedMs, index, pausedMs, index + 1, count);
+		System.arraycopy(xp, index, xp, index + 1, count);
+		System.arraycopy(highestFloor, index, highestFloor, index + 1, count);
+		System.arraycopy(flags, index, flags, index + 1, count);
+		System.arraycopy(timeFromGame, index, timeFromGame, index + 1, count);
+		System.arraycopy(floorSplitMs, index * FLOORS, floorSplitMs, (index + 1) * FLOORS, count * FLOORS);
+		System.arraycopy(chestsLooted, index * FLOORS, chestsLooted, (index + 1) * FLOORS, count * FLOORS);
+	}
+}
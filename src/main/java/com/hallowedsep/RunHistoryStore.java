@@ -0,0 +1,187 @@
+package com.hallowedsep;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * File storage for {@link RunHistory}: a short header followed by one fixed-width binary record
+ * per run, so recording a run is a single append and loading is one sequential read.
+ * A crash mid-append leaves a partial last record, which is dropped before the next append.
+ */
+@Slf4j
+class RunHistoryStore
+{
+	private static final String RUNS_FILE = "runs.bin";
+	
+	private static final int MAGIC = 0x48535231; // "HSR1"
+	private static final int HEADER_SIZE = 6;
+	private static final int FLOORS = FloorCounts.FLOORS;
+	
+	// epochDay, startMs, durationMs, pausedMs, xp, highestFloor, flags, timeFromGame, splits, chests.
+	// Files with longer records (written by a later version) are read by skipping the extra bytes.
+	static final int RECORD_SIZE = 4 + 8 + 8 + 8 + 4 + 1 + 1 + 1 + FLOORS * 4 + FLOORS;
+	
+	private final Path path;
+	
+	RunHistoryStore(File directory)
+	{
+		this.path = directory.toPath().resolve(RUNS_FILE);
+	}
+	
+	/**
+	 * Encode one stored run. Called on the client thread so the append only writes bytes.
+	 */
+	static byte[] encode(RunHistory history, int index)
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+		buffer.putInt(history.getEpochDay(index));
+		buffer.putLong(history.getStartMs(index));
+		buffer.putLong(history.getDurationMs(index));
+		buffer.putLong(history.getPausedMs(index));
+		buffer.putInt(history.getXp(index));
+		buffer.put((byte) history.getHighestFloor(index));
+		buffer.put((byte) history.getFlags(index));
+		buffer.put((byte) history.getTimeFromGameBits(index));
+		for (int floor = 1; floor <= FLOORS; floor++)
+		{
+			buffer.putInt(history.getFloorSplitMs(index, floor));
+		}
+		for (int floor = 1; floor <= FLOORS; floor++)
+		{
+			buffer.put((byte) history.getChestsLooted(index, floor));
+		}
+		return buffer.array();
+	}
+	
+	/**
+	 * @return every stored run; empty if there is no file. An unreadable file is moved aside.
+	 */
+	synchronized RunHistory load() throws IOException
+	{
+		RunHistory history = new RunHistory();
+		if (!Files.exists(path))
+		{
+			return history;
+		}
+		
+		ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+		int recordSize = readRecordSize(data);
+		if (recordSize < 0)
+		{
+			Path aside = path.resolveSibling(RUNS_FILE + ".bad");
+			Files.move(path, aside, StandardCopyOption.REPLACE_EXISTING);
+			log.warn("Run history file is unreadable, moved it to {}", aside);
+			return history;
+		}
+		
+		int[] splits = new int[FLOORS];
+		int[] chests = new int[FLOORS];
+		int count = (data.capacity() - HEADER_SIZE) / recordSize;
+		for (int i = 0; i < count; i++)
+		{
+			int start = HEADER_SIZE + i * recordSize;
+			data.position(start);
+			int day = data.getInt();
+			long startMs = data.getLong();
+			long durationMs = data.getLong();
+			long pausedMs = data.getLong();
+			int xp = data.getInt();
+			int highestFloor = data.get();
+			int flags = data.get();
+			int timeFromGame = data.get();
+			for (int floor = 0; floor < FLOORS; floor++)
+			{
+				splits[floor] = data.getInt();
+			}
+			for (int floor = 0; floor < FLOORS; floor++)
+			{
+				chests[floor] = data.get();
+			}
+			history.add(day, startMs, durationMs, pausedMs, xp, highestFloor, flags, timeFromGame, splits, chests);
+		}
+		return history;
+	}
+	
+	/**
+	 * Append one record from {@link #encode}, dropping a partial record left by an earlier crash.
+	 */
+	synchronized void append(byte[] record) throws IOException
+	{
+		Files.createDirectories(path.getParent());
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+			StandardOpenOption.WRITE))
+		{
+			int recordSize = RECORD_SIZE;
+			long size = channel.size();
+			if (size < HEADER_SIZE)
+			{
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				header.putInt(MAGIC);
+				header.putShort((short) RECORD_SIZE);
+				header.flip();
+				channel.truncate(0);
+				writeFully(channel, header, 0);
+				size = HEADER_SIZE;
+			}
+			else
+			{
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				channel.read(header, 0);
+				header.flip();
+				recordSize = readRecordSize(header);
+				if (recordSize < 0)
+				{
+					throw new IOException("Unreadable run history header in " + path);
+				}
+				
+				long aligned = HEADER_SIZE + (size - HEADER_SIZE) / recordSize * recordSize;
+				if (aligned != size)
+				{
+					log.warn("Dropping partial record at the end of the run history");
+					channel.truncate(aligned);
+					size = aligned;
+				}
+			}
+			
+			// Pad to the file's record size if a later version wrote it
+			ByteBuffer buffer = ByteBuffer.allocate(recordSize);
+			buffer.put(record);
+			buffer.rewind();
+			writeFully(channel, buffer, size);
+		}
+	}
+	
+	synchronized void delete() throws IOException
+	{
+		Files.deleteIfExists(path);
+	}
+	
+	/**
+	 * @return the record size from the header, or -1 if it is not a run history header
+	 */
+	private static int readRecordSize(ByteBuffer data)
+	{
+		if (data.remaining() < HEADER_SIZE || data.getInt() != MAGIC)
+		{
+			return -1;
+		}
+		int recordSize = data.getShort() & 0xFFFF;
+		return recordSize >= RECORD_SIZE ? recordSize : -1;
+	}
+	
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+	{
+		while (buffer.hasRemaining())
+		{
+			position += channel.write(buffer, position);
+		}
+	}
+}
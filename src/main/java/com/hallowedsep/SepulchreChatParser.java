@@ -0,0 +1,346 @@
+package com.hallowedsep;
+
+import lombok.Getter;
+
+/**
+ * Classifies Hallowed Sepulchre game messages in a single pass over their characters.
+ * Colour tags are skipped wherever they appear, numbers are read in place, and lines that
+ * cannot be a Sepulchre message are rejected after the first visible character or, for
+ * lines not starting with "You"/"Floor", after one search for the lobby phrase.
+ * One instance is reused on the client thread; parsing never allocates.
+ */
+final class SepulchreChatParser
+{
+	enum Type
+	{
+		NONE,
+		// "You venture down into the Hallowed Sepulchre"
+		ENTER_FIRST_FLOOR,
+		// "You venture further down into the Hallowed Sepulchre"
+		ENTER_NEXT_FLOOR,
+		// "You jump across the platform." / "You squeeze through the gate"
+		BETWEEN_FLOORS,
+		// "You have completed Floor 4 of the Hallowed Sepulchre! Total completions: 113."
+		FLOOR_COMPLETED,
+		// "Floor 4 time: 2:05. Personal best: 1:38"
+		FLOOR_TIME,
+		// "... teleports you back to the lobby" / "... make your way back to the lobby"
+		RETURNED_TO_LOBBY
+	}
+	
+	private static final String LOBBY = "back to the lobby";
+	private static final String LOBBY_TELEPORT = "teleports you ";
+	private static final String LOBBY_WALK = "make your way ";
+	private static final String TOTAL_COMPLETIONS = "Total completions:";
+	private static final String PERSONAL_BEST = "Personal best:";
+	
+	private String message;
+	private int pos;
+	
+	// Results of the last parse
+	@Getter
+	private int floor;
+	@Getter
+	private int completions;
+	@Getter
+	private long floorTimeMs;
+	@Getter
+	private long personalBestMs;
+	
+	Type parse(String message)
+	{
+		this.message = message;
+		floor = 0;
+		completions = -1;
+		floorTimeMs = 0;
+		personalBestMs = 0;
+		
+		pos = skipTags(0);
+		if (pos >= message.length())
+		{
+			return Type.NONE;
+		}
+		
+		switch (message.charAt(pos))
+		{
+			case 'Y':
+				return parseYou();
+			case 'F':
+				return parseFloorTime();
+			default:
+				return parseLobby(pos);
+		}
+	}
+	
+	private Type parseYou()
+	{
+		if (!literal("You "))
+		{
+			return Type.NONE;
+		}
+		
+		switch (peek())
+		{
+			case 'v':
+				if (!literal("venture "))
+				{
+					return Type.NONE;
+				}
+				if (peek() == 'f')
+				{
+					return literal("further down into the Hallowed Sepulchre") ? Type.ENTER_NEXT_FLOOR : Type.NONE;
+				}
+				return literal("down into the Hallowed Sepulchre") ? Type.ENTER_FIRST_FLOOR : Type.NONE;
+			case 'j':
+				return literal("jump across the platform.") ? Type.BETWEEN_FLOORS : Type.NONE;
+			case 's':
+				return literal("squeeze through the gate") ? Type.BETWEEN_FLOORS : Type.NONE;
+			case 'h':
+				return parseFloorCompleted();
+			case 'm':
+				return literal(LOBBY_WALK) && literal(LOBBY) ? Type.RETURNED_TO_LOBBY : Type.NONE;
+			default:
+				return Type.NONE;
+		}
+	}
+	
+	private Type parseFloorCompleted()
+	{
+		if (!literal("have completed Floor "))
+		{
+			return Type.NONE;
+		}
+		
+		floor = readInt();
+		if (floor < 1 || floor > 5)
+		{
+			return Type.NONE;
+		}
+		
+		int totalIdx = message.indexOf(TOTAL_COMPLETIONS, pos);
+		if (totalIdx < 0)
+		{
+			return Type.NONE;
+		}
+		
+		pos = totalIdx + TOTAL_COMPLETIONS.length();
+		completions = readInt();
+		return Type.FLOOR_COMPLETED;
+	}
+	
+	private Type parseFloorTime()
+	{
+		if (!literal("Floor "))
+		{
+			return Type.NONE;
+		}
+		
+		floor = readInt();
+		if (floor < 1 || floor > 5 || !literal(" time:"))
+		{
+			return Type.NONE;
+		}
+		
+		floorTimeMs = readDuration();
+		
+		int pbIdx = message.indexOf(PERSONAL_BEST, pos);
+		if (pbIdx >= 0)
+		{
+			pos = pbIdx + PERSONAL_BEST.length();
+			personalBestMs = readDuration();
+		}
+		return Type.FLOOR_TIME;
+	}
+	
+	private Type parseLobby(int from)
+	{
+		int idx = message.indexOf(LOBBY, from);
+		if (idx < 0)
+		{
+			return Type.NONE;
+		}
+		
+		if (endsWithAt(idx, LOBBY_TELEPORT) || endsWithAt(idx, LOBBY_WALK))
+		{
+			return Type.RETURNED_TO_LOBBY;
+		}
+		return Type.NONE;
+	}
+	
+	private boolean endsWithAt(int end, String prefix)
+	{
+		int start = end - prefix.length();
+		return start >= 0 && message.regionMatches(start, prefix, 0, prefix.length());
+	}
+	
+	private char peek()
+	{
+		pos = skipTags(pos);
+		return pos < message.length() ? message.charAt(pos) : 0;
+	}
+	
+	/**
+	 * Consume the literal at the cursor. Tags in the message are skipped and a space in
+	 * the literal matches any run of whitespace.
+	 */
+	private boolean literal(String literal)
+	{
+		int i = pos;
+		int length = message.length();
+		for (int j = 0; j < literal.length(); j++)
+		{
+			i = skipTags(i);
+			char expected = literal.charAt(j);
+			if (expected == ' ')
+			{
+				if (i >= length || !isSpace(message.charAt(i)))
+				{
+					return false;
+				}
+				while (i < length && isSpace(message.charAt(i)))
+				{
+					i = skipTags(i + 1);
+				}
+				continue;
+			}
+			if (i >= length || message.charAt(i) != expected)
+			{
+				return false;
+			}
+			i++;
+		}
+		pos = i;
+		return true;
+	}
+	
+	/**
+	 * Read an integer at the cursor, allowing leading whitespace/tags and thousands separators.
+	 *
+	 * @return the value, or -1 if there are no digits
+	 */
+	private int readInt()
+	{
+		skipSpaces();
+		int length = message.length();
+		int value = 0;
+		boolean digits = false;
+		while (pos < length)
+		{
+			char c = message.charAt(pos);
+			if (c >= '0' && c <= '9')
+			{
+				if (value < Integer.MAX_VALUE / 10)
+				{
+					value = value * 10 + (c - '0');
+				}
+				digits = true;
+				pos++;
+			}
+			else if (c == ',' && digits)
+			{
+				pos++;
+			}
+			else if (c == '<')
+			{
+				pos = skipTags(pos);
+			}
+			else
+			{
+				break;
+			}
+		}
+		return digits ? value : -1;
+	}
+	
+	/**
+	 * Read a [h:]m:ss[.cc] duration at the cursor.
+	 *
+	 * @return milliseconds, or 0 if no duration is present
+	 */
+	private long readDuration()
+	{
+		skipSpaces();
+		int length = message.length();
+		long seconds = 0;
+		long group = 0;
+		int groups = 0;
+		boolean digits = false;
+		while (pos < length)
+		{
+			char c = message.charAt(pos);
+			if (c >= '0' && c <= '9')
+			{
+				group = group * 10 + (c - '0');
+				digits = true;
+				pos++;
+			}
+			else if (c == ':' && digits && groups < 2)
+			{
+				seconds = seconds * 60 + group;
+				group = 0;
+				groups++;
+				digits = false;
+				pos++;
+			}
+			else
+			{
+				break;
+			}
+		}
+		
+		if (groups == 0 || !digits)
+		{
+			return 0;
+		}
+		long ms = (seconds * 60 + group) * 1000;
+		
+		// Optional hundredths/thousandths from the precise timing setting
+		if (pos + 1 < length && message.charAt(pos) == '.' && isDigit(message.charAt(pos + 1)))
+		{
+			pos++;
+			int scale = 100;
+			while (pos < length && isDigit(message.charAt(pos)))
+			{
+				ms += (message.charAt(pos) - '0') * scale;
+				scale /= 10;
+				pos++;
+			}
+		}
+		return ms;
+	}
+	
+	private void skipSpaces()
+	{
+		int length = message.length();
+		pos = skipTags(pos);
+		while (pos < length && isSpace(message.charAt(pos)))
+		{
+			pos = skipTags(pos + 1);
+		}
+	}
+	
+	private int skipTags(int i)
+	{
+		int length = message.length();
+		while (i < length && message.charAt(i) == '<')
+		{
+			int end = message.indexOf('>', i);
+			if (end < 0)
+			{
+				return length;
+			}
+			i = end + 1;
+		}
+		return i;
+	}
+	
+	private static boolean isSpace(char c)
+	{
+		return c == ' ' || c == '\u00A0';
+	}
+	
+	private static boolean isDigit(char c)
+	{
+		return c >= '0' && c <= '9';
+	}
+}
@@ -1,9 +1,15 @@
 package com.hallowedsep;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,15 +26,57 @@ public class SepulchreRun
 	private boolean completed;
 	private boolean lootedGrandCoffin;
 	
+	@Getter(AccessLevel.NONE)
 	private Map<Integer, FloorData> floorData = new HashMap<>();
-	private Map<Integer, Integer> chestsLootedPerFloor = new HashMap<>();
+	private FloorCounts chestsLootedPerFloor = new FloorCounts();
+	private XpTimeline xpTimeline = new XpTimeline();
+	
+	// Kept in step by the methods that change floorData and chestsLootedPerFloor
+	@Setter(AccessLevel.NONE)
+	private transient int floorsCompleted;
+	@Setter(AccessLevel.NONE)
+	private transient int totalChestsLooted;
+	
+	/**
+	 * The floors started or completed, keyed by floor number. The map is read-only; a caller that
+	 * changes a floor's completed flag directly must call {@link #recount()}.
+	 */
+	public Map<Integer, FloorData> getFloorData()
+	{
+		return Collections.unmodifiableMap(floorData);
+	}
+	
+	public void setFloorData(Map<Integer, FloorData> floorData)
+	{
+		this.floorData = floorData;
+		recount();
+	}
+	
+	public void setChestsLootedPerFloor(FloorCounts chestsLootedPerFloor)
+	{
+		this.chestsLootedPerFloor = chestsLootedPerFloor;
+		recount();
+	}
+	
+	/**
+	 * Recompute the maintained totals, after a floor's completed flag was changed directly
+	 */
+	public void recount()
+	{
+		floorsCompleted = (int) floorData.values().stream().filter(FloorData::isCompleted).count();
+		totalChestsLooted = chestsLootedPerFloor.total();
+	}
 	
 	public void startFloor(int floor)
 	{
 		FloorData data = new FloorData();
 		data.setFloorNumber(floor);
 		data.setStartTime(Instant.now());
-		floorData.put(floor, data);
+		FloorData replaced = floorData.put(floor, data);
+		if (replaced != null && replaced.isCompleted())
+		{
+			floorsCompleted--;
+		}
 	}
 	
 	public void completeFloor(int floor, Duration duration)
@@ -41,6 +89,10 @@ public class SepulchreRun
 			{
 				data.setDuration(duration);
 			}
+			if (!data.isCompleted())
+			{
+				floorsCompleted++;
+			}
 			data.setCompleted(true);
 			if (!data.isTimeFromGame())
 			{
@@ -55,9 +107,10 @@ public class SepulchreRun
 			data.setCompleted(true);
 			data.setTimeFromGame(false);
 			floorData.put(floor, data);
+			floorsCompleted++;
 		}
 	}
-
+	
 	public void setFloorTimeFromGame(int floor, Duration duration)
 	{
 		FloorData data = floorData.get(floor);
@@ -67,6 +120,10 @@ public class SepulchreRun
 			data.setFloorNumber(floor);
 			floorData.put(floor, data);
 		}
+		if (!data.isCompleted())
+		{
+			floorsCompleted++;
+		}
 		data.setDuration(duration);
 		data.setCompleted(true);
 		data.setTimeFromGame(true);
@@ -77,19 +134,39 @@ public class SepulchreRun
 		this.totalXp += xp;
 	}
 	
+	/**
+	 * Add an XP drop, credited to {@code floor} and recorded in the timeline at its offset from the start.
+	 */
+	public void addXpDrop(int xp, int floor, long timeMs)
+	{
+		totalXp += xp;
+		FloorData data = floorData.get(floor);
+		if (data != null)
+		{
+			data.setXpGained(data.getXpGained() + xp);
+		}
+		
+		long offsetMs = startTime != null ? timeMs - startTime.toEpochMilli() : 0;
+		xpTimeline.add((int) Math.max(0, Math.min(Integer.MAX_VALUE, offsetMs)), xp, floor);
+	}
+	
 	public void incrementChestsLooted(int floor)
 	{
-		chestsLootedPerFloor.merge(floor, 1, Integer::sum);
+		chestsLootedPerFloor.increment(floor);
+		if (floor >= 1 && floor <= FloorCounts.FLOORS)
+		{
+			totalChestsLooted++;
+		}
 	}
 	
 	public int getChestsLooted(int floor)
 	{
-		return chestsLootedPerFloor.getOrDefault(floor, 0);
+		return chestsLootedPerFloor.get(floor);
 	}
 	
 	public int getTotalChestsLooted()
 	{
-		return chestsLootedPerFloor.values().stream().mapToInt(Integer::intValue).sum();
+		return totalChestsLooted;
 	}
 	
 	public Duration getDuration()
@@ -110,6 +187,14 @@ public class SepulchreRun
 		return Duration.ofMillis(effectiveMs);
 	}
 	
+	/**
+	 * The day the run counts towards: the day it started, so a run that crosses midnight stays on one day.
+	 */
+	public LocalDate getStartDate()
+	{
+		return startTime != null ? LocalDate.ofInstant(startTime, ZoneId.systemDefault()) : LocalDate.now();
+	}
+	
 	public Duration getFloorDuration(int floor)
 	{
 		FloorData data = floorData.get(floor);
@@ -122,14 +207,14 @@ public class SepulchreRun
 	
 	public int getFloorsCompleted()
 	{
-		return (int) floorData.values().stream().filter(FloorData::isCompleted).count();
+		return floorsCompleted;
 	}
-
+	
 	public boolean isPaused()
 	{
 		return pausedAt != null;
 	}
-
+	
 	public void pause()
 	{
 		if (pausedAt == null)
@@ -137,12 +222,12 @@ public class SepulchreRun
 			pausedAt = Instant.now();
 		}
 	}
-
+	
 	public void resume()
 	{
 		resumeAt(Instant.now());
 	}
-
+	
 	public void resumeAt(Instant time)
 	{
 		if (pausedAt != null)
@@ -0,0 +1,209 @@
+package com.hallowedsep;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes floorData as an array of floors; each floor carries its own floorNumber.
+ * The XP timeline is written in its compact encoded form, and only when it has drops.
+ */
+public class SepulchreRunTypeAdapter extends TypeAdapter<SepulchreRun>
+{
+	@Override
+	public void write(JsonWriter out, SepulchreRun run) throws IOException
+	{
+		if (run == null)
+		{
+			out.nullValue();
+			return;
+		}
+		
+		out.beginObject();
+		PersistenceJson.writeInstant(out, "startTime", run.getStartTime());
+		PersistenceJson.writeInstant(out, "endTime", run.getEndTime());
+		PersistenceJson.writeInstant(out, "pausedAt", run.getPausedAt());
+		out.name("pausedDurationMs").value(run.getPausedDurationMs());
+		out.name("startXp").value(run.getStartXp());
+		out.name("totalXp").value(run.getTotalXp());
+		out.name("highestFloor").value(run.getHighestFloor());
+		out.name("completed").value(run.isCompleted());
+		out.name("lootedGrandCoffin").value(run.isLootedGrandCoffin());
+		PersistenceJson.writeFloorInts(out, "chestsLootedPerFloor", run::getChestsLooted);
+		
+		out.name("floorData").beginArray();
+		for (int floor = 1; floor <= PersistenceJson.FLOORS; floor++)
+		{
+			SepulchreRun.FloorData data = run.getFloorData().get(floor);
+			if (data != null)
+			{
+				writeFloor(out, floor, data);
+			}
+		}
+		out.endArray();
+		
+		if (run.getXpTimeline().size() > 0)
+		{
+			out.name("xpTimeline").value(run.getXpTimeline().encode());
+		}
+		out.endObject();
+	}
+	
+	private static void writeFloor(JsonWriter out, int floor, SepulchreRun.FloorData data) throws IOException
+	{
+		out.beginObject();
+		out.name("floorNumber").value(floor);
+		PersistenceJson.writeInstant(out, "startTime", data.getStartTime());
+		PersistenceJson.writeInstant(out, "endTime", data.getEndTime());
+		PersistenceJson.writeDuration(out, "duration", data.getDuration());
+		out.name("completed").value(data.isCompleted());
+		out.name("timeFromGame").value(data.isTimeFromGame());
+		out.name("xpGained").value(data.getXpGained());
+		out.name("chestsLooted").value(data.getChestsLooted());
+		out.name("deaths").value(data.getDeaths());
+		out.endObject();
+	}
+	
+	@Override
+	public SepulchreRun read(JsonReader in) throws IOException
+	{
+		if (in.peek() == JsonToken.NULL)
+		{
+			in.nextNull();
+			return null;
+		}
+		
+		SepulchreRun run = new SepulchreRun();
+		in.beginObject();
+		while (in.hasNext())
+		{
+			switch (in.nextName())
+			{
+				case "startTime":
+					run.setStartTime(PersistenceJson.readInstant(in));
+					break;
+				case "endTime":
+					run.setEndTime(PersistenceJson.readInstant(in));
+					break;
+				case "pausedAt":
+					run.setPausedAt(PersistenceJson.readInstant(in));
+					break;
+				case "pausedDurationMs":
+					run.setPausedDurationMs(in.nextLong());
+					break;
+				case "startXp":
+					run.setStartXp(in.nextInt());
+					break;
+				case "totalXp":
+					run.setTotalXp(in.nextInt());
+					break;
+				case "highestFloor":
+					run.setHighestFloor(in.nextInt());
+					break;
+				case "completed":
+					run.setCompleted(in.nextBoolean());
+					break;
+				case "lootedGrandCoffin":
+					run.setLootedGrandCoffin(in.nextBoolean());
+					break;
+				case "chestsLootedPerFloor":
+					run.setChestsLootedPerFloor(PersistenceJson.readFloorInts(in));
+					break;
+				case "floorData":
+					run.setFloorData(readFloors(in));
+					break;
+				case "xpTimeline":
+					run.setXpTimeline(XpTimeline.decode(in.nextString()));
+					break;
+				default:
+					in.skipValue();
+					break;
+			}
+		}
+		in.endObject();
+		run.recount();
+		return run;
+	}
+	
+	private static Map<Integer, SepulchreRun.FloorData> readFloors(JsonReader in) throws IOException
+	{
+		Map<Integer, SepulchreRun.FloorData> floors = new HashMap<>();
+		if (in.peek() == JsonToken.BEGIN_ARRAY)
+		{
+			in.beginArray();
+			while (in.hasNext())
+			{
+				SepulchreRun.FloorData data = readFloor(in);
+				floors.put(data.getFloorNumber(), data);
+			}
+			in.endArray();
+		}
+		else if (in.peek() == JsonToken.BEGIN_OBJECT)
+		{
+			// Reflective layout: keyed by floor number
+			in.beginObject();
+			while (in.hasNext())
+			{
+				int floor = Integer.parseInt(in.nextName());
+				SepulchreRun.FloorData data = readFloor(in);
+				data.setFloorNumber(floor);
+				floors.put(floor, data);
+			}
+			in.endObject();
+		}
+		else
+		{
+			in.skipValue();
+		}
+		return floors;
+	}
+	
+	private static SepulchreRun.FloorData readFloor(JsonReader in) throws IOException
+	{
+		SepulchreRun.FloorData data = new SepulchreRun.FloorData();
+		in.beginObject();
+		while (in.hasNext())
+		{
+			switch (in.nextName())
+			{
+				case "floorNumber":
+					data.setFloorNumber(in.nextInt());
+					break;
+				case "startTime":
+					data.setStartTime(PersistenceJson.readInstant(in));
+					break;
+				case "endTime":
+					data.setEndTime(PersistenceJson.readInstant(in));
+					break;
+				case "duration":
+					data.setDuration(PersistenceJson.readDuration(in));
+					break;
+				case "completed":
+					data.setCompleted(in.nextBoolean());
+					break;
+				case "timeFromGame":
+					data.setTimeFromGame(in.nextBoolean());
+					break;
+				case "xpGained":
+					data.setXpGained(in.nextInt());
+					break;
+				case "chestsLooted":
+					data.setChestsLooted(in.nextInt());
+					break;
+				case "deaths":
+					data.setDeaths(in.nextInt());
+					break;
+				default:
+					in.skipValue();
+					break;
+			}
+		}
+		in.endObject();
+		return data;
+	}
+}
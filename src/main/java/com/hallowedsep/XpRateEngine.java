@@ -0,0 +1,207 @@
+package com.hallowedsep;
+
+/**
+ * Sliding-window XP totals for the live XP/hr. XP drops are kept in a ring buffer stamped with
+ * active time rather than wall-clock time: the session's time plus the current run's duration,
+ * which already leaves out paused and between-floor idle time the same way runs do. Each window
+ * keeps its running sum and the oldest drop still inside it, so a drop costs O(1) amortized.
+ * Client thread only; readers on other threads get a {@link Drops} copy of one window.
+ */
+final class XpRateEngine
+{
+	private static final XpRateWindow[] WINDOWS = { XpRateWindow.FIVE_MINUTES, XpRateWindow.FIFTEEN_MINUTES,
+		XpRateWindow.ONE_HOUR };
+	private static final int INITIAL_CAPACITY = 256;
+	
+	// Drop n is at n & mask
+	private long[] dropActiveMs = new long[INITIAL_CAPACITY];
+	private int[] dropXp = new int[INITIAL_CAPACITY];
+	private int mask = INITIAL_CAPACITY - 1;
+	private long nextDrop;
+	
+	// Per window: first drop still inside it and the XP of the drops from there on
+	private final long[] firstDrop = new long[WINDOWS.length];
+	private final long[] windowXp = new long[WINDOWS.length];
+	
+	// Active time when tracking started, so windows are never longer than what was observed
+	private long originMs;
+	
+	// Last copy handed out, reused while its window holds the same drops
+	private Drops captured;
+	
+	/**
+	 * Forget every drop and start observing at {@code activeMs}.
+	 */
+	void reset(long activeMs)
+	{
+		nextDrop = 0;
+		for (int w = 0; w < WINDOWS.length; w++)
+		{
+			firstDrop[w] = 0;
+			windowXp[w] = 0;
+		}
+		originMs = activeMs;
+		captured = null;
+	}
+	
+	void record(int xp, long activeMs)
+	{
+		// The longest window holds the oldest drop still needed
+		if (nextDrop - firstDrop[WINDOWS.length - 1] == dropXp.length)
+		{
+			grow();
+		}
+		
+		int slot = (int) (nextDrop & mask);
+		dropActiveMs[slot] = activeMs;
+		dropXp[slot] = xp;
+		nextDrop++;
+		for (int w = 0; w < WINDOWS.length; w++)
+		{
+			windowXp[w] += xp;
+		}
+		advance(activeMs);
+	}
+	
+	/**
+	 * Drop the XP that has slid out of each window by {@code activeMs}.
+	 */
+	void advance(long activeMs)
+	{
+		for (int w = 0; w < WINDOWS.length; w++)
+		{
+			long cutoff = activeMs - WINDOWS[w].getWindowMs();
+			while (firstDrop[w] < nextDrop && dropActiveMs[(int) (firstDrop[w] & mask)] <= cutoff)
+			{
+				windowXp[w] -= dropXp[(int) (firstDrop[w] & mask)];
+				firstDrop[w]++;
+			}
+		}
+	}
+	
+	/**
+	 * @return the XP gained within {@code window} as of the last advance; not valid for SESSION
+	 */
+	long getWindowXp(XpRateWindow window)
+	{
+		return windowXp[indexOf(window)];
+	}
+	
+	long getOriginMs()
+	{
+		return originMs;
+	}
+	
+	/**
+	 * Copy the drops inside {@code window} as of the last advance, so the rate can keep sliding
+	 * after the copy is taken. Not valid for SESSION.
+	 */
+	Drops capture(XpRateWindow window)
+	{
+		int w = indexOf(window);
+		if (captured != null && captured.window == window && captured.firstDrop == firstDrop[w]
+			&& captured.nextDrop == nextDrop && captured.originMs == originMs)
+		{
+			return captured;
+		}
+		
+		int count = (int) (nextDrop - firstDrop[w]);
+		long[] activeMs = new long[count];
+		long[] xpBefore = new long[count + 1];
+		for (int i = 0; i < count; i++)
+		{
+			int slot = (int) ((firstDrop[w] + i) & mask);
+			activeMs[i] = dropActiveMs[slot];
+			xpBefore[i + 1] = xpBefore[i] + dropXp[slot];
+		}
+		captured = new Drops(window, firstDrop[w], nextDrop, originMs, activeMs, xpBefore);
+		return captured;
+	}
+	
+	private static int indexOf(XpRateWindow window)
+	{
+		for (int w = 0; w < WINDOWS.length; w++)
+		{
+			if (WINDOWS[w] == window)
+			{
+				return w;
+			}
+		}
+		throw new IllegalArgumentException("No sliding window for " + window);
+	}
+	
+	private void grow()
+	{
+		int capacity = dropXp.length * 2;
+		long[] activeMs = new long[capacity];
+		int[] xp = new int[capacity];
+		for (long drop = firstDrop[WINDOWS.length - 1]; drop < nextDrop; drop++)
+		{
+			activeMs[(int) (drop & (capacity - 1))] = dropActiveMs[(int) (drop & mask)];
+			xp[(int) (drop & (capacity - 1))] = dropXp[(int) (drop & mask)];
+		}
+		dropActiveMs = activeMs;
+		dropXp = xp;
+		mask = capacity - 1;
+	}
+	
+	/**
+	 * Immutable copy of the drops in one window, oldest first. Drops keep leaving the window
+	 * as active time moves on, so the rate is exact at any later time until new drops arrive.
+	 */
+	static final class Drops
+	{
+		private final XpRateWindow window;
+		private final long firstDrop;
+		private final long nextDrop;
+		private final long originMs;
+		private final long[] activeMs;
+		// XP of the drops before index i
+		private final long[] xpBefore;
+		
+		private Drops(XpRateWindow window, long firstDrop, long nextDrop, long originMs, long[] activeMs, long[] xpBefore)
+		{
+			this.window = window;
+			this.firstDrop = firstDrop;
+			this.nextDrop = nextDrop;
+			this.originMs = originMs;
+			this.activeMs = activeMs;
+			this.xpBefore = xpBefore;
+		}
+		
+		/**
+		 * @return the XP gained in the window ending at {@code nowActiveMs}
+		 */
+		long getXp(long nowActiveMs)
+		{
+			long cutoff = nowActiveMs - window.getWindowMs();
+			
+			// First drop after the cutoff
+			int low = 0;
+			int high = activeMs.length;
+			while (low < high)
+			{
+				int mid = (low + high) >>> 1;
+				if (activeMs[mid] <= cutoff)
+				{
+					low = mid + 1;
+				}
+				else
+				{
+					high = mid;
+				}
+			}
+			return xpBefore[activeMs.length] - xpBefore[low];
+		}
+		
+		/**
+		 * XP/hr over the window ending at {@code nowActiveMs}, measured over less time while
+		 * less than a window has been observed.
+		 */
+		double getXpPerHour(long nowActiveMs)
+		{
+			long spanMs = Math.min(window.getWindowMs(), nowActiveMs - originMs);
+			return spanMs > 0 ? getXp(nowActiveMs) / (spanMs / 3_600_000.0) : 0;
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package com.hallowedsep;
+
+/**
+ * How much recent active time the live XP/hr is measured over.
+ */
+public enum XpRateWindow
+{
+	FIVE_MINUTES("5 minutes", 5 * 60_000L),
+	FIFTEEN_MINUTES("15 minutes", 15 * 60_000L),
+	ONE_HOUR("1 hour", 60 * 60_000L),
+	SESSION("Session", 0);
+	
+	private final String name;
+	// 0 for the whole session
+	private final long windowMs;
+	
+	XpRateWindow(String name, long windowMs)
+	{
+		this.name = name;
+		this.windowMs = windowMs;
+	}
+	
+	public long getWindowMs()
+	{
+		return windowMs;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return name;
+	}
+}
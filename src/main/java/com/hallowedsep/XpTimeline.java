@@ -0,0 +1,160 @@
+package com.hallowedsep;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Every XP drop of one run, in order: milliseconds since the run started, the XP gained and the
+ * floor it counts towards. Stored in growable primitive arrays so recording a drop allocates
+ * nothing once the arrays have grown. Persisted column by column as varints, with each offset
+ * stored as the delta from the previous drop.
+ */
+public final class XpTimeline
+{
+	private static final int VERSION = 1;
+	private static final int INITIAL_CAPACITY = 64;
+	
+	private int size;
+	private int[] offsetMs = new int[INITIAL_CAPACITY];
+	private int[] xp = new int[INITIAL_CAPACITY];
+	private byte[] floor = new byte[INITIAL_CAPACITY];
+	
+	public void add(int dropOffsetMs, int dropXp, int dropFloor)
+	{
+		if (size == xp.length)
+		{
+			int capacity = size * 2;
+			offsetMs = Arrays.copyOf(offsetMs, capacity);
+			xp = Arrays.copyOf(xp, capacity);
+			floor = Arrays.copyOf(floor, capacity);
+		}
+		offsetMs[size] = dropOffsetMs;
+		xp[size] = dropXp;
+		floor[size] = (byte) dropFloor;
+		size++;
+	}
+	
+	public int size()
+	{
+		return size;
+	}
+	
+	public int getOffsetMs(int index)
+	{
+		return offsetMs[index];
+	}
+	
+	public int getXp(int index)
+	{
+		return xp[index];
+	}
+	
+	public int getFloor(int index)
+	{
+		return floor[index];
+	}
+	
+	public XpTimeline copy()
+	{
+		XpTimeline copy = new XpTimeline();
+		copy.size = size;
+		copy.offsetMs = Arrays.copyOf(offsetMs, Math.max(size, 1));
+		copy.xp = Arrays.copyOf(xp, Math.max(size, 1));
+		copy.floor = Arrays.copyOf(floor, Math.max(size, 1));
+		return copy;
+	}
+	
+	String encode()
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream(8 + size * 4);
+		out.write(VERSION);
+		DailyHistoryCodec.writeVarLong(out, size);
+		
+		int previous = 0;
+		for (int i = 0; i < size; i++)
+		{
+			DailyHistoryCodec.writeVarLong(out, DailyHistoryCodec.zigzag((long) offsetMs[i] - previous));
+			previous = offsetMs[i];
+		}
+		for (int i = 0; i < size; i++)
+		{
+			DailyHistoryCodec.writeVarLong(out, xp[i]);
+		}
+		for (int i = 0; i < size; i++)
+		{
+			out.write(floor[i]);
+		}
+		return Base64.getEncoder().encodeToString(out.toByteArray());
+	}
+	
+	static XpTimeline decode(String encoded)
+	{
+		DailyHistoryCodec.Reader in = new DailyHistoryCodec.Reader(Base64.getDecoder().decode(encoded));
+		int version = in.readByte();
+		if (version != VERSION)
+		{
+			throw new IllegalArgumentException("Unknown XP timeline version " + version);
+		}
+		
+		// Each drop takes at least three bytes, so a count the data cannot hold is corrupt
+		long count = in.readVarLong();
+		if (count < 0 || count > in.remaining() / 3)
+		{
+			throw new IllegalArgumentException("XP timeline count " + count + " exceeds its data");
+		}
+		
+		XpTimeline timeline = new XpTimeline();
+		timeline.size = (int) count;
+		timeline.offsetMs = new int[Math.max(timeline.size, 1)];
+		timeline.xp = new int[Math.max(timeline.size, 1)];
+		timeline.floor = new byte[Math.max(timeline.size, 1)];
+		
+		long offset = 0;
+		for (int i = 0; i < timeline.size; i++)
+		{
+			offset += DailyHistoryCodec.unzigzag(in.readVarLong());
+			timeline.offsetMs[i] = (int) offset;
+		}
+		for (int i = 0; i < timeline.size; i++)
+		{
+			timeline.xp[i] = (int) in.readVarLong();
+		}
+		for (int i = 0; i < timeline.size; i++)
+		{
+			timeline.floor[i] = (byte) in.readByte();
+		}
+		return timeline;
+	}
+	
+	@Override
+	public boolean equals(Object o)
+	{
+		if (!(o instanceof XpTimeline))
+		{
+			return false;
+		}
+		XpTimeline other = (XpTimeline) o;
+		return size == other.size
+			&& Arrays.equals(offsetMs, 0, size, other.offsetMs, 0, size)
+			&& Arrays.equals(xp, 0, size, other.xp, 0, size)
+			&& Arrays.equals(floor, 0, size, other.floor, 0, size);
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		int hash = size;
+		for (int i = 0; i < size; i++)
+		{
+			hash = 31 * (31 * (31 * hash + offsetMs[i]) + xp[i]) + floor[i];
+		}
+		return hash;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "XpTimeline(" + size + " drops)";
+	}
+}
@@ -0,0 +1,133 @@
+package com.hallowedsep;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DailyHistoryCodecTest
+{
+	@Test
+	public void roundTripsExactlyWithJsonForm()
+	{
+		PersistentStats stats = new PersistentStats();
+		LocalDate start = LocalDate.of(2023, 12, 30);
+		for (int i = 0; i < 700; i++)
+		{
+			// Skip some days and insert one out of order, which the history sorts into place
+			LocalDate date = i == 350 ? start.minusDays(10) : start.plusDays(i + i / 7);
+			DailyStats day = new DailyStats(date.toString());
+			day.setRuns(i % 30);
+			day.setTotalXp(i * 4_321);
+			day.setTotalTimeMs(i * 360_000L + 17);
+			for (int floor = 1; floor <= 5; floor++)
+			{
+				for (int n = 0; n < (i + floor) % 9; n++)
+				{
+					day.incrementFloor(floor);
+				}
+			}
+			day.setChestsLooted(i % 13);
+			day.setGrandCoffinsLooted(i % 4);
+			stats.getDailyHistory().put(day);
+		}
+		
+		PersistentStatsTypeAdapter jsonAdapter = new PersistentStatsTypeAdapter();
+		PersistentStatsTypeAdapter compactAdapter = new PersistentStatsTypeAdapter();
+		compactAdapter.setCompactHistory(true);
+		Gson json = new GsonBuilder().registerTypeAdapter(PersistentStats.class, jsonAdapter).create();
+		Gson compact = new GsonBuilder().registerTypeAdapter(PersistentStats.class, compactAdapter).create();
+		
+		String jsonForm = json.toJson(stats);
+		String compactForm = compact.toJson(stats);
+		assertTrue("compact form should be much smaller: " + compactForm.length() + " vs " + jsonForm.length(),
+			compactForm.length() * 5 < jsonForm.length());
+		
+		// Whichever form is stored, loading and writing it back as JSON gives the same document
+		assertEquals(jsonForm, json.toJson(json.fromJson(compactForm, PersistentStats.class)));
+		assertEquals(jsonForm, json.toJson(compact.fromJson(jsonForm, PersistentStats.class)));
+	}
+	
+	@Test
+	public void fallsBackToJsonForNonIsoDates()
+	{
+		DailyStats day = new DailyStats("2024-1-5");
+		assertNull(DailyHistoryCodec.encode(Collections.singletonList(day)));
+	}
+	
+	@Test
+	public void decodesEmptyHistory()
+	{
+		List<DailyStats> days = DailyHistoryCodec.decode(DailyHistoryCodec.encode(Collections.emptyList()));
+		assertEquals(0, days.size());
+	}
+	
+	@Test
+	public void rejectsCountLargerThanData()
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(1);
+		DailyHistoryCodec.writeVarLong(out, 100_000_000);
+		assertCorrupt(Base64.getEncoder().encodeToString(out.toByteArray()));
+		
+		out = new ByteArrayOutputStream();
+		out.write(1);
+		DailyHistoryCodec.writeVarLong(out, -1);
+		assertCorrupt(Base64.getEncoder().encodeToString(out.toByteArray()));
+	}
+	
+	@Test
+	public void rejectsTruncatedData()
+	{
+		List<DailyStats> days = new ArrayList<>();
+		for (int i = 0; i < 3; i++)
+		{
+			DailyStats day = new DailyStats(LocalDate.of(2024, 5, 1 + i).toString());
+			day.setRuns(300 + i);
+			day.setTotalXp(1_000_000 + i);
+			day.setTotalTimeMs(3_600_000L * (i + 1));
+			days.add(day);
+		}
+		byte[] data = Base64.getDecoder().decode(DailyHistoryCodec.encode(days));
+		assertCorrupt(Base64.getEncoder().encodeToString(Arrays.copyOf(data, data.length - 2)));
+	}
+	
+	@Test
+	public void rejectsDayOutOfRange()
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(1);
+		DailyHistoryCodec.writeVarLong(out, 1);
+		DailyHistoryCodec.writeVarLong(out, DailyHistoryCodec.zigzag(Long.MAX_VALUE / 2));
+		for (int i = 0; i < 10; i++)
+		{
+			out.write(0);
+		}
+		assertCorrupt(Base64.getEncoder().encodeToString(out.toByteArray()));
+	}
+	
+	private static void assertCorrupt(String encoded)
+	{
+		boolean rejected = false;
+		try
+		{
+			DailyHistoryCodec.decode(encoded);
+		}
+		catch (IllegalArgumentException e)
+		{
+			rejected = true;
+		}
+		assertTrue(rejected);
+	}
+}
@@ -0,0 +1,116 @@
+package com.hallowedsep;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DailyHistoryTest
+{
+	private static final LocalDate START = LocalDate.of(2024, 2, 27);
+	
+	@Test
+	public void sortsRowsAddedOutOfOrder()
+	{
+		DailyHistory history = new DailyHistory();
+		history.put(day(START.plusDays(3), 3));
+		history.put(day(START, 1));
+		history.put(day(START.plusDays(5), 5));
+		history.put(day(START.plusDays(1), 2));
+		
+		assertEquals(START.toEpochDay(), history.firstEpochDay());
+		assertEquals(dates(START, START.plusDays(1), START.plusDays(3), START.plusDays(5)), datesOf(history.values()));
+		assertEquals(dates(START.plusDays(5), START.plusDays(3)), datesOf(history.latest(2)));
+		assertEquals(dates(START.plusDays(1), START.plusDays(3)),
+			datesOf(history.range(START.plusDays(1).toEpochDay(), START.plusDays(4).toEpochDay())));
+	}
+	
+	@Test
+	public void looksUpByEpochDay()
+	{
+		DailyHistory history = new DailyHistory();
+		history.put(day(START, 1));
+		
+		// Dates without zero padding are the same day, stored in ISO form
+		DailyStats unpadded = new DailyStats("2024-3-2");
+		unpadded.setRuns(4);
+		assertTrue(history.put(unpadded));
+		assertFalse(history.put(new DailyStats("not a date")));
+		
+		DailyStats found = history.get(LocalDate.of(2024, 3, 2).toEpochDay());
+		assertEquals(4, found.getRuns());
+		assertEquals("2024-03-02", found.getDate());
+		assertTrue(history.contains(START.toEpochDay()));
+		assertNull(history.get(START.plusDays(1).toEpochDay()));
+		assertEquals(2, history.size());
+		
+		// A second row for a day replaces the first
+		history.put(day(START, 7));
+		assertEquals(7, history.get(START.toEpochDay()).getRuns());
+		assertEquals(2, history.size());
+	}
+	
+	@Test
+	public void copyIsDetached()
+	{
+		DailyHistory history = new DailyHistory();
+		history.put(day(START, 1));
+		history.put(day(START.plusDays(1), 2));
+		
+		DailyHistory copy = history.copy();
+		history.record(START.toEpochDay(), day(START, 5));
+		history.put(day(START.plusDays(2), 3));
+		
+		assertEquals(2, copy.size());
+		assertEquals(1, copy.get(START.toEpochDay()).getRuns());
+		assertEquals(6, history.get(START.toEpochDay()).getRuns());
+		assertEquals(3, copy.totals(START.toEpochDay(), START.plusDays(2).toEpochDay()).getRuns());
+	}
+	
+	@Test
+	public void removesOldestFirst()
+	{
+		DailyHistory history = new DailyHistory();
+		history.put(day(START.plusDays(2), 2));
+		history.put(day(START, 1));
+		
+		assertEquals(START.toString(), history.removeFirst().getDate());
+		assertEquals(START.plusDays(2).toEpochDay(), history.firstEpochDay());
+		history.removeFirst();
+		assertNull(history.removeFirst());
+		assertEquals(DailyHistory.NO_DAY, history.firstEpochDay());
+	}
+	
+	private static DailyStats day(LocalDate date, int runs)
+	{
+		DailyStats day = new DailyStats(date.toString());
+		day.setRuns(runs);
+		return day;
+	}
+	
+	private static List<String> dates(LocalDate... dates)
+	{
+		List<String> list = new ArrayList<>();
+		for (LocalDate date : dates)
+		{
+			list.add(date.toString());
+		}
+		return list;
+	}
+	
+	private static List<String> datesOf(Iterable<DailyStats> days)
+	{
+		List<String> list = new ArrayList<>();
+		for (DailyStats day : days)
+		{
+			list.add(day.getDate());
+		}
+		return list;
+	}
+}
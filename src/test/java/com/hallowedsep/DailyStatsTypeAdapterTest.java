@@ -0,0 +1,78 @@
+package com.hallowedsep;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DailyStatsTypeAdapterTest
+{
+	private final Gson gson = new GsonBuilder()
+		.registerTypeAdapter(DailyStats.class, new DailyStatsTypeAdapter())
+		.create();
+	
+	@Test
+	public void roundTripsDay()
+	{
+		DailyStats day = new DailyStats("2024-05-20");
+		day.setRuns(12);
+		day.setTotalXp(143_210);
+		day.setTotalTimeMs(4_150_000L);
+		day.setChestsLooted(37);
+		day.setGrandCoffinsLooted(3);
+		for (int floor = 1; floor <= 5; floor++)
+		{
+			day.getFloorCompletionCounts().set(floor, 13 - floor);
+		}
+		
+		String json = gson.toJson(day);
+		DailyStats read = gson.fromJson(json, DailyStats.class);
+		
+		assertSameDay(day, read);
+		assertEquals(json, gson.toJson(read));
+	}
+	
+	@Test
+	public void readsReflectiveLayout()
+	{
+		DailyStats read = gson.fromJson("{\"date\": \"2024-05-20\", \"runs\": 4, \"totalXp\": 51000, \"totalTimeMs\": 1400000,"
+			+ " \"floorCompletions\": {\"1\": 4, \"2\": 4, \"5\": 1}, \"chestsLooted\": 9, \"grandCoffinsLooted\": 1}", DailyStats.class);
+		
+		assertEquals("2024-05-20", read.getDate());
+		assertEquals(4, read.getRuns());
+		assertEquals(51_000, read.getTotalXp());
+		assertEquals(1_400_000L, read.getTotalTimeMs());
+		assertEquals(4, read.getFloorCompletions(1));
+		assertEquals(4, read.getFloorCompletions(2));
+		assertEquals(0, read.getFloorCompletions(3));
+		assertEquals(1, read.getFloorCompletions(5));
+		assertEquals(9, read.getChestsLooted());
+		assertEquals(1, read.getGrandCoffinsLooted());
+	}
+	
+	@Test
+	public void skipsUnknownFieldsAndReadsNull()
+	{
+		DailyStats read = gson.fromJson("{\"runs\": 2, \"future\": {\"nested\": [1, 2]}, \"date\": null, \"totalXp\": 700}",
+			DailyStats.class);
+		assertEquals(2, read.getRuns());
+		assertEquals(700, read.getTotalXp());
+		assertNull(read.getDate());
+		
+		assertNull(gson.fromJson("null", DailyStats.class));
+		assertEquals("null", gson.toJson(null, DailyStats.class));
+	}
+	
+	static void assertSameDay(DailyStats expected, DailyStats actual)
+	{
+		assertEquals(expected.getDate(), actual.getDate());
+		assertEquals(expected.getRuns(), actual.getRuns());
+		assertEquals(expected.getTotalXp(), actual.getTotalXp());
+		assertEquals(expected.getTotalTimeMs(), actual.getTotalTimeMs());
+		assertEquals(expected.getFloorCompletionCounts(), actual.getFloorCompletionCounts());
+		assertEquals(expected.getChestsLooted(), actual.getChestsLooted());
+		assertEquals(expected.getGrandCoffinsLooted(), actual.getGrandCoffinsLooted());
+	}
+}
@@ -0,0 +1,140 @@
+package com.hallowedsep;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DayTotalsIndexTest
+{
+	private static final long START = LocalDate.of(2022, 3, 1).toEpochDay();
+	
+	@Test
+	public void rangeTotalsMatchBruteForce()
+	{
+		Random random = new Random(23);
+		DailyHistory history = new DailyHistory();
+		for (int i = 0; i < 400; i++)
+		{
+			history.put(day(START + random.nextInt(900), random));
+		}
+		
+		for (int i = 0; i < 2_000; i++)
+		{
+			long from = START - 30 + random.nextInt(960);
+			long to = from + random.nextInt(400);
+			assertTotals(bruteForce(history, from, to), history.totals(from, to));
+		}
+	}
+	
+	@Test
+	public void recordedRunsUpdateTheIndex()
+	{
+		Random random = new Random(7);
+		DailyHistory history = new DailyHistory();
+		history.put(day(START, random));
+		history.put(day(START + 40, random));
+		history.totals(START, START + 40);
+		
+		// One row recorded into, one replaced, one removed from the head
+		history.record(START + 40, day(START + 40, random));
+		history.put(day(START, random));
+		history.put(day(START + 10, random));
+		history.removeFirst();
+		
+		assertTotals(bruteForce(history, START, START + 40), history.totals(START, START + 40));
+		assertTotals(bruteForce(history, START + 5, START + 20), history.totals(START + 5, START + 20));
+	}
+	
+	@Test
+	public void daysBeyondCapacityForceRebuild()
+	{
+		Random random = new Random(11);
+		DayTotalsIndex index = DayTotalsIndex.build(Collections.singletonList(day(START, random)), (int) START, (int) START);
+		assertTrue(index.add(START + 63, day(START + 63, random), 1));
+		assertFalse(index.add(START - 1, day(START - 1, random), 1));
+		assertFalse(index.add(START + 5_000, day(START + 5_000, random), 1));
+		
+		// The history drops an index that cannot absorb a day and builds a wider one on the next query
+		DailyHistory history = new DailyHistory();
+		history.put(day(START, random));
+		history.totals(START, START);
+		history.put(day(START + 5_000, random));
+		history.put(day(START - 700, random));
+		assertTotals(bruteForce(history, START - 700, START + 5_000), history.totals(START - 700, START + 5_000));
+		assertTotals(bruteForce(history, START + 1, START + 5_000), history.totals(START + 1, START + 5_000));
+	}
+	
+	@Test
+	public void rebuildsAfterHistoryIsRewritten()
+	{
+		Random random = new Random(3);
+		DailyHistory history = new DailyHistory();
+		for (int i = 0; i < 120; i++)
+		{
+			history.put(day(START + i, random));
+		}
+		history.totals(START, START + 119);
+		
+		// Replace one month the way a newer shard replaces its rows on load
+		String month = LocalDate.ofEpochDay(START + 31).toString().substring(0, 7);
+		history.removeIf(day -> day.getDate().startsWith(month));
+		for (int i = 31; i < 61; i += 3)
+		{
+			history.put(day(START + i, random));
+		}
+		
+		for (long from = START; from < START + 120; from += 7)
+		{
+			assertTotals(bruteForce(history, from, from + 45), history.totals(from, from + 45));
+		}
+	}
+	
+	private static DailyStats day(long epochDay, Random random)
+	{
+		DailyStats day = new DailyStats(LocalDate.ofEpochDay(epochDay).toString());
+		day.setRuns(1 + random.nextInt(20));
+		day.setTotalXp(random.nextInt(200_000));
+		day.setTotalTimeMs(random.nextInt(10_000_000));
+		day.setChestsLooted(random.nextInt(40));
+		day.setGrandCoffinsLooted(random.nextInt(10));
+		for (int floor = 1; floor <= FloorCounts.FLOORS; floor++)
+		{
+			day.getFloorCompletionCounts().set(floor, random.nextInt(30));
+		}
+		return day;
+	}
+	
+	private static DailyStats bruteForce(DailyHistory history, long from, long to)
+	{
+		DailyStats totals = new DailyStats(LocalDate.ofEpochDay(from).toString());
+		for (DailyStats day : history.values())
+		{
+			long epochDay = LocalDate.parse(day.getDate()).toEpochDay();
+			if (epochDay >= from && epochDay <= to)
+			{
+				totals.add(day);
+			}
+		}
+		return totals;
+	}
+	
+	private static void assertTotals(DailyStats expected, DailyStats actual)
+	{
+		String range = "totals from " + expected.getDate();
+		assertEquals(range, expected.getRuns(), actual.getRuns());
+		assertEquals(range, expected.getTotalXp(), actual.getTotalXp());
+		assertEquals(range, expected.getTotalTimeMs(), actual.getTotalTimeMs());
+		assertEquals(range, expected.getChestsLooted(), actual.getChestsLooted());
+		assertEquals(range, expected.getGrandCoffinsLooted(), actual.getGrandCoffinsLooted());
+		for (int floor = 1; floor <= FloorCounts.FLOORS; floor++)
+		{
+			assertEquals(range, expected.getFloorCompletions(floor), actual.getFloorCompletions(floor));
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.hallowedsep;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+
+public class HallowedSepulchreOverlayTest
+{
+	// On a whole second, so every frame below shows the same timer values
+	private static final long NOW_MS = 1_700_000_000_000L;
+	
+	@Test
+	public void steadyStateFrameDoesNotAllocate()
+	{
+		SepulchreRun run = new SepulchreRun();
+		run.setStartTime(Instant.ofEpochMilli(NOW_MS - 150_000));
+		run.setFloorTimeFromGame(1, Duration.ofMillis(62_000));
+		run.setFloorTimeFromGame(2, Duration.ofMillis(71_000));
+		run.addXp(2_500);
+		run.incrementChestsLooted(2);
+		
+		PersistentStats stats = new PersistentStats();
+		for (int floor = 1; floor <= 5; floor++)
+		{
+			stats.setPersonalBestFromGame(floor, 60_000 + floor * 5_000);
+		}
+		
+		LiveStatsSnapshot snapshot = new LiveStatsSnapshot(1, run, 3, Instant.ofEpochMilli(NOW_MS - 20_000),
+			new HallowedSepulchreSession(), stats, 90, 10, 1_000, 5, 20_000, 50);
+		HallowedSepulchreOverlay overlay = new HallowedSepulchreOverlay(new HallowedSepulchrePlugin(), new HallowedSepulchreConfig()
+		{
+		});
+		
+		// Warm up the JIT and build every cached string once
+		for (int i = 0; i < 50_000; i++)
+		{
+			overlay.updateComponents(snapshot, NOW_MS + i % 1000, true, true, true, true);
+		}
+		
+		ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(threadId);
+		long measurementCost = threads.getThreadAllocatedBytes(threadId) - before;
+		
+		before = threads.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < 10_000; i++)
+		{
+			overlay.updateComponents(snapshot, NOW_MS + i % 1000, true, true, true, true);
+		}
+		long allocated = threads.getThreadAllocatedBytes(threadId) - before - measurementCost;
+		
+		assertEquals("bytes allocated by 10k steady-state frames", 0, allocated);
+	}
+}
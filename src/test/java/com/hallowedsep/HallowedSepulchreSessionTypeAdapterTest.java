@@ -0,0 +1,83 @@
+package com.hallowedsep;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.Test;
+
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class HallowedSepulchreSessionTypeAdapterTest
+{
+	private final Gson gson = new GsonBuilder()
+		.registerTypeAdapter(HallowedSepulchreSession.class, new HallowedSepulchreSessionTypeAdapter())
+		.create();
+	
+	@Test
+	public void roundTripsSession()
+	{
+		HallowedSepulchreSession session = new HallowedSepulchreSession();
+		session.setSessionStartTime(Instant.ofEpochMilli(1_700_000_000_123L));
+		session.setTotalRuns(14);
+		session.setTotalXp(98_765);
+		session.setTotalTimeMs(4_321_000);
+		session.setGrandCoffinLooted(2);
+		session.setBestRunTimeMs(512_300);
+		session.setSessionStartXp(8_000_000);
+		for (int floor = 1; floor <= 5; floor++)
+		{
+			for (int n = 0; n < floor; n++)
+			{
+				session.incrementFloorCompletion(floor);
+			}
+			session.incrementChestsLooted(floor);
+			session.getBestFloorTimes().offer(floor, 30_000L + floor * 10_400);
+		}
+		
+		// More runs than the window holds, so the saved runs start part way through the ring
+		session.setRecentRunCapacity(4);
+		for (int run = 0; run < 6; run++)
+		{
+			session.getRecentRuns().add(1_000 + run, 60_000L * run, 1 + run % 5, run % 2 == 0, 1_000L * run);
+		}
+		
+		String json = gson.toJson(session);
+		HallowedSepulchreSession read = gson.fromJson(json, HallowedSepulchreSession.class);
+		
+		assertEquals(session.getSessionStartTime(), read.getSessionStartTime());
+		assertEquals(14, read.getTotalRuns());
+		assertEquals(98_765, read.getTotalXp());
+		assertEquals(4_321_000, read.getTotalTimeMs());
+		assertEquals(2, read.getGrandCoffinLooted());
+		assertEquals(512_300, read.getBestRunTimeMs());
+		assertEquals(8_000_000, read.getSessionStartXp());
+		for (int floor = 1; floor <= 5; floor++)
+		{
+			assertEquals(floor, read.getFloorCompletions(floor));
+			assertEquals(1, read.getChestsLooted(floor));
+			assertEquals(30_000L + floor * 10_400, read.getBestFloorTimes().get(floor));
+		}
+		assertEquals(5, read.getTotalChestsLooted());
+		
+		RecentRunWindow runs = read.getRecentRuns();
+		assertEquals(4, runs.size());
+		for (int i = 0; i < 4; i++)
+		{
+			assertEquals(1_002 + i, runs.getXp(i));
+			assertEquals(60_000L * (2 + i), runs.getDurationMs(i));
+			assertEquals(1_000L * (2 + i), runs.getTimestamp(i));
+		}
+		assertEquals(4_014, runs.sumXp(4));
+		
+		// Writing the read session back gives the same document
+		assertEquals(json, gson.toJson(read));
+	}
+	
+	@Test
+	public void readsNull()
+	{
+		assertNull(gson.fromJson("null", HallowedSepulchreSession.class));
+	}
+}
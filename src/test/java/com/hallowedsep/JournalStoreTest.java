@@ -0,0 +1,103 @@
+package com.hallowedsep;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JournalStoreTest
+{
+	private static final LocalDate DAY = LocalDate.of(2024, 5, 20);
+	
+	private final Gson gson = new GsonBuilder()
+		.registerTypeAdapter(Instant.class, new InstantTypeAdapter())
+		.registerTypeAdapter(Duration.class, new DurationTypeAdapter())
+		.registerTypeAdapter(PersistentStats.class, new PersistentStatsTypeAdapter())
+		.registerTypeAdapter(DailyStats.class, new DailyStatsTypeAdapter())
+		.registerTypeAdapter(SepulchreRun.class, new SepulchreRunTypeAdapter())
+		.create();
+	
+	@Test
+	public void setsAsideUnreadableShard() throws IOException
+	{
+		Path directory = Files.createTempDirectory("journal-store");
+		JournalStore store = new JournalStore(directory.toFile(), gson);
+		store.writeSnapshot(threeMonths().takeChanges(), 0);
+		
+		Path april = directory.resolve("history").resolve("2024-04.json");
+		Files.write(april, "{\"seq\": 0, \"stats\": {\"dailyHistory\": [".getBytes(StandardCharsets.UTF_8));
+		
+		PersistentStats loaded = new JournalStore(directory.toFile(), gson).load();
+		loaded.mergeHistory(new JournalStore(directory.toFile(), gson).loadHistory());
+		assertEquals(3, loaded.getAllTimeRuns());
+		assertEquals(2, loaded.getDailyHistory().size());
+		assertNull(loaded.getDailyHistory().get(DAY.minusMonths(1).toEpochDay()));
+		assertFalse(Files.exists(april));
+		assertTrue(Files.exists(april.resolveSibling("2024-04.json.corrupt")));
+	}
+	
+	@Test
+	public void claimedCheckpointSurvivesNewCheckpoint() throws IOException
+	{
+		Path directory = Files.createTempDirectory("journal-store");
+		JournalStore store = new JournalStore(directory.toFile(), gson);
+		assertNull(store.claimRunCheckpoint());
+		
+		store.writeRunCheckpoint("interrupted");
+		assertEquals("interrupted", store.claimRunCheckpoint());
+		store.writeRunCheckpoint("next");
+		store.deleteRunCheckpoint();
+		
+		// Not deleted yet, so the next start recovers it again
+		assertEquals("interrupted", new JournalStore(directory.toFile(), gson).claimRunCheckpoint());
+		store.deleteClaimedRunCheckpoint();
+		assertNull(store.claimRunCheckpoint());
+	}
+	
+	@Test
+	public void skipsUnreadableJournalLine() throws IOException
+	{
+		Path directory = Files.createTempDirectory("journal-store");
+		JournalStore store = new JournalStore(directory.toFile(), gson);
+		store.writeSnapshot(threeMonths().takeChanges(), 0);
+		store.append(JournalEntry.personalBest(1, 2, 55_000));
+		Files.write(directory.resolve("stats.journal"), "{\"seq\": 2, \"type\": \n".getBytes(StandardCharsets.UTF_8),
+			StandardOpenOption.APPEND);
+		store.append(JournalEntry.floorCompletions(3, 4, 321));
+		
+		JournalStore reopened = new JournalStore(directory.toFile(), gson);
+		PersistentStats loaded = reopened.load();
+		assertEquals(55_000, loaded.getBestFloorTimeMs(2));
+		assertEquals(321, loaded.getAllTimeFloorCompletions(4));
+		assertEquals(3, reopened.getLastSeq());
+		assertTrue(Files.exists(directory.resolve("stats.journal.corrupt")));
+	}
+	
+	private static PersistentStats threeMonths()
+	{
+		PersistentStats stats = new PersistentStats();
+		stats.initializeAfterLoad();
+		stats.markHistoryRewrite();
+		for (int month = 0; month < 3; month++)
+		{
+			SepulchreRun run = new SepulchreRun();
+			run.setStartTime(Instant.ofEpochMilli(1_700_000_000_000L));
+			run.setEndTime(Instant.ofEpochMilli(1_700_000_300_000L));
+			stats.recordRun(run, DAY.minusMonths(month).toString());
+		}
+		return stats;
+	}
+}
@@ -0,0 +1,151 @@
+package com.hallowedsep;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentStatsTest
+{
+	private static final int RETENTION_DAYS = 62;
+	private static final int HISTORY_DAYS = 600;
+	
+	@Test
+	public void rollUpKeepsTotalsAndDaysTracked()
+	{
+		PersistentStats stats = history();
+		int runs = stats.getAllTimeRuns();
+		assertEquals(HISTORY_DAYS, stats.getDaysTracked());
+		assertEquals(runs, historyRuns(stats));
+		double averageRunsPerDay = stats.getAverageRunsPerDay();
+		
+		stats.setRetentionDays(RETENTION_DAYS);
+		assertFalse(stats.getWeeklyHistory().isEmpty());
+		assertFalse(stats.getMonthlyHistory().isEmpty());
+		// The window holds today and the retention days before it
+		assertEquals(RETENTION_DAYS + 1, stats.getDailyHistory().size());
+		assertEquals(runs, stats.getAllTimeRuns());
+		assertEquals(runs, historyRuns(stats));
+		assertEquals(HISTORY_DAYS, stats.getDaysTracked());
+		assertEquals(averageRunsPerDay, stats.getAverageRunsPerDay(), 0);
+		
+		// Ten days later more days leave the window and weeks leave the weekly tier
+		stats.rollUp(LocalDate.now().plusDays(10));
+		assertEquals(RETENTION_DAYS + 1 - 10, stats.getDailyHistory().size());
+		assertEquals(runs, historyRuns(stats));
+		assertEquals(HISTORY_DAYS, stats.getDaysTracked());
+		assertEquals(averageRunsPerDay, stats.getAverageRunsPerDay(), 0);
+	}
+	
+	@Test
+	public void lateRunForRolledUpDayIsNotCountedAsNewDay()
+	{
+		PersistentStats stats = history();
+		stats.setRetentionDays(RETENTION_DAYS);
+		int runs = stats.getAllTimeRuns();
+		
+		// One day in the weekly tier and one in the monthly tier
+		for (LocalDate date : new LocalDate[]{LocalDate.now().minusDays(100), LocalDate.now().minusDays(400)})
+		{
+			stats.recordRun(run(), date.toString());
+			assertNull(stats.getDailyHistory().get(date.toEpochDay()));
+			stats.rollUp(LocalDate.now());
+		}
+		
+		assertEquals(runs + 2, stats.getAllTimeRuns());
+		assertEquals(runs + 2, historyRuns(stats));
+		assertEquals(HISTORY_DAYS, stats.getDaysTracked());
+		assertEquals((double) (runs + 2) / HISTORY_DAYS, stats.getAverageRunsPerDay(), 1e-9);
+	}
+	
+	@Test
+	public void lateRunInsideWindowAddsItsDay()
+	{
+		PersistentStats stats = new PersistentStats();
+		stats.setRetentionDays(RETENTION_DAYS);
+		stats.recordRun(run(), LocalDate.now().toString());
+		stats.recordRun(run(), LocalDate.now().minusDays(3).toString());
+		
+		assertEquals(2, stats.getDaysTracked());
+		assertTrue(stats.getDailyHistory().contains(LocalDate.now().minusDays(3).toEpochDay()));
+	}
+	
+	@Test
+	public void totalsAddWholeRollupsOnly()
+	{
+		PersistentStats stats = history();
+		stats.setRetentionDays(1);
+		LocalDate today = LocalDate.now();
+		
+		// Short windows are raised to the minimum, so the panel's ranges are all kept day by day
+		assertEquals(PersistentStats.MIN_RETENTION_DAYS + 1, stats.getDailyHistory().size());
+		assertEquals(30, stats.getTotals(today.minusDays(29), today).getRuns());
+		assertEquals(today.getDayOfMonth(), stats.getTotals(today.withDayOfMonth(1), today).getRuns());
+		
+		// A range over whole rollups adds them in
+		HistoryRollup oldest = stats.getMonthlyHistory().values().iterator().next();
+		LocalDate start = LocalDate.parse(oldest.getStart());
+		LocalDate end = start.plusMonths(1).minusDays(1);
+		assertEquals(oldest.getTotals().getRuns(), stats.getTotals(start, end).getRuns());
+		assertEquals(HISTORY_DAYS, stats.getTotals(today.minusDays(HISTORY_DAYS + 40), today).getRuns());
+		
+		boolean rejected = false;
+		try
+		{
+			stats.getTotals(start.plusDays(3), end);
+		}
+		catch (IllegalArgumentException e)
+		{
+			rejected = true;
+		}
+		assertTrue(rejected);
+	}
+	
+	/**
+	 * One run on each of the last {@link #HISTORY_DAYS} days, with every day kept
+	 */
+	private static PersistentStats history()
+	{
+		PersistentStats stats = new PersistentStats();
+		LocalDate today = LocalDate.now();
+		for (int i = HISTORY_DAYS - 1; i >= 0; i--)
+		{
+			stats.recordRun(run(), today.minusDays(i).toString());
+		}
+		return stats;
+	}
+	
+	private static int historyRuns(PersistentStats stats)
+	{
+		int runs = 0;
+		for (DailyStats day : stats.getDailyHistory().values())
+		{
+			runs += day.getRuns();
+		}
+		for (HistoryRollup week : stats.getWeeklyHistory().values())
+		{
+			runs += week.getTotals().getRuns();
+		}
+		for (HistoryRollup month : stats.getMonthlyHistory().values())
+		{
+			runs += month.getTotals().getRuns();
+		}
+		return runs;
+	}
+	
+	private static SepulchreRun run()
+	{
+		SepulchreRun run = new SepulchreRun();
+		Instant start = Instant.parse("2024-05-20T12:00:00Z");
+		run.setStartTime(start);
+		run.setEndTime(start.plus(Duration.ofMinutes(6)));
+		run.setTotalXp(10_000);
+		return run;
+	}
+}
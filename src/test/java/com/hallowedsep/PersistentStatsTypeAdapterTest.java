@@ -0,0 +1,169 @@
+package com.hallowedsep;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentStatsTypeAdapterTest
+{
+	private static final LocalDate DAY = LocalDate.of(2024, 5, 20);
+	
+	private final PersistentStatsTypeAdapter adapter = new PersistentStatsTypeAdapter();
+	private final Gson gson = new GsonBuilder()
+		.registerTypeAdapter(PersistentStats.class, adapter)
+		.create();
+	
+	@Test
+	public void roundTripsStats()
+	{
+		PersistentStats stats = stats();
+		String json = gson.toJson(stats);
+		assertRead(stats, json);
+		assertEquals(json, gson.toJson(gson.fromJson(json, PersistentStats.class)));
+	}
+	
+	@Test
+	public void roundTripsCompactHistory()
+	{
+		PersistentStats stats = stats();
+		adapter.setCompactHistory(true);
+		String json = gson.toJson(stats);
+		assertTrue(json.contains("\"dailyHistoryCompact\""));
+		assertFalse(stats.getWeeklyHistory().isEmpty());
+		assertFalse(stats.getMonthlyHistory().isEmpty());
+		assertRead(stats, json);
+		
+		// Either form is read regardless of the setting
+		adapter.setCompactHistory(false);
+		assertRead(stats, json);
+	}
+	
+	@Test
+	public void readsReflectiveLayout()
+	{
+		PersistentStats read = gson.fromJson("{\"allTimeRuns\": 3, \"allTimeXp\": 33000, \"allTimeMs\": 1000000,"
+			+ " \"allTimeFloorCompletions\": {\"1\": 3, \"2\": 3, \"3\": 1},"
+			+ " \"bestFloorTimes\": {\"1\": 41230, \"2\": 9223372036854775807},"
+			+ " \"bestRunTimesByFloors\": {}, \"startDate\": \"2024-05-19\","
+			+ " \"dailyHistory\": {\"2024-05-20\": {\"runs\": 2, \"totalXp\": 22000},"
+			+ " \"2024-05-19\": {\"date\": \"2024-05-19\", \"runs\": 1, \"floorCompletions\": {\"1\": 1}}}}",
+			PersistentStats.class);
+		read.initializeAfterLoad();
+		
+		assertEquals(3, read.getAllTimeRuns());
+		assertEquals(33_000, read.getAllTimeXp());
+		assertEquals(1_000_000L, read.getAllTimeMs());
+		assertEquals(3, read.getAllTimeFloorCompletions(2));
+		assertEquals(0, read.getAllTimeFloorCompletions(4));
+		assertEquals(41_230L, read.getBestFloorTimes().get(1));
+		// The reflective layout stored "none" as Long.MAX_VALUE
+		assertEquals(0L, read.getBestFloorTimes().get(2));
+		assertEquals("2024-05-19", read.getStartDate());
+		
+		assertEquals(2, read.getDailyHistory().size());
+		assertEquals(22_000, read.getDailyHistory().get(DAY.toEpochDay()).getTotalXp());
+		assertEquals("2024-05-20", read.getDailyHistory().get(DAY.toEpochDay()).getDate());
+		assertEquals(1, read.getDailyHistory().get(DAY.minusDays(1).toEpochDay()).getFloorCompletions(1));
+		assertEquals(2, read.getDaysTracked());
+	}
+	
+	@Test
+	public void skipsUnknownFieldsAndReadsNull()
+	{
+		PersistentStats read = gson.fromJson("{\"allTimeRuns\": 5, \"future\": {\"a\": [1, {\"b\": null}]},"
+			+ " \"startDate\": null, \"dailyHistory\": [{\"date\": \"2024-05-20\", \"runs\": 5, \"future\": true}, null]}",
+			PersistentStats.class);
+		read.initializeAfterLoad();
+		assertEquals(5, read.getAllTimeRuns());
+		assertNull(read.getStartDate());
+		assertEquals(1, read.getDailyHistory().size());
+		assertEquals(5, read.getDailyHistory().get(DAY.toEpochDay()).getRuns());
+		
+		assertNull(gson.fromJson("null", PersistentStats.class));
+		assertEquals("null", gson.toJson(null, PersistentStats.class));
+	}
+	
+	private void assertRead(PersistentStats stats, String json)
+	{
+		PersistentStats read = gson.fromJson(json, PersistentStats.class);
+		read.initializeAfterLoad();
+		
+		assertEquals(stats.getAllTimeRuns(), read.getAllTimeRuns());
+		assertEquals(stats.getAllTimeXp(), read.getAllTimeXp());
+		assertEquals(stats.getAllTimeMs(), read.getAllTimeMs());
+		assertEquals(stats.getAllTimeChestsLooted(), read.getAllTimeChestsLooted());
+		assertEquals(stats.getAllTimeGrandCoffins(), read.getAllTimeGrandCoffins());
+		assertEquals(stats.getBestRunTimeMs(), read.getBestRunTimeMs());
+		assertEquals(stats.getBestFloorTimes(), read.getBestFloorTimes());
+		assertEquals(stats.getBestRunTimesByFloors(), read.getBestRunTimesByFloors());
+		assertEquals(stats.getStartingXp(), read.getStartingXp());
+		assertEquals(stats.getStartDate(), read.getStartDate());
+		for (int floor = 1; floor <= 5; floor++)
+		{
+			assertEquals(stats.getAllTimeFloorCompletions(floor), read.getAllTimeFloorCompletions(floor));
+		}
+		assertEquals(stats.getDailyHistory().size(), read.getDailyHistory().size());
+		for (DailyStats day : stats.getDailyHistory().values())
+		{
+			DailyStatsTypeAdapterTest.assertSameDay(day, read.getDailyHistory().get(DailyHistory.epochDayOf(day.getDate())));
+		}
+		assertSameRollups(stats.getWeeklyHistory(), read.getWeeklyHistory());
+		assertSameRollups(stats.getMonthlyHistory(), read.getMonthlyHistory());
+		assertEquals(stats.getDaysTracked(), read.getDaysTracked());
+	}
+	
+	private static void assertSameRollups(Map<String, HistoryRollup> expected, Map<String, HistoryRollup> actual)
+	{
+		assertEquals(expected.keySet(), actual.keySet());
+		for (HistoryRollup rollup : expected.values())
+		{
+			HistoryRollup read = actual.get(rollup.getStart());
+			assertEquals(rollup.getStart(), read.getStart());
+			assertEquals(rollup.getDays(), read.getDays());
+			DailyStatsTypeAdapterTest.assertSameDay(rollup.getTotals(), read.getTotals());
+		}
+	}
+	
+	/**
+	 * A year of play up to today, with the older days rolled up into weeks and months
+	 */
+	private static PersistentStats stats()
+	{
+		LocalDate today = LocalDate.now();
+		PersistentStats stats = new PersistentStats();
+		stats.setStartingXp(8_500_000);
+		stats.setStartDate(today.minusDays(364).toString());
+		stats.setAllTimeGrandCoffins(4);
+		stats.setBestRunTimeMs(512_300);
+		for (int floor = 1; floor <= 5; floor++)
+		{
+			stats.getBestFloorTimes().set(floor, 30_000L + floor * 10_400);
+			stats.getBestRunTimesByFloors().set(floor, 60_000L * floor);
+		}
+		for (int i = 0; i < 365; i += 3)
+		{
+			DailyStats day = new DailyStats(today.minusDays(i).toString());
+			day.setRuns(1 + i % 7);
+			day.setTotalXp(11_000 * day.getRuns());
+			day.setTotalTimeMs(330_000L * day.getRuns());
+			day.setChestsLooted(i % 11);
+			day.getFloorCompletionCounts().set(1 + i % 5, day.getRuns());
+			stats.getDailyHistory().put(day);
+			stats.setAllTimeRuns(stats.getAllTimeRuns() + day.getRuns());
+			stats.setAllTimeXp(stats.getAllTimeXp() + day.getTotalXp());
+			stats.setAllTimeMs(stats.getAllTimeMs() + day.getTotalTimeMs());
+			stats.setAllTimeChestsLooted(stats.getAllTimeChestsLooted() + day.getChestsLooted());
+		}
+		stats.initializeAfterLoad();
+		stats.setRetentionDays(PersistentStats.MIN_RETENTION_DAYS);
+		return stats;
+	}
+}
@@ -0,0 +1,115 @@
+package com.hallowedsep;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RecentRunWindowTest
+{
+	@Test
+	public void keepsNewestRunsAfterWrapping()
+	{
+		RecentRunWindow window = new RecentRunWindow(5);
+		for (int run = 0; run < 12; run++)
+		{
+			add(window, run);
+		}
+		
+		assertEquals(5, window.size());
+		for (int i = 0; i < 5; i++)
+		{
+			assertEquals(xp(7 + i), window.getXp(i));
+			assertEquals(1_000L * (7 + i), window.getTimestamp(i));
+		}
+		assertTotals(window, 7, 12);
+	}
+	
+	@Test
+	public void resizeKeepsNewestRuns()
+	{
+		RecentRunWindow window = new RecentRunWindow(5);
+		for (int run = 0; run < 8; run++)
+		{
+			add(window, run);
+		}
+		
+		window.resize(3);
+		assertEquals(3, window.size());
+		assertEquals(xp(5), window.getXp(0));
+		assertTotals(window, 5, 8);
+		
+		// Growing again keeps what is held and wraps at the new capacity
+		window.resize(4);
+		for (int run = 8; run < 11; run++)
+		{
+			add(window, run);
+		}
+		assertEquals(4, window.size());
+		assertEquals(xp(7), window.getXp(0));
+		assertTotals(window, 7, 11);
+	}
+	
+	@Test
+	public void copyIsDetached()
+	{
+		RecentRunWindow window = new RecentRunWindow(3);
+		for (int run = 0; run < 4; run++)
+		{
+			add(window, run);
+		}
+		
+		RecentRunWindow copy = window.copy();
+		add(window, 4);
+		assertEquals(xp(1), copy.getXp(0));
+		assertTotals(copy, 1, 4);
+		assertTotals(window, 2, 5);
+	}
+	
+	private static void add(RecentRunWindow window, int run)
+	{
+		window.add(xp(run), 60_000L + run * 1_500, 1 + run % 5, run % 3 == 0, 1_000L * run);
+	}
+	
+	private static int xp(int run)
+	{
+		return 1_000 + run * 37;
+	}
+	
+	// The window should hold exactly runs [from, to)
+	private static void assertTotals(RecentRunWindow window, int from, int to)
+	{
+		for (int count = 0; count <= to - from + 1; count++)
+		{
+			long xp = 0;
+			long durationMs = 0;
+			int completed = 0;
+			int n = Math.min(count, to - from);
+			for (int run = to - n; run < to; run++)
+			{
+				xp += xp(run);
+				durationMs += 60_000L + run * 1_500;
+				completed += run % 3 == 0 ? 1 : 0;
+			}
+			assertEquals("xp of last " + count, xp, window.sumXp(count));
+			assertEquals("time of last " + count, durationMs, window.sumDurationMs(count));
+			assertEquals("completed of last " + count, completed, window.countCompleted(count));
+			assertEquals(n == 0 ? 0 : (double) xp / n, window.averageXp(count), 0.0001);
+		}
+		
+		for (int i = 0; i < to - from; i++)
+		{
+			int run = from + i;
+			assertEquals(1 + run % 5, window.getHighestFloor(i));
+			if (run % 3 == 0)
+			{
+				assertTrue(window.isCompleted(i));
+			}
+			else
+			{
+				assertFalse(window.isCompleted(i));
+			}
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package com.hallowedsep;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RunHistoryStoreTest
+{
+	private static final int DAY = 19_700;
+	
+	@Test
+	public void roundTripsEveryField() throws IOException
+	{
+		Path directory = Files.createTempDirectory("run-history");
+		RunHistoryStore store = new RunHistoryStore(directory.toFile());
+		RunHistory history = sample();
+		for (int i = 0; i < history.size(); i++)
+		{
+			store.append(RunHistoryStore.encode(history, i));
+		}
+		
+		assertSameRuns(history, store.load());
+	}
+	
+	@Test
+	public void appendsToExistingFile() throws IOException
+	{
+		Path directory = Files.createTempDirectory("run-history");
+		RunHistory history = sample();
+		new RunHistoryStore(directory.toFile()).append(RunHistoryStore.encode(history, 0));
+		new RunHistoryStore(directory.toFile()).append(RunHistoryStore.encode(history, 1));
+		
+		RunHistoryStore store = new RunHistoryStore(directory.toFile());
+		store.append(RunHistoryStore.encode(history, 2));
+		assertSameRuns(history, store.load());
+		assertEquals(6 + 3 * RunHistoryStore.RECORD_SIZE, Files.size(directory.resolve("runs.bin")));
+	}
+	
+	@Test
+	public void recoversFromPartialTrailingRecord() throws IOException
+	{
+		Path directory = Files.createTempDirectory("run-history");
+		Path file = directory.resolve("runs.bin");
+		RunHistoryStore store = new RunHistoryStore(directory.toFile());
+		RunHistory history = sample();
+		store.append(RunHistoryStore.encode(history, 0));
+		store.append(RunHistoryStore.encode(history, 1));
+		
+		// A crash part way through appending the third run
+		byte[] torn = new byte[RunHistoryStore.RECORD_SIZE / 2];
+		System.arraycopy(RunHistoryStore.encode(history, 2), 0, torn, 0, torn.length);
+		Files.write(file, torn, StandardOpenOption.APPEND);
+		
+		RunHistory loaded = store.load();
+		assertEquals(2, loaded.size());
+		assertEquals(history.getStartMs(1), loaded.getStartMs(1));
+		
+		// The next append replaces the partial record
+		store.append(RunHistoryStore.encode(history, 2));
+		assertSameRuns(history, store.load());
+		assertEquals(6 + 3 * RunHistoryStore.RECORD_SIZE, Files.size(file));
+	}
+	
+	@Test
+	public void movesUnreadableFileAside() throws IOException
+	{
+		Path directory = Files.createTempDirectory("run-history");
+		Files.write(directory.resolve("runs.bin"), new byte[]{ 1, 2, 3, 4, 5, 6, 7, 8 });
+		
+		assertEquals(0, new RunHistoryStore(directory.toFile()).load().size());
+		assertTrue(Files.exists(directory.resolve("runs.bin.bad")));
+	}
+	
+	private static RunHistory sample()
+	{
+		RunHistory history = new RunHistory();
+		history.add(DAY, 1_700_000_000_000L, 612_340, 15_000, 11_432, 5,
+			RunHistory.FLAG_COMPLETED | RunHistory.FLAG_GRAND_COFFIN, 0b111110,
+			new int[]{ 41_200, 62_400, 91_800, 125_000, 192_600 }, new int[]{ 0, 2, 3, 1, 4 });
+		history.add(DAY, 1_700_000_900_000L, 180_000, 0, 2_950, 3, 0, 0b0110,
+			new int[]{ 39_000, 58_600, 0, 0, 0 }, new int[]{ 1, 0, 0, 0, 0 });
+		history.add(DAY + 1, 1_700_090_000_000L, 1_000, 0, 0, 1, 0, 0,
+			new int[5], new int[5]);
+		return history;
+	}
+	
+	private static void assertSameRuns(RunHistory expected, RunHistory actual)
+	{
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++)
+		{
+			assertEquals(expected.getEpochDay(i), actual.getEpochDay(i));
+			assertEquals(expected.getStartMs(i), actual.getStartMs(i));
+			assertEquals(expected.getDurationMs(i), actual.getDurationMs(i));
+			assertEquals(expected.getPausedMs(i), actual.getPausedMs(i));
+			assertEquals(expected.getXp(i), actual.getXp(i));
+			assertEquals(expected.getHighestFloor(i), actual.getHighestFloor(i));
+			assertEquals(expected.getFlags(i), actual.getFlags(i));
+			assertEquals(expected.getTimeFromGameBits(i), actual.getTimeFromGameBits(i));
+			for (int floor = 1; floor <= FloorCounts.FLOORS; floor++)
+			{
+				assertEquals(expected.getFloorSplitMs(i, floor), actual.getFloorSplitMs(i, floor));
+				assertEquals(expected.getChestsLooted(i, floor), actual.getChestsLooted(i, floor));
+			}
+		}
+	}
+}
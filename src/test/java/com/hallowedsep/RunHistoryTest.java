@@ -0,0 +1,59 @@
+package com.hallowedsep;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RunHistoryTest
+{
+	@Test
+	public void keepsLateRunsInDayOrder()
+	{
+		RunHistory history = new RunHistory();
+		add(history, 10, 100);
+		add(history, 12, 300);
+		add(history, 11, 200);
+		add(history, 10, 150);
+		
+		assertEquals(10, history.getEpochDay(0));
+		assertEquals(100, history.getXp(0));
+		assertEquals(150, history.getXp(1));
+		assertEquals(200, history.getXp(2));
+		assertEquals(300, history.getXp(3));
+		assertEquals(2, history.firstIndexOnOrAfter(11));
+		assertEquals(3, history.upperBound(11));
+		assertEquals(500, history.sumXp(2, 4));
+	}
+	
+	@Test
+	public void addAllMergesByDay()
+	{
+		RunHistory loaded = new RunHistory();
+		add(loaded, 10, 100);
+		add(loaded, 12, 300);
+		RunHistory recent = new RunHistory();
+		add(recent, 11, 200);
+		
+		loaded.addAll(recent);
+		assertEquals(3, loaded.size());
+		assertEquals(200, loaded.getXp(1));
+	}
+	
+	@Test
+	public void bestSplitUsesGameTimesOnly()
+	{
+		RunHistory history = new RunHistory();
+		history.add(10, 0, 0, 0, 0, 2, 0, 1 << 2, new int[]{ 30_000, 50_000, 0, 0, 0 }, new int[5]);
+		history.add(10, 0, 0, 0, 0, 2, 0, 1 << 1 | 1 << 2, new int[]{ 40_000, 55_000, 0, 0, 0 }, new int[5]);
+		
+		// Floor 1's 30s split was timed by the plugin, not the game
+		assertEquals(40_000, history.bestFloorSplitMs(1, 0, 2));
+		assertEquals(50_000, history.bestFloorSplitMs(2, 0, 2));
+		assertEquals(0, history.bestFloorSplitMs(3, 0, 2));
+	}
+	
+	private static void add(RunHistory history, int day, int xp)
+	{
+		history.add(day, 0, 0, 0, xp, 1, 0, 0, new int[5], new int[5]);
+	}
+}
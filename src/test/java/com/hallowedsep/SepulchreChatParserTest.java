@@ -0,0 +1,97 @@
+package com.hallowedsep;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SepulchreChatParserTest
+{
+	private final SepulchreChatParser parser = new SepulchreChatParser();
+	
+	@Test
+	public void readsFloorCompletionCount()
+	{
+		assertEquals(SepulchreChatParser.Type.FLOOR_COMPLETED,
+			parser.parse("You have completed Floor 2 of the Hallowed Sepulchre! Total completions: <col=ff0000>87</col>."));
+		assertEquals(2, parser.getFloor());
+		assertEquals(87, parser.getCompletions());
+	}
+	
+	@Test
+	public void readsCompletionCountWithThousandsSeparators()
+	{
+		assertEquals(SepulchreChatParser.Type.FLOOR_COMPLETED,
+			parser.parse("You have completed Floor 5 of the Hallowed Sepulchre! Total completions: <col=ff0000>12,486</col>."));
+		assertEquals(5, parser.getFloor());
+		assertEquals(12_486, parser.getCompletions());
+	}
+	
+	@Test
+	public void readsFloorTimeAndPersonalBest()
+	{
+		assertEquals(SepulchreChatParser.Type.FLOOR_TIME,
+			parser.parse("Floor 1 time: <col=ff0000>0:41</col>. Personal best: 0:35"));
+		assertEquals(1, parser.getFloor());
+		assertEquals(41_000, parser.getFloorTimeMs());
+		assertEquals(35_000, parser.getPersonalBestMs());
+	}
+	
+	@Test
+	public void readsPreciseTiming()
+	{
+		assertEquals(SepulchreChatParser.Type.FLOOR_TIME,
+			parser.parse("Floor 3 time: <col=ff0000>1:52.20</col>. Personal best: 1:38.40"));
+		assertEquals(3, parser.getFloor());
+		assertEquals(112_200, parser.getFloorTimeMs());
+		assertEquals(98_400, parser.getPersonalBestMs());
+	}
+	
+	@Test
+	public void readsFloorPersonalBestBeforeOverallTime()
+	{
+		assertEquals(SepulchreChatParser.Type.FLOOR_TIME,
+			parser.parse("Floor 5 time: <col=ff0000>3:12.60</col>. Personal best: 2:48.00"
+				+ "<br>Overall time: <col=ff0000>8:03.00</col>. Personal best: 7:21.60"));
+		assertEquals(5, parser.getFloor());
+		assertEquals(192_600, parser.getFloorTimeMs());
+		assertEquals(168_000, parser.getPersonalBestMs());
+	}
+	
+	@Test
+	public void newPersonalBestHasNoSeparateBest()
+	{
+		assertEquals(SepulchreChatParser.Type.FLOOR_TIME,
+			parser.parse("Floor 4 time: <col=ff0000>1:31.80</col> (new personal best)"));
+		assertEquals(4, parser.getFloor());
+		assertEquals(91_800, parser.getFloorTimeMs());
+		assertEquals(0, parser.getPersonalBestMs());
+	}
+	
+	@Test
+	public void classifiesFloorTransitions()
+	{
+		assertEquals(SepulchreChatParser.Type.ENTER_FIRST_FLOOR, parser.parse("You venture down into the Hallowed Sepulchre."));
+		assertEquals(SepulchreChatParser.Type.ENTER_NEXT_FLOOR, parser.parse("You venture further down into the Hallowed Sepulchre."));
+		assertEquals(SepulchreChatParser.Type.BETWEEN_FLOORS, parser.parse("You jump across the platform."));
+	}
+	
+	@Test
+	public void clearsValuesBetweenMessages()
+	{
+		parser.parse("Floor 2 time: <col=ff0000>1:02.40</col>. Personal best: 0:54.00");
+		assertEquals(SepulchreChatParser.Type.ENTER_NEXT_FLOOR, parser.parse("You venture further down into the Hallowed Sepulchre."));
+		assertEquals(0, parser.getFloor());
+		assertEquals(-1, parser.getCompletions());
+		assertEquals(0, parser.getFloorTimeMs());
+		assertEquals(0, parser.getPersonalBestMs());
+	}
+	
+	@Test
+	public void ignoresOtherSepulchreMessages()
+	{
+		assertEquals(SepulchreChatParser.Type.NONE,
+			parser.parse("You have opened the Grand Hallowed Coffin <col=ff0000>1,024</col> times!"));
+		assertEquals(SepulchreChatParser.Type.NONE, parser.parse("Floor 6 time: <col=ff0000>0:41</col>. Personal best: 0:35"));
+		assertEquals(SepulchreChatParser.Type.NONE, parser.parse("Welcome to Old School RuneScape."));
+	}
+}
@@ -0,0 +1,74 @@
+package com.hallowedsep;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SepulchreRunTest
+{
+	@Test
+	public void countsCompletedFloorsOnce()
+	{
+		SepulchreRun run = new SepulchreRun();
+		run.startFloor(1);
+		run.completeFloor(1, Duration.ofSeconds(40));
+		run.setFloorTimeFromGame(1, Duration.ofMillis(39_600));
+		assertEquals(1, run.getFloorsCompleted());
+		
+		// A floor message without a tracked start still counts
+		run.setFloorTimeFromGame(2, Duration.ofMillis(52_100));
+		run.completeFloor(3, Duration.ofSeconds(70));
+		assertEquals(3, run.getFloorsCompleted());
+	}
+	
+	@Test
+	public void restartingCompletedFloorUncountsIt()
+	{
+		SepulchreRun run = new SepulchreRun();
+		run.startFloor(1);
+		run.completeFloor(1, Duration.ofSeconds(40));
+		run.startFloor(2);
+		run.completeFloor(2, Duration.ofSeconds(55));
+		
+		run.startFloor(2);
+		assertEquals(1, run.getFloorsCompleted());
+		run.completeFloor(2, Duration.ofSeconds(58));
+		assertEquals(2, run.getFloorsCompleted());
+		
+		// Restarting a floor that never completed changes nothing
+		run.startFloor(3);
+		run.startFloor(3);
+		assertEquals(2, run.getFloorsCompleted());
+	}
+	
+	@Test
+	public void recountsAfterDirectChanges()
+	{
+		SepulchreRun run = new SepulchreRun();
+		run.startFloor(1);
+		run.completeFloor(1, Duration.ofSeconds(40));
+		run.incrementChestsLooted(1);
+		run.incrementChestsLooted(1);
+		run.incrementChestsLooted(6);
+		assertEquals(2, run.getTotalChestsLooted());
+		
+		run.getFloorData().get(1).setCompleted(false);
+		run.recount();
+		assertEquals(0, run.getFloorsCompleted());
+		assertEquals(2, run.getTotalChestsLooted());
+		
+		boolean readOnly = false;
+		try
+		{
+			run.getFloorData().remove(1);
+		}
+		catch (UnsupportedOperationException e)
+		{
+			readOnly = true;
+		}
+		assertTrue(readOnly);
+	}
+}
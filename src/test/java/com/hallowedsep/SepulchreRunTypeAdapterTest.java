@@ -0,0 +1,117 @@
+package com.hallowedsep;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SepulchreRunTypeAdapterTest
+{
+	private static final Instant START = Instant.ofEpochMilli(1_716_206_400_000L);
+	
+	private final Gson gson = new GsonBuilder()
+		.registerTypeAdapter(SepulchreRun.class, new SepulchreRunTypeAdapter())
+		.create();
+	
+	@Test
+	public void roundTripsRun()
+	{
+		SepulchreRun run = new SepulchreRun();
+		run.setStartTime(START);
+		run.setEndTime(START.plusSeconds(340));
+		run.setPausedAt(START.plusSeconds(300));
+		run.setPausedDurationMs(2_500);
+		run.setStartXp(9_000_000);
+		run.setHighestFloor(4);
+		run.setLootedGrandCoffin(true);
+		for (int floor = 1; floor <= 4; floor++)
+		{
+			run.startFloor(floor);
+			// Times are stored to the millisecond
+			run.getFloorData().get(floor).setStartTime(START.plusSeconds(60L * floor));
+			run.addXpDrop(1_000 * floor, floor, START.toEpochMilli() + 60_000L * floor);
+			run.incrementChestsLooted(floor);
+			if (floor < 4)
+			{
+				run.setFloorTimeFromGame(floor, Duration.ofMillis(40_000L + floor * 1_230));
+			}
+		}
+		run.getFloorData().get(2).setDeaths(1);
+		
+		String json = gson.toJson(run);
+		SepulchreRun read = gson.fromJson(json, SepulchreRun.class);
+		
+		assertEquals(START, read.getStartTime());
+		assertEquals(START.plusSeconds(340), read.getEndTime());
+		assertEquals(START.plusSeconds(300), read.getPausedAt());
+		assertEquals(2_500, read.getPausedDurationMs());
+		assertEquals(9_000_000, read.getStartXp());
+		assertEquals(10_000, read.getTotalXp());
+		assertEquals(4, read.getHighestFloor());
+		assertFalse(read.isCompleted());
+		assertTrue(read.isLootedGrandCoffin());
+		assertEquals(run.getFloorData().keySet(), read.getFloorData().keySet());
+		for (int floor = 1; floor <= 4; floor++)
+		{
+			SepulchreRun.FloorData expected = run.getFloorData().get(floor);
+			SepulchreRun.FloorData actual = read.getFloorData().get(floor);
+			assertEquals(floor, actual.getFloorNumber());
+			assertEquals(expected.getStartTime(), actual.getStartTime());
+			assertEquals(expected.getDuration(), actual.getDuration());
+			assertEquals(expected.isCompleted(), actual.isCompleted());
+			assertEquals(expected.isTimeFromGame(), actual.isTimeFromGame());
+			assertEquals(1_000 * floor, actual.getXpGained());
+			assertEquals(expected.getChestsLooted(), actual.getChestsLooted());
+			assertEquals(1, read.getChestsLooted(floor));
+			assertEquals(expected.getDeaths(), actual.getDeaths());
+		}
+		assertEquals(run.getXpTimeline(), read.getXpTimeline());
+		assertEquals(3, read.getFloorsCompleted());
+		assertEquals(4, read.getTotalChestsLooted());
+		assertEquals(json, gson.toJson(read));
+	}
+	
+	@Test
+	public void readsReflectiveLayout()
+	{
+		SepulchreRun read = gson.fromJson("{\"startTime\": 1716206400000, \"endTime\": 1716206700000,"
+			+ " \"totalXp\": 5400, \"highestFloor\": 2, \"completed\": false,"
+			+ " \"floorData\": {\"1\": {\"startTime\": 1716206400000, \"duration\": 41230, \"completed\": true, \"timeFromGame\": true,"
+			+ " \"xpGained\": 2000}, \"2\": {\"completed\": false, \"deaths\": 2}},"
+			+ " \"chestsLootedPerFloor\": {\"1\": 2, \"2\": 1}}", SepulchreRun.class);
+		
+		assertEquals(Duration.ofMinutes(5), read.getDuration());
+		assertEquals(5_400, read.getTotalXp());
+		assertEquals(1, read.getFloorData().get(1).getFloorNumber());
+		assertEquals(Duration.ofMillis(41_230), read.getFloorDuration(1));
+		assertTrue(read.getFloorData().get(1).isTimeFromGame());
+		assertEquals(2_000, read.getFloorData().get(1).getXpGained());
+		assertEquals(2, read.getFloorData().get(2).getFloorNumber());
+		assertEquals(2, read.getFloorData().get(2).getDeaths());
+		assertEquals(1, read.getFloorsCompleted());
+		assertEquals(2, read.getChestsLooted(1));
+		assertEquals(3, read.getTotalChestsLooted());
+		assertEquals(0, read.getXpTimeline().size());
+	}
+	
+	@Test
+	public void skipsUnknownFieldsAndReadsNull()
+	{
+		SepulchreRun read = gson.fromJson("{\"totalXp\": 1200, \"pausedAt\": null, \"future\": [{\"a\": 1}],"
+			+ " \"floorData\": [{\"floorNumber\": 1, \"completed\": true, \"future\": \"x\"}]}", SepulchreRun.class);
+		assertEquals(1_200, read.getTotalXp());
+		assertNull(read.getPausedAt());
+		assertNull(read.getStartTime());
+		assertEquals(1, read.getFloorsCompleted());
+		
+		assertNull(gson.fromJson("null", SepulchreRun.class));
+		assertEquals("null", gson.toJson(null, SepulchreRun.class));
+	}
+}
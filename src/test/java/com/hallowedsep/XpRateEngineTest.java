@@ -0,0 +1,136 @@
+package com.hallowedsep;
+
+import org.junit.Test;
+
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+
+public class XpRateEngineTest
+{
+	private static final long MINUTE = 60_000;
+	
+	@Test
+	public void evictsDropsThatLeaveEachWindow()
+	{
+		XpRateEngine engine = new XpRateEngine();
+		engine.reset(0);
+		engine.record(100, MINUTE);
+		engine.record(200, 4 * MINUTE);
+		engine.record(300, 7 * MINUTE);
+		
+		assertEquals(500, engine.getWindowXp(XpRateWindow.FIVE_MINUTES));
+		assertEquals(600, engine.getWindowXp(XpRateWindow.FIFTEEN_MINUTES));
+		
+		engine.advance(10 * MINUTE);
+		assertEquals(300, engine.getWindowXp(XpRateWindow.FIVE_MINUTES));
+		assertEquals(600, engine.getWindowXp(XpRateWindow.FIFTEEN_MINUTES));
+		
+		engine.advance(20 * MINUTE);
+		assertEquals(0, engine.getWindowXp(XpRateWindow.FIVE_MINUTES));
+		assertEquals(300, engine.getWindowXp(XpRateWindow.FIFTEEN_MINUTES));
+	}
+	
+	@Test
+	public void capturedDropsKeepSliding()
+	{
+		XpRateEngine engine = new XpRateEngine();
+		engine.reset(0);
+		engine.record(100, MINUTE);
+		engine.record(200, 4 * MINUTE);
+		engine.record(300, 7 * MINUTE);
+		XpRateEngine.Drops drops = engine.capture(XpRateWindow.FIVE_MINUTES);
+		
+		// No new drop arrives, yet the older ones still leave the window
+		assertEquals(500, drops.getXp(7 * MINUTE));
+		assertEquals(300, drops.getXp(9 * MINUTE + 1));
+		assertEquals(0, drops.getXp(12 * MINUTE));
+		assertEquals(0, drops.getXpPerHour(12 * MINUTE), 0);
+	}
+	
+	@Test
+	public void measuresOverObservedTimeOnly()
+	{
+		XpRateEngine engine = new XpRateEngine();
+		engine.reset(30 * MINUTE);
+		engine.record(1_000, 31 * MINUTE);
+		XpRateEngine.Drops drops = engine.capture(XpRateWindow.ONE_HOUR);
+		
+		// Two minutes observed, not the hour the window could hold
+		assertEquals(30_000, drops.getXpPerHour(32 * MINUTE), 0.001);
+	}
+	
+	@Test
+	public void gapEmptiesWindowUntilNextDrop()
+	{
+		XpRateEngine engine = new XpRateEngine();
+		engine.reset(0);
+		engine.record(600, MINUTE);
+		engine.record(100, 300 * MINUTE);
+		
+		assertEquals(100, engine.getWindowXp(XpRateWindow.FIVE_MINUTES));
+		assertEquals(100, engine.getWindowXp(XpRateWindow.ONE_HOUR));
+		assertEquals(1_200, engine.capture(XpRateWindow.FIVE_MINUTES).getXpPerHour(300 * MINUTE), 0.001);
+	}
+	
+	@Test
+	public void matchesBruteForceBeyondInitialCapacity()
+	{
+		XpRateEngine engine = new XpRateEngine();
+		engine.reset(0);
+		long[] times = new long[2_000];
+		int[] xp = new int[times.length];
+		for (int i = 0; i < times.length; i++)
+		{
+			times[i] = (i + 1) * 2_500L;
+			xp[i] = 10 + i % 37;
+			engine.record(xp[i], times[i]);
+		}
+		
+		long now = times[times.length - 1];
+		XpRateEngine.Drops captured = engine.capture(XpRateWindow.ONE_HOUR);
+		for (XpRateWindow window : new XpRateWindow[]{ XpRateWindow.FIVE_MINUTES, XpRateWindow.FIFTEEN_MINUTES, XpRateWindow.ONE_HOUR })
+		{
+			long expected = 0;
+			for (int i = 0; i < times.length; i++)
+			{
+				if (times[i] > now - window.getWindowMs())
+				{
+					expected += xp[i];
+				}
+			}
+			assertEquals(window.toString(), expected, engine.getWindowXp(window));
+		}
+		
+		long later = now + 20 * MINUTE;
+		long expected = 0;
+		for (int i = 0; i < times.length; i++)
+		{
+			if (times[i] > later - XpRateWindow.ONE_HOUR.getWindowMs())
+			{
+				expected += xp[i];
+			}
+		}
+		assertEquals(expected, captured.getXp(later));
+	}
+	
+	@Test
+	public void pausedRunHoldsTheRate()
+	{
+		long now = 1_700_000_000_000L;
+		SepulchreRun run = new SepulchreRun();
+		run.setStartTime(Instant.ofEpochMilli(now - 100_000));
+		run.setPausedAt(Instant.ofEpochMilli(now - 40_000));
+		
+		// Active time is the run's 60 seconds before it was paused
+		XpRateEngine engine = new XpRateEngine();
+		engine.reset(0);
+		engine.record(500, 30_000);
+		engine.record(500, 60_000);
+		
+		LiveStatsSnapshot snapshot = new LiveStatsSnapshot(1, run, 2, null, new HallowedSepulchreSession(), null,
+			engine, XpRateWindow.FIVE_MINUTES, 90, 0, 0, 0, 0, 0);
+		assertEquals(60_000, snapshot.getXpPerHour(now), 0.001);
+		assertEquals(60_000, snapshot.getXpPerHour(now + 10 * MINUTE), 0.001);
+	}
+}
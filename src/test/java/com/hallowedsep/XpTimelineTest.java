@@ -0,0 +1,70 @@
+package com.hallowedsep;
+
+import org.junit.Test;
+
+import java.util.Base64;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class XpTimelineTest
+{
+	@Test
+	public void roundTripsDrops()
+	{
+		XpTimeline timeline = new XpTimeline();
+		for (int i = 0; i < 300; i++)
+		{
+			timeline.add(i * 1_837, 40 + i % 200, 1 + i % 5);
+		}
+		// Offsets may step back if the clock does
+		timeline.add(200_000, 12_345, 5);
+		
+		XpTimeline decoded = XpTimeline.decode(timeline.encode());
+		assertEquals(timeline, decoded);
+		assertEquals(301, decoded.size());
+		assertEquals(200_000, decoded.getOffsetMs(300));
+		assertEquals(12_345, decoded.getXp(300));
+		assertEquals(5, decoded.getFloor(300));
+	}
+	
+	@Test
+	public void roundTripsEmptyTimeline()
+	{
+		assertEquals(0, XpTimeline.decode(new XpTimeline().encode()).size());
+	}
+	
+	@Test
+	public void rejectsCountBeyondData()
+	{
+		// Version 1, then a count of 2^31 followed by a single drop's worth of bytes
+		byte[] data = { 1, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x08, 2, 40, 1 };
+		assertRejected(Base64.getEncoder().encodeToString(data));
+	}
+	
+	@Test
+	public void rejectsTruncatedData()
+	{
+		XpTimeline timeline = new XpTimeline();
+		timeline.add(1_000, 500, 1);
+		timeline.add(2_000, 600, 2);
+		byte[] data = Base64.getDecoder().decode(timeline.encode());
+		byte[] truncated = new byte[data.length - 1];
+		System.arraycopy(data, 0, truncated, 0, truncated.length);
+		assertRejected(Base64.getEncoder().encodeToString(truncated));
+	}
+	
+	private static void assertRejected(String encoded)
+	{
+		boolean rejected = false;
+		try
+		{
+			XpTimeline.decode(encoded);
+		}
+		catch (IllegalArgumentException e)
+		{
+			rejected = true;
+		}
+		assertTrue("corrupt timeline should be rejected", rejected);
+	}
+}